@@ -0,0 +1,42 @@
+package com.yoordi.auth.api;
+
+import com.yoordi.auth.keys.KeyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code POST /token}: an access and a refresh token, each signed with RS256 (2048-bit key).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenSigningBenchmark {
+
+    private TokenApi tokenApi;
+
+    @Setup
+    public void setup() {
+        tokenApi = new TokenApi(new KeyService());
+        tokenApi.expMin = 15;
+        tokenApi.refreshExpMin = 1440;
+    }
+
+    @Benchmark
+    public Map<String, Object> issueToken() {
+        return tokenApi.token("u-1", null);
+    }
+}
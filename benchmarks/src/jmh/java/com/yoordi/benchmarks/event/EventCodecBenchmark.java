@@ -0,0 +1,99 @@
+package com.yoordi.benchmarks.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventJsonCodec;
+import com.yoordi.domain.event.EventSerdes;
+import com.yoordi.domain.wire.EventWireDeserializer;
+import com.yoordi.domain.wire.EventWireSerializer;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventDto} encode/decode: Jackson record binding (what Spring's JsonSerializer and
+ * JsonDeserializer did per record) against {@link EventJsonCodec}, with the Avro wire format
+ * for reference. Run with {@code -prof gc} to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventCodecBenchmark {
+
+    private static final String TOPIC = "events.page_view.v1";
+
+    private ObjectWriter jacksonWriter;
+    private ObjectReader jacksonReader;
+    private EventWireSerializer<EventDto> avroSerializer;
+    private EventWireDeserializer<EventDto> avroDeserializer;
+
+    private EventDto event;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        jacksonWriter = objectMapper.writerFor(EventDto.class);
+        jacksonReader = objectMapper.readerFor(EventDto.class);
+
+        SchemaRegistry registry = new FileSchemaRegistry(Files.createTempDirectory("jmh-schemas"));
+        avroSerializer = EventSerdes.serializer(WireFormat.AVRO, registry);
+        avroDeserializer = EventSerdes.deserializer(registry);
+
+        event = new EventDto("0b9f6c1e-4f0a-4c8e-9d4e-2f5a7b3c1d20", "u-48213", "w-731",
+                1_700_000_000_000L, new EventDto.Props(Action.VIEW));
+        json = jacksonWriter.writeValueAsBytes(event);
+        avro = avroSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public byte[] encodeJackson() throws IOException {
+        return jacksonWriter.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() {
+        return EventJsonCodec.encode(event);
+    }
+
+    @Benchmark
+    public byte[] encodeAvro() {
+        return avroSerializer.serialize(TOPIC, event);
+    }
+
+    @Benchmark
+    public EventDto decodeJackson() throws IOException {
+        return jacksonReader.readValue(json);
+    }
+
+    @Benchmark
+    public EventDto decodeCodec() {
+        return EventJsonCodec.decode(json);
+    }
+
+    @Benchmark
+    public EventDto decodeAvro() {
+        return avroDeserializer.deserialize(TOPIC, avro);
+    }
+}
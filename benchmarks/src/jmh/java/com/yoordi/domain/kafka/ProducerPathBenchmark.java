@@ -0,0 +1,123 @@
+package com.yoordi.domain.kafka;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.mock.MockProducerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Client-side cost per event of handing it to the producer: {@code KafkaTemplate.send} with a
+ * {@code whenComplete} callback and a {@code Timer.Sample} per event (what the publishers did)
+ * against {@link PartitionBatcher} with metrics per batch. Both sit on an auto-completing
+ * {@link MockProducer} with a constant serializer, so serialization and the network are left
+ * out and the difference is the per-event overhead itself. Run with {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProducerPathBenchmark {
+
+    private static final String TOPIC = "events.page_view.v1";
+    private static final int PARTITIONS = 12;
+    private static final int CONTENTS = 500;
+    private static final byte[] VALUE = new byte[128];
+
+    private MockProducer<String, EventDto> producer;
+    private KafkaTemplate<String, EventDto> template;
+    private PartitionBatcher<Void> batcher;
+    private Counter published;
+    private Timer publishTimer;
+    private EventDto[] events;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> partitions = IntStream.range(0, PARTITIONS)
+                .mapToObj(p -> new PartitionInfo(TOPIC, p, node, new Node[]{node}, new Node[]{node}))
+                .toList();
+        Serializer<EventDto> valueSerializer = (topic, event) -> VALUE;
+        producer = new MockProducer<>(new Cluster("bench", List.of(node), partitions, Set.of(), Set.of()),
+                true, null, new StringSerializer(), valueSerializer);
+        template = new KafkaTemplate<>(new MockProducerFactory<>(() -> producer));
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        published = registry.counter("events.published.total");
+        publishTimer = registry.timer("events.publish.duration");
+        batcher = new PartitionBatcher<>(producer, TOPIC, 256, 5, batch -> {
+            publishTimer.record(batch.elapsedNanos(), TimeUnit.NANOSECONDS);
+            published.increment(batch.size() - batch.failed());
+        });
+
+        events = new EventDto[CONTENTS * 8];
+        for (int i = 0; i < events.length; i++) {
+            events[i] = new EventDto("evt-" + i, "u-" + i, "w-" + (i % CONTENTS), 1_700_000_000_000L,
+                    new EventDto.Props(Action.VIEW));
+        }
+    }
+
+    // MockProducer keeps every record it was sent
+    @TearDown(Level.Iteration)
+    public void clearHistory() {
+        batcher.flush();
+        producer.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        batcher.close();
+    }
+
+    @Benchmark
+    public void templatePerEvent() {
+        EventDto event = nextEvent();
+        Timer.Sample sample = Timer.start();
+        template.send(TOPIC, event.contentId(), event).whenComplete((result, ex) -> {
+            sample.stop(publishTimer);
+            if (ex == null) {
+                published.increment();
+            }
+        });
+    }
+
+    @Benchmark
+    public void batcherPerBatch() {
+        batcher.offer(nextEvent(), null);
+    }
+
+    private EventDto nextEvent() {
+        EventDto event = events[next];
+        next = (next + 1) % events.length;
+        return event;
+    }
+}
@@ -0,0 +1,76 @@
+package com.yoordi.gw;
+
+import com.yoordi.gw.filter.RequestIdFilter;
+import com.yoordi.gw.ratelimit.IpKeyResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request gateway work. Each call builds a fresh mock exchange, as the filters mutate
+ * it; {@link #exchangeOnly} measures that setup alone so it can be subtracted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayFilterBenchmark {
+
+    private static final InetSocketAddress REMOTE = new InetSocketAddress("10.0.0.7", 51234);
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    private final IpKeyResolver ipKeyResolver = new IpKeyResolver();
+    private final RequestIdFilter requestIdFilter = new RequestIdFilter();
+
+    private static MockServerWebExchange exchange(String header, String value) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/rank/top").remoteAddress(REMOTE);
+        if (header != null) {
+            request.header(header, value);
+        }
+        return MockServerWebExchange.from(request);
+    }
+
+    @Benchmark
+    public MockServerWebExchange exchangeOnly() {
+        return exchange(null, null);
+    }
+
+    @Benchmark
+    public String ipKeyForwarded() {
+        return ipKeyResolver.resolve(exchange("X-Forwarded-For", "203.0.113.9, 10.0.0.1, 10.0.0.2")).block();
+    }
+
+    @Benchmark
+    public String ipKeyRemoteAddress() {
+        return ipKeyResolver.resolve(exchange(null, null)).block();
+    }
+
+    @Benchmark
+    public MockServerWebExchange requestIdGenerated() {
+        MockServerWebExchange exchange = exchange(null, null);
+        requestIdFilter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+
+    @Benchmark
+    public MockServerWebExchange requestIdPropagated() {
+        MockServerWebExchange exchange = exchange(RequestIdFilter.HDR, "0b9f6c1e-4f0a-4c8e-9d4e-2f5a7b3c1d20");
+        requestIdFilter.filter(exchange, CHAIN).block();
+        return exchange;
+    }
+}
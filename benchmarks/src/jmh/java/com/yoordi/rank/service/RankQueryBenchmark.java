@@ -0,0 +1,89 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.rank.store.RankEntry;
+import com.yoordi.rank.store.TopK;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process side of a rank query. Summing windows ({@code aggregateCounts}) runs in Redis
+ * as ZUNIONSTORE, so what the JVM still pays per request is the response cache lookup and,
+ * per count update, the local top-K maintenance that answers single-window reads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankQueryBenchmark {
+
+    @Param({"100"})
+    int capacity;
+
+    @Param({"10000"})
+    int contents;
+
+    private String[] contentIds;
+    private long[] counts;
+    private SplittableRandom random;
+    private TopK topK;
+    private RankQueryCache cache;
+    private RankQueryCache.Key key;
+    private RankResult cached;
+
+    @Setup
+    public void setup() {
+        random = new SplittableRandom(42);
+        contentIds = new String[contents];
+        counts = new long[contents];
+        for (int i = 0; i < contents; i++) {
+            contentIds[i] = "w-" + i;
+        }
+        topK = new TopK(capacity);
+        for (int i = 0; i < contents * 10; i++) {
+            offer();
+        }
+
+        cache = new RankQueryCache(60_000, new SimpleMeterRegistry());
+        key = new RankQueryCache.Key(60, 10, 3, 1_700_000_000_000L);
+        cached = new RankResult(topK.top(10), Optional.empty());
+        cache.get(key, () -> cached);
+    }
+
+    // Skewed like real traffic: low ids are hot
+    private void offer() {
+        int i = (int) (contents * Math.pow(random.nextDouble(), 3));
+        topK.offer(contentIds[i], ++counts[i]);
+    }
+
+    @Benchmark
+    public void topKOffer() {
+        offer();
+    }
+
+    @Benchmark
+    public List<RankEntry> topKRead() {
+        return topK.top(10);
+    }
+
+    @Benchmark
+    public RankResult queryCacheHit() {
+        return cache.get(key, () -> cached);
+    }
+}
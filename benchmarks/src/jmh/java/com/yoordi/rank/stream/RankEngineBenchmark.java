@@ -0,0 +1,128 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventJsonSerializer;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import com.yoordi.rank.config.RankTopologyProperties;
+import com.yoordi.rank.sink.RankBatch;
+import com.yoordi.rank.sink.RankKeyLayout;
+import com.yoordi.rank.sink.RankSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact vs sketch rank engine on one 60s window with a skewed catalogue of 100k or 1M
+ * content IDs. Run with {@code -PjmhProfilers=gc} to compare allocation as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RankEngineBenchmark {
+
+    // Stream time advances 1 ms every this many events
+    private static final int EVENTS_PER_MS = 100;
+    private static final int SEQUENCE = 1 << 20;
+
+    @Param({"exact", "sketch"})
+    public String engine;
+
+    @Param({"100000", "1000000"})
+    public int distinct;
+
+    TopologyTestDriver driver;
+    TestInputTopic<String, EventDto> input;
+    String[] contentIds;
+    int[] sequence;
+    EventDto.Props props;
+    long ts;
+    int next;
+    Path stateDir;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        stateDir = Files.createTempDirectory("jmh-rank-engine");
+        RankSink sink = new RankSink(null, RankKeyLayout.single(), 3, new SimpleMeterRegistry()) {
+            @Override
+            public int flush(RankBatch batch) {
+                int size = batch.size();
+                batch.clear();
+                return size;
+            }
+        };
+        RankTopologyProperties properties = new RankTopologyProperties();
+        properties.setWindows("60s");
+        properties.setEngine(engine);
+        properties.getUniqueViewers().setEnabled(true);
+        TopologyConfig config = new TopologyConfig(sink,
+                EventSerdeConfig.pageViewSerde(new FileSchemaRegistry(stateDir.resolve("schemas")), WireFormat.JSON),
+                new SimpleMeterRegistry(), properties);
+        StreamsBuilder builder = new StreamsBuilder();
+        config.rankStream(builder);
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "jmh-rank-engine");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve("state").toString());
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+        driver = new TopologyTestDriver(builder.build(), props);
+        input = driver.createInputTopic("events.page_view.v1", Serdes.String().serializer(), new EventJsonSerializer());
+
+        contentIds = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            contentIds[i] = "w-" + i;
+        }
+        // Cubed uniform: a few contents take most views, the tail still reaches the whole catalogue
+        SplittableRandom random = new SplittableRandom(42);
+        sequence = new int[SEQUENCE];
+        for (int i = 0; i < SEQUENCE; i++) {
+            double u = random.nextDouble();
+            sequence[i] = (int) (u * u * u * distinct);
+        }
+        this.props = new EventDto.Props(Action.VIEW);
+        ts = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        driver.close();
+    }
+
+    @Benchmark
+    public void processEvent() {
+        int i = next++;
+        String contentId = contentIds[sequence[i & (SEQUENCE - 1)]];
+        long eventTs = ts + i / EVENTS_PER_MS;
+        input.pipeInput(contentId, new EventDto("evt", "u-1", contentId, eventTs, props), eventTs);
+    }
+}
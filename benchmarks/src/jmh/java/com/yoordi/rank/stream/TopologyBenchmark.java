@@ -0,0 +1,135 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventJsonSerializer;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import com.yoordi.rank.config.RankTopologyProperties;
+import com.yoordi.rank.sink.RankBatch;
+import com.yoordi.rank.sink.RankKeyLayout;
+import com.yoordi.rank.sink.RankSink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rank topology: config parsing at startup and per-event processing through
+ * {@link TopologyTestDriver} with Redis replaced by a sink that only drops its batch. The
+ * driver runs the topology on the calling thread, so {@code processEvent} is the cost per
+ * event of one stream thread, with one DSL branch per window ({@code multiWindow=false})
+ * or all three windows in one processor and store ({@code multiWindow=true}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TopologyBenchmark {
+
+    private static final String WINDOWS = "10s, 60s, 300s";
+    private static final String EMIT_MODES = "10s=early,60s=final";
+
+    @Benchmark
+    public List<Integer> parseWindows() {
+        return TopologyConfig.parseWindowSeconds(WINDOWS);
+    }
+
+    @Benchmark
+    public Map<Integer, EmitMode> parseEmitModes() {
+        return TopologyConfig.parseEmitModes(EMIT_MODES);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Driver {
+
+        private static final int CONTENTS = 1000;
+
+        @Param({"false", "true"})
+        boolean multiWindow;
+
+        TopologyTestDriver driver;
+        TestInputTopic<String, EventDto> input;
+        String[] contentIds;
+        EventDto.Props props;
+        long ts;
+        int next;
+        Path stateDir;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            stateDir = Files.createTempDirectory("jmh-streams");
+            RankSink sink = new RankSink(null, RankKeyLayout.single(), 3, new SimpleMeterRegistry()) {
+                @Override
+                public int flush(RankBatch batch) {
+                    int size = batch.size();
+                    batch.clear();
+                    return size;
+                }
+            };
+            RankTopologyProperties properties = new RankTopologyProperties();
+            properties.setWindows(WINDOWS);
+            properties.setMultiWindow(multiWindow);
+            properties.getUniqueViewers().setEnabled(true);
+            TopologyConfig config = new TopologyConfig(sink,
+                    EventSerdeConfig.pageViewSerde(new FileSchemaRegistry(stateDir.resolve("schemas")), WireFormat.JSON),
+                    new SimpleMeterRegistry(), properties);
+            StreamsBuilder builder = new StreamsBuilder();
+            config.rankStream(builder);
+
+            Properties props = new Properties();
+            props.put(StreamsConfig.APPLICATION_ID_CONFIG, "jmh-rank");
+            props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+            props.put(StreamsConfig.STATE_DIR_CONFIG, stateDir.resolve("state").toString());
+            props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+            props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.String().getClass());
+            driver = new TopologyTestDriver(builder.build(), props);
+            input = driver.createInputTopic("events.page_view.v1", Serdes.String().serializer(), new EventJsonSerializer());
+
+            contentIds = new String[CONTENTS];
+            for (int i = 0; i < CONTENTS; i++) {
+                contentIds[i] = "w-" + i;
+            }
+            this.props = new EventDto.Props(Action.VIEW);
+            ts = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            driver.close();
+        }
+    }
+
+    // One event per call, 1 ms of stream time apart, so windows close and punctuations run
+    @Benchmark
+    public void processEvent(Driver d) {
+        String contentId = d.contentIds[d.next++ % d.contentIds.length];
+        long eventTs = d.ts++;
+        d.input.pipeInput(contentId, new EventDto("evt", "u-1", contentId, eventTs, d.props), eventTs);
+    }
+}
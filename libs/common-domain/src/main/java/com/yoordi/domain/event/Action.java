@@ -0,0 +1,82 @@
+package com.yoordi.domain.event;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Event action. One shared constant per value, so decoding never keeps a per-event string
+ * and comparisons are identity checks.
+ */
+public enum Action {
+    VIEW("view"),
+    LIKE("like");
+
+    private static final Action[] VALUES = values();
+
+    private final String value;
+    private final byte[] quoted;
+
+    Action(String value) {
+        this.value = value;
+        this.quoted = ('"' + value + '"').getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @JsonValue
+    public String value() {
+        return value;
+    }
+
+    /** The value as a JSON string literal, pre-encoded for {@link EventJsonCodec}. */
+    byte[] quoted() {
+        return quoted;
+    }
+
+    /**
+     * Jackson binding: blank becomes {@code null} (left to {@code @NotNull} on
+     * {@link EventDto.Props}), unknown values are rejected.
+     */
+    @JsonCreator
+    public static Action from(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Action action = find(value);
+        if (action == null) {
+            throw new IllegalArgumentException("action must be 'view' or 'like'");
+        }
+        return action;
+    }
+
+    /** The action spelled exactly {@code value}, or {@code null}. */
+    public static Action find(String value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (value) {
+            case "view" -> VIEW;
+            case "like" -> LIKE;
+            default -> null;
+        };
+    }
+
+    /** Same as {@link #find(String)} over a parser's text buffer, without building a string. */
+    public static Action find(char[] text, int offset, int length) {
+        for (Action action : VALUES) {
+            if (action.value.length() == length && matches(action.value, text, offset)) {
+                return action;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String value, char[] text, int offset) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != text[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,26 @@
+package com.yoordi.domain.event;
+
+import com.yoordi.domain.wire.AvroMapper;
+import com.yoordi.domain.wire.PageViewSchema;
+import org.apache.avro.generic.GenericRecord;
+
+public class EventAvroMapper implements AvroMapper<EventDto> {
+
+    @Override
+    public GenericRecord toRecord(EventDto event) {
+        Action action = event.props() == null ? null : event.props().action();
+        return PageViewSchema.record(event.eventId(), event.userId(), event.contentId(), event.ts(),
+                action == null ? null : action.value());
+    }
+
+    @Override
+    public EventDto fromRecord(GenericRecord record) {
+        String action = PageViewSchema.action(record);
+        Action parsed = Action.find(action);
+        if (parsed == null) {
+            throw new IllegalArgumentException("Unknown action '" + action + "'");
+        }
+        return new EventDto(PageViewSchema.eventId(record), PageViewSchema.userId(record),
+                PageViewSchema.contentId(record), PageViewSchema.ts(record), new EventDto.Props(parsed));
+    }
+}
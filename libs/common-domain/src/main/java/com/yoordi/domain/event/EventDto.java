@@ -1,35 +1,33 @@
-package com.yoordi.ingest.api.dto;
+package com.yoordi.domain.event;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+/**
+ * Page-view event as produced to {@code events.page_view.v1}. Shared by every service that
+ * writes or reads the topic; the constraints are applied where events enter the system.
+ */
 public record EventDto(
         @NotBlank(message = "eventId must not be blank")
         String eventId,
-        
+
         String userId,
-        
+
         @NotBlank(message = "contentId must not be blank")
         String contentId,
-        
+
         @Positive(message = "ts must be positive")
         long ts,
-        
+
         @Valid
         @NotNull(message = "props must not be null")
         Props props
 ) {
-    
+
     public record Props(
-            @NotBlank(message = "action must not be blank")
-            String action
-    ) {
-        public Props {
-            if (action != null && !action.equals("view") && !action.equals("like")) {
-                throw new IllegalArgumentException("action must be 'view' or 'like'");
-            }
-        }
-    }
+            @NotNull(message = "action must not be blank")
+            Action action
+    ) {}
 }
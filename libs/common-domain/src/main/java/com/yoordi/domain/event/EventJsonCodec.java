@@ -0,0 +1,287 @@
+package com.yoordi.domain.event;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON codec for {@link EventDto} without data binding. Encoding measures the exact UTF-8
+ * size first and writes into one array of that size; the output is the document Jackson
+ * writes for the record (same field order, {@code null} fields included, same escapes).
+ * Decoding walks Jackson's streaming parser, maps the action without building a string and
+ * skips unknown fields.
+ */
+public final class EventJsonCodec {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final byte[] EVENT_ID = ascii("{\"eventId\":");
+    private static final byte[] USER_ID = ascii(",\"userId\":");
+    private static final byte[] CONTENT_ID = ascii(",\"contentId\":");
+    private static final byte[] TS = ascii(",\"ts\":");
+    private static final byte[] PROPS = ascii(",\"props\":");
+    private static final byte[] ACTION = ascii("{\"action\":");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] LONG_MIN = ascii(Long.toString(Long.MIN_VALUE));
+    private static final byte[] HEX = ascii("0123456789ABCDEF");
+
+    private static final int FIXED_LENGTH = EVENT_ID.length + USER_ID.length + CONTENT_ID.length
+            + TS.length + PROPS.length + 1;
+
+    private EventJsonCodec() {
+    }
+
+    public static byte[] encode(EventDto event) {
+        byte[] out = new byte[encodedLength(event)];
+        int p = put(out, 0, EVENT_ID);
+        p = putString(out, p, event.eventId());
+        p = put(out, p, USER_ID);
+        p = putString(out, p, event.userId());
+        p = put(out, p, CONTENT_ID);
+        p = putString(out, p, event.contentId());
+        p = put(out, p, TS);
+        p = putLong(out, p, event.ts());
+        p = put(out, p, PROPS);
+        EventDto.Props props = event.props();
+        if (props == null) {
+            p = put(out, p, NULL);
+        } else {
+            p = put(out, p, ACTION);
+            p = put(out, p, props.action() == null ? NULL : props.action().quoted());
+            out[p++] = '}';
+        }
+        out[p] = '}';
+        return out;
+    }
+
+    public static EventDto decode(byte[] data) {
+        return decode(data, 0, data.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an event document
+     */
+    public static EventDto decode(byte[] data, int offset, int length) {
+        try (JsonParser parser = FACTORY.createParser(data, offset, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("event must be a JSON object");
+            }
+            return readEvent(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed event JSON", e);
+        }
+    }
+
+    private static EventDto readEvent(JsonParser parser) throws IOException {
+        String eventId = null;
+        String userId = null;
+        String contentId = null;
+        long ts = 0;
+        EventDto.Props props = null;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "eventId" -> eventId = readString(parser, value, field);
+                case "userId" -> userId = readString(parser, value, field);
+                case "contentId" -> contentId = readString(parser, value, field);
+                case "ts" -> ts = readLong(parser, value);
+                case "props" -> props = readProps(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+        return new EventDto(eventId, userId, contentId, ts, props);
+    }
+
+    private static EventDto.Props readProps(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (value != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("props must be an object");
+        }
+        Action action = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken token = parser.nextToken();
+            if (!field.equals("action")) {
+                parser.skipChildren();
+            } else if (token == JsonToken.VALUE_STRING) {
+                action = Action.find(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                if (action == null) {
+                    throw new IllegalArgumentException("Unknown action '" + parser.getText() + "'");
+                }
+            } else if (token != JsonToken.VALUE_NULL) {
+                throw new IllegalArgumentException("action must be a string");
+            }
+        }
+        return new EventDto.Props(action);
+    }
+
+    // Scalars bind to String the way Jackson databind would; objects/arrays don't
+    private static String readString(JsonParser parser, JsonToken value, String field) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!value.isScalarValue()) {
+            throw new IllegalArgumentException(field + " must be a string");
+        }
+        return parser.getValueAsString();
+    }
+
+    private static long readLong(JsonParser parser, JsonToken value) throws IOException {
+        return switch (value) {
+            case VALUE_NUMBER_INT -> parser.getLongValue();
+            case VALUE_STRING -> Long.parseLong(parser.getText());
+            case VALUE_NULL -> 0;
+            default -> throw new IllegalArgumentException("ts must be an integer");
+        };
+    }
+
+    static int encodedLength(EventDto event) {
+        int length = FIXED_LENGTH
+                + stringLength(event.eventId())
+                + stringLength(event.userId())
+                + stringLength(event.contentId())
+                + longLength(event.ts());
+        EventDto.Props props = event.props();
+        if (props == null) {
+            return length + NULL.length;
+        }
+        Action action = props.action();
+        return length + ACTION.length + (action == null ? NULL.length : action.quoted().length) + 1;
+    }
+
+    private static int stringLength(String s) {
+        if (s == null) {
+            return NULL.length;
+        }
+        int length = 2;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += asciiLength(c);
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                length += 6;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int asciiLength(char c) {
+        if (c == '"' || c == '\\') {
+            return 2;
+        }
+        if (c >= 0x20) {
+            return 1;
+        }
+        return shortEscape(c) != 0 ? 2 : 6;
+    }
+
+    private static int putString(byte[] out, int p, String s) {
+        if (s == null) {
+            return put(out, p, NULL);
+        }
+        out[p++] = '"';
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                p = putAscii(out, p, c);
+            } else if (c < 0x800) {
+                out[p++] = (byte) (0xC0 | (c >> 6));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Like Jackson: characters outside the BMP go out as two escaped surrogates, not 4-byte UTF-8
+                p = putUnicodeEscape(out, p, c);
+            } else {
+                out[p++] = (byte) (0xE0 | (c >> 12));
+                out[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out[p++] = '"';
+        return p;
+    }
+
+    private static int putAscii(byte[] out, int p, char c) {
+        if (c == '"' || c == '\\') {
+            out[p++] = '\\';
+            out[p++] = (byte) c;
+        } else if (c >= 0x20) {
+            out[p++] = (byte) c;
+        } else if (shortEscape(c) != 0) {
+            out[p++] = '\\';
+            out[p++] = (byte) shortEscape(c);
+        } else {
+            p = putUnicodeEscape(out, p, c);
+        }
+        return p;
+    }
+
+    private static int putUnicodeEscape(byte[] out, int p, char c) {
+        out[p++] = '\\';
+        out[p++] = 'u';
+        out[p++] = HEX[c >> 12];
+        out[p++] = HEX[(c >> 8) & 0xF];
+        out[p++] = HEX[(c >> 4) & 0xF];
+        out[p++] = HEX[c & 0xF];
+        return p;
+    }
+
+    // Control characters Jackson writes in two-character form
+    private static char shortEscape(char c) {
+        return switch (c) {
+            case '\b' -> 'b';
+            case '\t' -> 't';
+            case '\n' -> 'n';
+            case '\f' -> 'f';
+            case '\r' -> 'r';
+            default -> 0;
+        };
+    }
+
+    private static int longLength(long v) {
+        if (v == Long.MIN_VALUE) {
+            return LONG_MIN.length;
+        }
+        int length = v < 0 ? 2 : 1;
+        for (long x = Math.abs(v); x >= 10; x /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int putLong(byte[] out, int p, long v) {
+        if (v == Long.MIN_VALUE) {
+            return put(out, p, LONG_MIN);
+        }
+        int end = p + longLength(v);
+        if (v < 0) {
+            out[p] = '-';
+            v = -v;
+        }
+        int i = end;
+        do {
+            out[--i] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0);
+        return end;
+    }
+
+    private static int put(byte[] out, int p, byte[] bytes) {
+        System.arraycopy(bytes, 0, out, p, bytes.length);
+        return p + bytes.length;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
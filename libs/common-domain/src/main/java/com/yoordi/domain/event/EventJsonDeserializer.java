@@ -0,0 +1,22 @@
+package com.yoordi.domain.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading {@link EventDto} through {@link EventJsonCodec}.
+ */
+public class EventJsonDeserializer implements Deserializer<EventDto> {
+
+    @Override
+    public EventDto deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventJsonCodec.decode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to decode event on topic " + topic, e);
+        }
+    }
+}
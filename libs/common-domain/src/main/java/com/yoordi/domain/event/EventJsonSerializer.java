@@ -0,0 +1,23 @@
+package com.yoordi.domain.event;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link EventDto} through {@link EventJsonCodec}. Adds no type
+ * headers; readers know the topic's type.
+ */
+public class EventJsonSerializer implements Serializer<EventDto> {
+
+    @Override
+    public byte[] serialize(String topic, EventDto data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return EventJsonCodec.encode(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Failed to encode event for topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.yoordi.domain.event;
+
+import com.yoordi.domain.wire.EventWireDeserializer;
+import com.yoordi.domain.wire.EventWireSerde;
+import com.yoordi.domain.wire.EventWireSerializer;
+import com.yoordi.domain.wire.PageViewSchema;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import org.apache.kafka.common.serialization.Serde;
+
+/**
+ * Wire (de)serializers for {@link EventDto} on {@code events.page_view.v1}: JSON via
+ * {@link EventJsonCodec}, Avro via {@link PageViewSchema#V1}.
+ */
+public final class EventSerdes {
+
+    private static final EventAvroMapper MAPPER = new EventAvroMapper();
+
+    private EventSerdes() {
+    }
+
+    public static EventWireSerializer<EventDto> serializer(WireFormat format, SchemaRegistry registry) {
+        return new EventWireSerializer<>(format, PageViewSchema.V1, registry, MAPPER, new EventJsonSerializer());
+    }
+
+    /** Reads both formats, chosen per record by the format header. */
+    public static EventWireDeserializer<EventDto> deserializer(SchemaRegistry registry) {
+        return new EventWireDeserializer<>(PageViewSchema.V1, registry, MAPPER, new EventJsonDeserializer());
+    }
+
+    public static Serde<EventDto> serde(WireFormat writeFormat, SchemaRegistry registry) {
+        return new EventWireSerde<>(serializer(writeFormat, registry), deserializer(registry));
+    }
+}
@@ -0,0 +1,388 @@
+package com.yoordi.domain.kafka;
+
+import com.yoordi.domain.event.EventDto;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Groups events by partition in front of a Kafka producer, so the per-event work on the
+ * calling thread is a hash and an array store. The partition is computed from the
+ * {@code contentId} exactly as the producer's built-in partitioner does for keyed records
+ * (murmur2 of the UTF-8 key), so records land where {@code KafkaTemplate.send} put them.
+ *
+ * <p>Each partition has a ring of {@code 8 * batchSize} slots. The thread whose event fills a
+ * batch sends it; a flusher thread sends partial batches older than {@code lingerMs}. The
+ * flusher sleeps until the oldest queued event is due, and while nothing is queued until
+ * {@code offer} wakes it for the first event of a ring. All
+ * records of a batch share one {@link Batch} callback, and the {@link Listener} runs once per
+ * batch when the last record is acknowledged or failed, which is where metrics belong.
+ * Batches of one partition are sent under a lock, so events of one key keep their order.
+ * A full ring makes the caller wait for the send in progress: backpressure, never a drop.
+ *
+ * <p>A custom {@code partitioner.class} on the producer is bypassed: records carry an
+ * explicit partition.
+ */
+public final class PartitionBatcher<T> implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionBatcher.class);
+
+    private static final long METADATA_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /** Called once per batch, on the producer's I/O thread or the sending thread. */
+    @FunctionalInterface
+    public interface Listener<T> {
+        void onBatch(Batch<T> batch);
+    }
+
+    private final Producer<String, EventDto> producer;
+    private final String topic;
+    private final int batchSize;
+    private final int ringCapacity;
+    private final long lingerNanos;
+    private final Listener<T> listener;
+    private final Thread flusher;
+    private volatile Ring[] rings = new Ring[0];
+    private volatile long metadataCheckedNanos;
+    private volatile boolean closed;
+
+    public PartitionBatcher(Producer<String, EventDto> producer, String topic, int batchSize, long lingerMs,
+                            Listener<T> listener) {
+        this.producer = producer;
+        this.topic = topic;
+        this.batchSize = Math.max(1, batchSize);
+        this.ringCapacity = 8 * this.batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, lingerMs));
+        this.listener = listener;
+        this.flusher = new Thread(this::runFlusher, "partition-batcher-" + topic);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues the event for its partition. {@code tag} comes back with the event in
+     * {@link Batch#tag(int)}, e.g. to complete the request it belongs to. The first call
+     * fetches the topic's partition count, blocking like the producer's first send would.
+     */
+    public void offer(EventDto event, T tag) {
+        Ring ring = ring(event.contentId());
+        int pending;
+        while ((pending = ring.add(event, tag)) < 0) {
+            drain(ring, batchSize, true);
+        }
+        if (pending == 1) {
+            // The ring was empty: the flusher may be asleep with nothing due
+            LockSupport.unpark(flusher);
+        }
+        if (pending >= batchSize) {
+            drain(ring, batchSize, false);
+        }
+    }
+
+    /** Sends every queued event now, partial batches included. */
+    public void flush() {
+        for (Ring ring : rings) {
+            drain(ring, 1, true);
+        }
+    }
+
+    /** Sends what is queued and waits for the producer; the producer itself is left open. */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        flush();
+        producer.flush();
+    }
+
+    // Same partition as the producer's built-in partitioner picks for a keyed record
+    static int partition(String key, int partitions) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    private Ring ring(String key) {
+        Ring[] current = rings;
+        if (current.length == 0) {
+            current = refreshPartitions();
+        }
+        int partition = key == null
+                ? ThreadLocalRandom.current().nextInt(current.length)
+                : partition(key, current.length);
+        return current[partition];
+    }
+
+    // Partitions are only ever added to a topic; rings of the existing ones are kept
+    private synchronized Ring[] refreshPartitions() {
+        metadataCheckedNanos = System.nanoTime();
+        int count = producer.partitionsFor(topic).size();
+        Ring[] current = rings;
+        if (count > current.length) {
+            Ring[] grown = new Ring[count];
+            System.arraycopy(current, 0, grown, 0, current.length);
+            for (int p = current.length; p < count; p++) {
+                grown[p] = new Ring(p, ringCapacity);
+            }
+            rings = current = grown;
+        }
+        return current;
+    }
+
+    // Sends batches of at least minSize. Without wait, a thread already sending for this
+    // partition picks up what is queued, or the flusher does after lingerMs.
+    private void drain(Ring ring, int minSize, boolean wait) {
+        if (wait) {
+            ring.sending.lock();
+        } else if (!ring.sending.tryLock()) {
+            return;
+        }
+        try {
+            Batch<T> batch;
+            while ((batch = ring.take(batchSize, minSize, listener)) != null) {
+                send(batch);
+            }
+        } finally {
+            ring.sending.unlock();
+        }
+    }
+
+    private void send(Batch<T> batch) {
+        batch.sender = Thread.currentThread();
+        batch.startNanos = System.nanoTime();
+        for (int i = 0; i < batch.size; i++) {
+            // Written before send: the I/O thread may complete the record before send returns
+            batch.order[batch.queued] = i;
+            batch.sending = i;
+            try {
+                producer.send(new ProducerRecord<>(topic, batch.partition, batch.events[i].contentId(), batch.events[i]), batch);
+                if (batch.sending == i) {
+                    batch.queued++;
+                }
+            } catch (RuntimeException e) {
+                // Serialization and interrupts throw instead of calling back
+                if (batch.sending == i) {
+                    batch.sending = -1;
+                    batch.complete(i, e);
+                }
+            }
+        }
+        batch.sending = -1;
+    }
+
+    private void runFlusher() {
+        while (!closed) {
+            long waitNanos;
+            try {
+                waitNanos = flushLingering();
+            } catch (RuntimeException e) {
+                log.warn("Partition batcher flush failed: topic={}, error={}", topic, e.toString());
+                waitNanos = lingerNanos;
+            }
+            // A permit left by offer() since the scan makes this return at once
+            if (waitNanos == Long.MAX_VALUE) {
+                LockSupport.park(this);
+            } else if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+            }
+        }
+    }
+
+    // Sends partial batches that are due; returns how long until the next one is, or
+    // Long.MAX_VALUE while nothing is queued and the partitions were never fetched
+    private long flushLingering() {
+        long now = System.nanoTime();
+        Ring[] current = rings;
+        if (current.length == 0) {
+            return Long.MAX_VALUE;
+        }
+        if (now - metadataCheckedNanos >= METADATA_REFRESH_NANOS) {
+            current = refreshPartitions();
+        }
+        long waitNanos = METADATA_REFRESH_NANOS - (now - metadataCheckedNanos);
+        for (Ring ring : current) {
+            long age = ring.age(now);
+            if (age >= lingerNanos) {
+                drain(ring, 1, false);
+                age = ring.age(now);
+                if (age >= lingerNanos) {
+                    // Another thread is sending for this partition; look again shortly
+                    waitNanos = Math.min(waitNanos, lingerNanos / 2);
+                    continue;
+                }
+            }
+            if (age >= 0) {
+                waitNanos = Math.min(waitNanos, lingerNanos - age);
+            }
+        }
+        return waitNanos;
+    }
+
+    private static final class Ring {
+        final int partition;
+        final EventDto[] events;
+        final Object[] tags;
+        final ReentrantLock sending = new ReentrantLock();
+        int head;
+        int count;
+        long oldestNanos;
+
+        Ring(int partition, int capacity) {
+            this.partition = partition;
+            this.events = new EventDto[capacity];
+            this.tags = new Object[capacity];
+        }
+
+        // Events queued after adding, or -1 when full
+        synchronized int add(EventDto event, Object tag) {
+            if (count == events.length) {
+                return -1;
+            }
+            if (count == 0) {
+                oldestNanos = System.nanoTime();
+            }
+            int slot = (head + count) % events.length;
+            events[slot] = event;
+            tags[slot] = tag;
+            return ++count;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized <T> Batch<T> take(int max, int min, Listener<T> listener) {
+            if (count < min) {
+                return null;
+            }
+            int n = Math.min(count, max);
+            Batch<T> batch = new Batch<>(partition, n, listener);
+            for (int i = 0; i < n; i++) {
+                batch.events[i] = events[head];
+                batch.tags[i] = (T) tags[head];
+                events[head] = null;
+                tags[head] = null;
+                head = (head + 1) % events.length;
+            }
+            count -= n;
+            if (count > 0) {
+                // Approximate: the rest waits another linger at most
+                oldestNanos = System.nanoTime();
+            }
+            return batch;
+        }
+
+        // How long the oldest queued event has waited, or -1 when empty
+        synchronized long age(long now) {
+            return count > 0 ? Math.max(0, now - oldestNanos) : -1;
+        }
+    }
+
+    /**
+     * One batch of one partition, and the producer callback shared by all its records.
+     * Records are identified by callback order: the producer completes the records of a
+     * partition in send order, and records completed synchronously inside {@code send}
+     * (full buffer, metadata timeout) are matched to the record being sent.
+     */
+    public static final class Batch<T> implements Callback {
+        private final int partition;
+        private final int size;
+        private final EventDto[] events;
+        private final Object[] tags;
+        private final int[] order;
+        private final AtomicInteger remaining;
+        private final Listener<T> listener;
+        private Exception[] errors;
+        private int failed;
+        private long startNanos;
+        private long elapsedNanos;
+
+        // Sending thread only
+        private Thread sender;
+        private int sending = -1;
+        private int queued;
+        // Producer I/O thread only
+        private int acked;
+
+        Batch(int partition, int size, Listener<T> listener) {
+            this.partition = partition;
+            this.size = size;
+            this.events = new EventDto[size];
+            this.tags = new Object[size];
+            this.order = new int[size];
+            this.remaining = new AtomicInteger(size);
+            this.listener = listener;
+        }
+
+        @Override
+        public void onCompletion(RecordMetadata metadata, Exception exception) {
+            int i;
+            if (Thread.currentThread() == sender && sending >= 0) {
+                i = sending;
+                sending = -1;
+            } else {
+                i = order[acked++];
+            }
+            complete(i, exception);
+        }
+
+        private void complete(int i, Exception exception) {
+            if (exception != null) {
+                fail(i, exception);
+            }
+            if (remaining.decrementAndGet() == 0) {
+                elapsedNanos = System.nanoTime() - startNanos;
+                try {
+                    listener.onBatch(this);
+                } catch (RuntimeException e) {
+                    log.error("Batch listener failed: partition={}, size={}", partition, size, e);
+                }
+            }
+        }
+
+        private synchronized void fail(int i, Exception exception) {
+            if (errors == null) {
+                errors = new Exception[size];
+            }
+            errors[i] = exception;
+            failed++;
+        }
+
+        public int partition() {
+            return partition;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public synchronized int failed() {
+            return failed;
+        }
+
+        public EventDto event(int i) {
+            return events[i];
+        }
+
+        @SuppressWarnings("unchecked")
+        public T tag(int i) {
+            return (T) tags[i];
+        }
+
+        /** Why the i-th record failed, or {@code null} if it was acknowledged. */
+        public synchronized Exception error(int i) {
+            return errors == null ? null : errors[i];
+        }
+
+        /** From the first send to the last acknowledgement. */
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.generic.GenericRecord;
+
+/**
+ * Converts a service's own event type to and from the Avro record of its topic schema.
+ */
+public interface AvroMapper<T> {
+
+    GenericRecord toRecord(T value);
+
+    T fromRecord(GenericRecord record);
+}
@@ -0,0 +1,87 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads events written by {@link EventWireSerializer} in either format. The format header
+ * decides; records without it (older producers) are binary only if they start with the
+ * magic byte, which a JSON document never does. Binary payloads are resolved from the
+ * writer's schema id onto {@code readerSchema}, so compatible schema changes decode.
+ */
+public class EventWireDeserializer<T> implements Deserializer<T> {
+
+    private final Schema readerSchema;
+    private final SchemaRegistry registry;
+    private final AvroMapper<T> mapper;
+    private final Deserializer<T> json;
+    private final Map<Integer, GenericDatumReader<GenericRecord>> readers = new ConcurrentHashMap<>();
+
+    public EventWireDeserializer(Schema readerSchema, SchemaRegistry registry,
+                                 AvroMapper<T> mapper, Deserializer<T> json) {
+        this.readerSchema = readerSchema;
+        this.registry = registry;
+        this.mapper = mapper;
+        this.json = json;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        WireFormat format = WireFormat.fromHeaders(headers).orElseGet(() -> sniff(data));
+        return format == WireFormat.AVRO ? decode(topic, data) : json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return sniff(data) == WireFormat.AVRO ? decode(topic, data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+
+    private static WireFormat sniff(byte[] data) {
+        return data.length >= EventWireSerializer.HEADER_SIZE && data[0] == EventWireSerializer.MAGIC
+                ? WireFormat.AVRO : WireFormat.JSON;
+    }
+
+    private T decode(String topic, byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < EventWireSerializer.HEADER_SIZE || buffer.get() != EventWireSerializer.MAGIC) {
+            throw new SerializationException("Not a binary event on topic " + topic);
+        }
+        int schemaId = buffer.getInt();
+        try {
+            GenericDatumReader<GenericRecord> reader = readers.computeIfAbsent(schemaId,
+                    id -> new GenericDatumReader<>(registry.byId(id), readerSchema));
+            BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(
+                    data, EventWireSerializer.HEADER_SIZE, data.length - EventWireSerializer.HEADER_SIZE, null);
+            return mapper.fromRecord(reader.read(null, decoder));
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to decode event (schema id " + schemaId + ") on topic " + topic, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.yoordi.domain.wire;
+
+import org.apache.kafka.common.serialization.Serdes;
+
+/**
+ * Kafka Streams Serde over {@link EventWireSerializer} / {@link EventWireDeserializer}.
+ */
+public class EventWireSerde<T> extends Serdes.WrapperSerde<T> {
+
+    public EventWireSerde(EventWireSerializer<T> serializer, EventWireDeserializer<T> deserializer) {
+        super(serializer, deserializer);
+    }
+}
@@ -0,0 +1,86 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Writes events in the configured {@link WireFormat} and stamps the format header.
+ * Binary payloads are framed as {@code [0x00][schema id: int32][Avro binary]}; JSON goes
+ * through the delegate so both encodings can be produced to the same topic during rollout.
+ */
+public class EventWireSerializer<T> implements Serializer<T> {
+
+    static final byte MAGIC = 0x0;
+    static final int HEADER_SIZE = 1 + Integer.BYTES;
+
+    private final WireFormat format;
+    private final AvroMapper<T> mapper;
+    private final Serializer<T> json;
+    private final GenericDatumWriter<GenericRecord> writer;
+    private final int schemaId;
+
+    public EventWireSerializer(WireFormat format, Schema schema, SchemaRegistry registry,
+                               AvroMapper<T> mapper, Serializer<T> json) {
+        this.format = format;
+        this.mapper = mapper;
+        this.json = json;
+        this.writer = new GenericDatumWriter<>(schema);
+        this.schemaId = registry.register(schema);
+    }
+
+    public WireFormat format() {
+        return format;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (headers != null) {
+            format.stamp(headers);
+        }
+        return serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (format == WireFormat.JSON) {
+            return json.serialize(topic, data);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+            out.write(ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putInt(schemaId).array());
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            writer.write(mapper.toRecord(data), encoder);
+            encoder.flush();
+            return out.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Failed to encode event for topic " + topic, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
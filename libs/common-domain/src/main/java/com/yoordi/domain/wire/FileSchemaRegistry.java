@@ -0,0 +1,104 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Stand-in for a schema registry service: one {@code {id}.avsc} file per schema in a directory.
+ * Ids are assigned in registration order, so every process that registers the bundled schemas
+ * first (as the wire serializers do) agrees on their ids without sharing the directory.
+ */
+public class FileSchemaRegistry implements SchemaRegistry {
+
+    private static final String SUFFIX = ".avsc";
+
+    private final Path dir;
+    private final Map<Integer, Schema> schemas = new ConcurrentHashMap<>();
+
+    public FileSchemaRegistry(Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create schema directory " + dir, e);
+        }
+        reload();
+    }
+
+    @Override
+    public synchronized int register(Schema schema) {
+        String form = SchemaNormalization.toParsingForm(schema);
+        while (true) {
+            reload();
+            for (Map.Entry<Integer, Schema> e : schemas.entrySet()) {
+                if (SchemaNormalization.toParsingForm(e.getValue()).equals(form)) {
+                    return e.getKey();
+                }
+            }
+            int id = schemas.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+            try {
+                Files.writeString(dir.resolve(id + SUFFIX), schema.toString(true), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                schemas.put(id, schema);
+                return id;
+            } catch (FileAlreadyExistsException e) {
+                // Another process took this id; re-read and try again
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot register schema " + schema.getFullName(), e);
+            }
+        }
+    }
+
+    @Override
+    public Schema byId(int id) {
+        Schema schema = schemas.get(id);
+        if (schema == null) {
+            synchronized (this) {
+                reload();
+            }
+            schema = schemas.get(id);
+        }
+        if (schema == null) {
+            throw new IllegalArgumentException("Unknown schema id: " + id);
+        }
+        return schema;
+    }
+
+    private void reload() {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.getFileName().toString().endsWith(SUFFIX))
+                 .forEach(this::load);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema directory " + dir, e);
+        }
+    }
+
+    private void load(Path file) {
+        String name = file.getFileName().toString();
+        int id;
+        try {
+            id = Integer.parseInt(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (schemas.containsKey(id)) {
+            return;
+        }
+        try {
+            schemas.put(id, new Schema.Parser().parse(Files.readString(file, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read schema " + file, e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Avro schema of {@code events.page_view.v1} plus helpers to build and read its records.
+ */
+public final class PageViewSchema {
+
+    public static final String RESOURCE = "/avro/events.page_view.v1.avsc";
+    public static final Schema V1 = load();
+
+    private static final Schema PROPS = V1.getField("props").schema();
+    private static final Schema ACTION = PROPS.getField("action").schema();
+
+    private PageViewSchema() {
+    }
+
+    public static GenericRecord record(String eventId, String userId, String contentId, long ts, String action) {
+        GenericRecord props = new GenericData.Record(PROPS);
+        props.put("action", new GenericData.EnumSymbol(ACTION, action));
+
+        GenericRecord record = new GenericData.Record(V1);
+        record.put("eventId", eventId);
+        record.put("userId", userId);
+        record.put("contentId", contentId);
+        record.put("ts", ts);
+        record.put("props", props);
+        return record;
+    }
+
+    public static String eventId(GenericRecord record) {
+        return text(record.get("eventId"));
+    }
+
+    public static String userId(GenericRecord record) {
+        return text(record.get("userId"));
+    }
+
+    public static String contentId(GenericRecord record) {
+        return text(record.get("contentId"));
+    }
+
+    public static long ts(GenericRecord record) {
+        return (Long) record.get("ts");
+    }
+
+    public static String action(GenericRecord record) {
+        GenericRecord props = (GenericRecord) record.get("props");
+        return props == null ? null : text(props.get("action"));
+    }
+
+    // Decoded strings arrive as Utf8, enums as EnumSymbol
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static Schema load() {
+        try (InputStream in = PageViewSchema.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing schema resource " + RESOURCE);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load schema " + RESOURCE, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.Schema;
+
+/**
+ * Minimal schema registry contract used by the binary wire format: writers register the
+ * schema they encode with and embed the returned id, readers resolve it back.
+ */
+public interface SchemaRegistry {
+
+    /** Id of {@code schema}, registering it if no identical schema is known yet. */
+    int register(Schema schema);
+
+    /** Schema registered under {@code id}; throws {@link IllegalArgumentException} if unknown. */
+    Schema byId(int id);
+}
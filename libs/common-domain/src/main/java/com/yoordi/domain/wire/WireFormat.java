@@ -0,0 +1,60 @@
+package com.yoordi.domain.wire;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Value encodings that can coexist on an event topic. Producers stamp the {@link #HEADER}
+ * header so consumers pick the matching decoder; records without it are sniffed instead.
+ */
+public enum WireFormat {
+
+    JSON("application/json"),
+    AVRO("application/avro");
+
+    public static final String HEADER = "content-type";
+
+    private final String contentType;
+
+    WireFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static WireFormat parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wire format: " + value + " (expected json or avro)");
+        }
+    }
+
+    public void stamp(Headers headers) {
+        headers.remove(HEADER);
+        headers.add(HEADER, contentType.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Optional<WireFormat> fromHeaders(Headers headers) {
+        if (headers == null) {
+            return Optional.empty();
+        }
+        Header header = headers.lastHeader(HEADER);
+        if (header == null || header.value() == null) {
+            return Optional.empty();
+        }
+        String contentType = new String(header.value(), StandardCharsets.UTF_8);
+        for (WireFormat format : values()) {
+            if (format.contentType.equals(contentType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+}
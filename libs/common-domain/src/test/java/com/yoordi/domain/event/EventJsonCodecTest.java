@@ -0,0 +1,113 @@
+package com.yoordi.domain.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.PageViewSchema;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Serde;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJsonCodecTest {
+
+    private static final String TOPIC = "events.page_view.v1";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<EventDto> samples = List.of(
+            new EventDto("evt-1", "u-1", "w-1", 1_700_000_000_000L, new EventDto.Props(Action.VIEW)),
+            new EventDto("evt-2", null, "w-2", 1, new EventDto.Props(Action.LIKE)),
+            new EventDto("evt-\"3\"\\", "\uC0AC\uC6A9\uC790-1", "w-\u00E9\u20AC\uD83D\uDE00", -42, new EventDto.Props(null)),
+            new EventDto("tab\there\nnew\u0001\u001f", "", " ", Long.MIN_VALUE, null),
+            new EventDto(null, null, null, Long.MAX_VALUE, new EventDto.Props(Action.VIEW)));
+
+    @TempDir
+    Path registryDir;
+
+    @Test
+    void encode_shouldWriteSameDocumentAsJackson() throws Exception {
+        for (EventDto event : samples) {
+            byte[] bytes = EventJsonCodec.encode(event);
+
+            // Compared as trees: Jackson's own bytes, parsed back, vs ours
+            assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(event)),
+                    objectMapper.readTree(bytes), event::toString);
+            assertEquals(EventJsonCodec.encodedLength(event), bytes.length, event::toString);
+        }
+    }
+
+    @Test
+    void decode_shouldReadJacksonOutput() throws Exception {
+        for (EventDto event : samples) {
+            assertEquals(event, EventJsonCodec.decode(objectMapper.writeValueAsBytes(event)));
+            assertEquals(event, objectMapper.readValue(EventJsonCodec.encode(event), EventDto.class));
+        }
+    }
+
+    @Test
+    void decode_shouldSkipUnknownFieldsAndAcceptStringTs() {
+        String json = """
+                {"extra":{"a":[1,2]},"eventId":"evt-1","ts":"17","props":{"sessionId":"s","action":"like"},"contentId":"w-1"}
+                """;
+
+        EventDto event = EventJsonCodec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(new EventDto("evt-1", null, "w-1", 17, new EventDto.Props(Action.LIKE)), event);
+        assertSame(Action.LIKE, event.props().action());
+    }
+
+    @Test
+    void decode_invalid_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> decode("{\"props\":{\"action\":\"share\"}}"));
+        assertThrows(IllegalArgumentException.class, () -> decode("{\"eventId\":{}}"));
+        assertThrows(IllegalArgumentException.class, () -> decode("[1]"));
+        assertThrows(IllegalArgumentException.class, () -> decode("{\"eventId\":"));
+    }
+
+    @Test
+    void action_shouldMatchValuesWithoutStrings() {
+        char[] text = "xxlikeview".toCharArray();
+
+        assertSame(Action.LIKE, Action.find(text, 2, 4));
+        assertSame(Action.VIEW, Action.find(text, 6, 4));
+        assertNull(Action.find(text, 0, 4));
+        assertNull(Action.from("  "));
+        assertThrows(IllegalArgumentException.class, () -> Action.from("share"));
+    }
+
+    @Test
+    void actions_shouldBeAvroSymbols() {
+        List<String> symbols = PageViewSchema.V1.getField("props").schema().getField("action").schema().getEnumSymbols();
+
+        assertTrue(symbols.containsAll(Arrays.stream(Action.values()).map(Action::value).toList()));
+    }
+
+    @Test
+    void serde_shouldRoundTripBothFormats() {
+        SchemaRegistry registry = new FileSchemaRegistry(registryDir);
+        EventDto event = samples.get(0);
+
+        for (WireFormat format : WireFormat.values()) {
+            try (Serde<EventDto> serde = EventSerdes.serde(format, registry)) {
+                RecordHeaders headers = new RecordHeaders();
+                byte[] bytes = serde.serializer().serialize(TOPIC, headers, event);
+
+                assertEquals(event, serde.deserializer().deserialize(TOPIC, headers, bytes), format::name);
+                assertEquals(event, serde.deserializer().deserialize(TOPIC, bytes), format::name);
+            }
+        }
+    }
+
+    private static EventDto decode(String json) {
+        return EventJsonCodec.decode(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
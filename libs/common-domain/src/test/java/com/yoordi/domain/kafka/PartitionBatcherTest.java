@@ -0,0 +1,167 @@
+package com.yoordi.domain.kafka;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionBatcherTest {
+
+    private static final String TOPIC = "events.page_view.v1";
+    private static final int PARTITIONS = 6;
+    private static final Node NODE = new Node(0, "localhost", 9092);
+
+    private final List<PartitionBatcher.Batch<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void offer_fullBatch_shouldBeSentByCaller() {
+        MockProducer<String, EventDto> producer = producer();
+        try (PartitionBatcher<String> batcher = new PartitionBatcher<>(producer, TOPIC, 4, 600_000, batches::add)) {
+            for (int i = 0; i < 10; i++) {
+                batcher.offer(event("evt-" + i, "w-1"), null);
+            }
+            assertEquals(8, producer.history().size());
+
+            batcher.flush();
+        }
+
+        assertEquals(List.of(4, 4, 2), batches.stream().map(PartitionBatcher.Batch::size).toList());
+        // Send order within the key is kept
+        assertEquals(IntStream.range(0, 10).mapToObj(i -> "evt-" + i).toList(),
+                producer.history().stream().map(r -> r.value().eventId()).toList());
+    }
+
+    @Test
+    void offer_shouldPickProducerPartitionForKey() {
+        MockProducer<String, EventDto> producer = producer();
+        try (PartitionBatcher<String> batcher = new PartitionBatcher<>(producer, TOPIC, 16, 600_000, batches::add)) {
+            for (int i = 0; i < 200; i++) {
+                batcher.offer(event("evt-" + i, "w-" + i), null);
+            }
+        }
+
+        assertEquals(200, producer.history().size());
+        for (ProducerRecord<String, EventDto> record : producer.history()) {
+            assertEquals(BuiltInPartitioner.partitionForKey(record.key().getBytes(StandardCharsets.UTF_8), PARTITIONS),
+                    record.partition(), record::key);
+        }
+        for (PartitionBatcher.Batch<String> batch : batches) {
+            for (int i = 0; i < batch.size(); i++) {
+                assertEquals(batch.partition(), PartitionBatcher.partition(batch.event(i).contentId(), PARTITIONS));
+            }
+        }
+    }
+
+    @Test
+    void batch_shouldMatchFailuresToTheirEvents() {
+        // Throws for "reject-*" like a serialization failure; the rest are acked by hand
+        MockProducer<String, EventDto> producer = new MockProducer<String, EventDto>(cluster(), false, null,
+                new StringSerializer(), (topic, event) -> new byte[0]) {
+            @Override
+            public synchronized Future<RecordMetadata> send(ProducerRecord<String, EventDto> record, Callback callback) {
+                if (record.value().eventId().startsWith("reject")) {
+                    throw new IllegalStateException("cannot serialize");
+                }
+                return super.send(record, callback);
+            }
+        };
+        PartitionBatcher<String> batcher = new PartitionBatcher<>(producer, TOPIC, 8, 600_000, batches::add);
+        List<String> ids = List.of("evt-0", "reject-1", "evt-2", "evt-3");
+        for (String id : ids) {
+            batcher.offer(event(id, "w-1"), "tag-" + id);
+        }
+        batcher.flush();
+
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(new RecordTooLargeException("too large")));
+        assertTrue(batches.isEmpty());
+        assertTrue(producer.completeNext());
+
+        assertEquals(1, batches.size());
+        PartitionBatcher.Batch<String> batch = batches.get(0);
+        assertEquals(2, batch.failed());
+        List<String> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals("tag-" + batch.event(i).eventId(), batch.tag(i));
+            if (batch.error(i) != null) {
+                failed.add(batch.event(i).eventId() + ":" + batch.error(i).getClass().getSimpleName());
+            }
+        }
+        assertEquals(List.of("reject-1:IllegalStateException", "evt-2:RecordTooLargeException"), failed);
+        batcher.close();
+    }
+
+    @Test
+    void partialBatch_shouldBeSentAfterLinger() throws Exception {
+        MockProducer<String, EventDto> producer = producer();
+        try (PartitionBatcher<String> batcher = new PartitionBatcher<>(producer, TOPIC, 100, 10, batches::add)) {
+            batcher.offer(event("evt-1", "w-1"), null);
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (batches.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+        }
+
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+        assertTrue(batches.get(0).elapsedNanos() >= 0);
+    }
+
+    @Test
+    void partialBatch_afterIdle_shouldWakeFlusher() throws Exception {
+        MockProducer<String, EventDto> producer = producer();
+        try (PartitionBatcher<String> batcher = new PartitionBatcher<>(producer, TOPIC, 100, 10, batches::add)) {
+            batcher.offer(event("evt-1", "w-1"), null);
+            awaitBatches(1);
+            // Nothing queued: the flusher sleeps until the next offer
+            Thread.sleep(50);
+            batcher.offer(event("evt-2", "w-2"), null);
+            awaitBatches(2);
+        }
+
+        assertEquals(2, batches.size());
+        assertEquals("evt-2", batches.get(1).event(0).eventId());
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (batches.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static MockProducer<String, EventDto> producer() {
+        return new MockProducer<>(cluster(), true, null, new StringSerializer(), (topic, event) -> new byte[0]);
+    }
+
+    private static Cluster cluster() {
+        List<PartitionInfo> partitions = IntStream.range(0, PARTITIONS)
+                .mapToObj(p -> new PartitionInfo(TOPIC, p, NODE, new Node[]{NODE}, new Node[]{NODE}))
+                .toList();
+        return new Cluster("test", List.of(NODE), partitions, Set.of(), Set.of());
+    }
+
+    private static EventDto event(String eventId, String contentId) {
+        return new EventDto(eventId, "u-1", contentId, 1_700_000_000_000L, new EventDto.Props(Action.VIEW));
+    }
+}
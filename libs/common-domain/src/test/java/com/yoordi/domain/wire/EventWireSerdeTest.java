@@ -0,0 +1,100 @@
+package com.yoordi.domain.wire;
+
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventWireSerdeTest {
+
+    private static final String TOPIC = "events.page_view.v1";
+
+    record Event(String eventId, String userId, String contentId, long ts, String action) {}
+
+    static class EventMapper implements AvroMapper<Event> {
+        @Override
+        public GenericRecord toRecord(Event e) {
+            return PageViewSchema.record(e.eventId(), e.userId(), e.contentId(), e.ts(), e.action());
+        }
+
+        @Override
+        public Event fromRecord(GenericRecord r) {
+            return new Event(PageViewSchema.eventId(r), PageViewSchema.userId(r), PageViewSchema.contentId(r),
+                    PageViewSchema.ts(r), PageViewSchema.action(r));
+        }
+    }
+
+    // Stand-ins for the services' Jackson serde; the reader keeps the raw document in eventId
+    private final Serializer<Event> json = (topic, e) -> ("{\"eventId\":\"" + e.eventId() + "\"}").getBytes(StandardCharsets.UTF_8);
+    private final Deserializer<Event> jsonReader = (topic, data) ->
+            new Event(new String(data, StandardCharsets.UTF_8), null, null, 0, null);
+
+    @TempDir
+    Path registryDir;
+
+    @Test
+    void avro_roundTrip_shouldPreserveFieldsAndStampHeader() {
+        SchemaRegistry registry = new FileSchemaRegistry(registryDir);
+        EventWireSerializer<Event> serializer = serializer(WireFormat.AVRO, registry);
+        EventWireDeserializer<Event> deserializer = deserializer(registry);
+        Event event = new Event("evt-1", null, "w-1", 1_700_000_000_000L, "like");
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer.serialize(TOPIC, headers, event);
+
+        assertEquals(WireFormat.AVRO, WireFormat.fromHeaders(headers).orElseThrow());
+        assertEquals(event, deserializer.deserialize(TOPIC, headers, bytes));
+        assertEquals(0, bytes[0]);
+    }
+
+    @Test
+    void json_shouldGoThroughDelegate() {
+        SchemaRegistry registry = new FileSchemaRegistry(registryDir);
+        Headers headers = new RecordHeaders();
+
+        byte[] bytes = serializer(WireFormat.JSON, registry).serialize(TOPIC, headers, new Event("evt-1", "u-1", "w-1", 1, "view"));
+
+        assertEquals(WireFormat.JSON, WireFormat.fromHeaders(headers).orElseThrow());
+        assertEquals("{\"eventId\":\"evt-1\"}", deserializer(registry).deserialize(TOPIC, headers, bytes).eventId());
+    }
+
+    @Test
+    void missingHeader_shouldSniffFormat() {
+        SchemaRegistry registry = new FileSchemaRegistry(registryDir);
+        EventWireDeserializer<Event> deserializer = deserializer(registry);
+        Event event = new Event("evt-1", "u-1", "w-1", 1, "view");
+
+        byte[] avro = serializer(WireFormat.AVRO, registry).serialize(TOPIC, event);
+        byte[] legacyJson = "{\"eventId\":\"evt-2\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(event, deserializer.deserialize(TOPIC, new RecordHeaders(), avro));
+        assertEquals("{\"eventId\":\"evt-2\"}", deserializer.deserialize(TOPIC, new RecordHeaders(), legacyJson).eventId());
+    }
+
+    @Test
+    void unknownSchemaId_shouldFail() {
+        EventWireSerializer<Event> serializer = serializer(WireFormat.AVRO, new FileSchemaRegistry(registryDir));
+        byte[] bytes = serializer.serialize(TOPIC, new Event("evt-1", "u-1", "w-1", 1, "view"));
+        bytes[4] = 42;   // schema id 42
+
+        EventWireDeserializer<Event> deserializer = deserializer(new FileSchemaRegistry(registryDir));
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC, bytes));
+    }
+
+    private EventWireSerializer<Event> serializer(WireFormat format, SchemaRegistry registry) {
+        return new EventWireSerializer<>(format, PageViewSchema.V1, registry, new EventMapper(), json);
+    }
+
+    private EventWireDeserializer<Event> deserializer(SchemaRegistry registry) {
+        return new EventWireDeserializer<>(PageViewSchema.V1, registry, new EventMapper(), jsonReader);
+    }
+}
@@ -0,0 +1,74 @@
+package com.yoordi.domain.wire;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSchemaRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void register_sameSchema_shouldReturnSameId() {
+        FileSchemaRegistry registry = new FileSchemaRegistry(dir);
+
+        int first = registry.register(PageViewSchema.V1);
+        int second = registry.register(new Schema.Parser().parse(PageViewSchema.V1.toString()));
+
+        assertEquals(1, first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void register_newSchema_shouldBeVisibleToOtherInstances() {
+        FileSchemaRegistry writer = new FileSchemaRegistry(dir);
+        writer.register(PageViewSchema.V1);
+        Schema other = SchemaBuilder.record("Other").fields().requiredString("id").endRecord();
+
+        int id = writer.register(other);
+
+        assertEquals(2, id);
+        assertEquals(other, new FileSchemaRegistry(dir).byId(id));
+    }
+
+    @Test
+    void byId_unknown_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new FileSchemaRegistry(dir).byId(7));
+    }
+
+    @Test
+    void pageViewSchema_shouldMirrorJsonSchema() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(Path.of("../../schemas/json/events.page_view.v1.json").toFile());
+
+        assertEquals(names(json.get("properties")), avroNames(PageViewSchema.V1));
+        Schema props = PageViewSchema.V1.getField("props").schema();
+        assertEquals(names(json.at("/properties/props/properties")), avroNames(props));
+
+        List<String> actions = new ArrayList<>();
+        json.at("/properties/props/properties/action/enum").forEach(n -> actions.add(n.asText()));
+        assertEquals(actions, props.getField("action").schema().getEnumSymbols());
+    }
+
+    private static List<String> names(JsonNode properties) {
+        List<String> names = new ArrayList<>();
+        for (Iterator<String> it = properties.fieldNames(); it.hasNext(); ) {
+            names.add(it.next());
+        }
+        return names;
+    }
+
+    private static List<String> avroNames(Schema schema) {
+        return schema.getFields().stream().map(Schema.Field::name).toList();
+    }
+}
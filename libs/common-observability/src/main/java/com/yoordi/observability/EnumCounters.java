@@ -0,0 +1,38 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.function.Function;
+
+/**
+ * One {@link LongCounter} per constant of an enum, all under one name and told apart by one
+ * tag. Every counter is registered up front, so finding one is an array index.
+ */
+public final class EnumCounters<E extends Enum<E>> {
+
+    private final LongCounter[] counters;
+
+    private EnumCounters(LongCounter[] counters) {
+        this.counters = counters;
+    }
+
+    public static <E extends Enum<E>> EnumCounters<E> register(MeterRegistry registry, String name, String description,
+                                                               String tagKey, Class<E> type,
+                                                               Function<E, String> tagValue) {
+        E[] constants = type.getEnumConstants();
+        LongCounter[] counters = new LongCounter[constants.length];
+        for (E constant : constants) {
+            counters[constant.ordinal()] = LongCounter.register(registry, name, description,
+                    tagKey, tagValue.apply(constant));
+        }
+        return new EnumCounters<>(counters);
+    }
+
+    public LongCounter get(E key) {
+        return counters[key.ordinal()];
+    }
+
+    public void increment(E key) {
+        counters[key.ordinal()].increment();
+    }
+}
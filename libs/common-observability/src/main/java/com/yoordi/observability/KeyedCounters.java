@@ -0,0 +1,57 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link LongCounter}s under one name for tag values known only at runtime, such as route IDs.
+ * A value's counter is registered the first time it is seen and found with a map lookup
+ * after that. Values beyond {@code maxValues} share the {@code other} counter, so a bad
+ * input cannot grow the registry without bound.
+ */
+public final class KeyedCounters {
+
+    static final String OTHER = "other";
+
+    private final MeterRegistry registry;
+    private final String name;
+    private final String description;
+    private final String tagKey;
+    private final int maxValues;
+    private final ConcurrentHashMap<String, LongCounter> counters = new ConcurrentHashMap<>();
+    private volatile LongCounter other;
+
+    public KeyedCounters(MeterRegistry registry, String name, String description, String tagKey, int maxValues) {
+        this.registry = registry;
+        this.name = name;
+        this.description = description;
+        this.tagKey = tagKey;
+        this.maxValues = maxValues;
+    }
+
+    public LongCounter get(String value) {
+        LongCounter counter = counters.get(value);
+        return counter != null ? counter : register(value);
+    }
+
+    public void increment(String value) {
+        get(value).increment();
+    }
+
+    private synchronized LongCounter register(String value) {
+        LongCounter counter = counters.get(value);
+        if (counter != null) {
+            return counter;
+        }
+        if (counters.size() >= maxValues) {
+            if (other == null) {
+                other = LongCounter.register(registry, name, description, tagKey, OTHER);
+            }
+            return other;
+        }
+        counter = LongCounter.register(registry, name, description, tagKey, value);
+        counters.put(value, counter);
+        return counter;
+    }
+}
@@ -0,0 +1,60 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counter for hot paths: increments go to a striped {@link LongAdder}, which threads update
+ * without contending on one cache line, and the registry reads the sum when it scrapes.
+ * Keep the instance: registering the same name and tags again returns the counter the
+ * registered meter already reads.
+ */
+public final class LongCounter {
+
+    // Per registry, the counter each registered meter reads
+    private static final Map<MeterRegistry, Map<Meter.Id, Registered>> REGISTERED = new WeakHashMap<>();
+
+    private record Registered(FunctionCounter meter, LongCounter counter) {}
+
+    private final LongAdder adder = new LongAdder();
+
+    private LongCounter() {
+    }
+
+    /** {@code tags} are key/value pairs, as in {@code Tags.of(String...)}. */
+    public static LongCounter register(MeterRegistry registry, String name, String description, String... tags) {
+        LongCounter counter = new LongCounter();
+        synchronized (REGISTERED) {
+            // An existing id comes back as the existing meter, which reads the first counter's adder
+            FunctionCounter meter = FunctionCounter.builder(name, counter.adder, LongAdder::sum)
+                    .description(description)
+                    .tags(tags)
+                    .register(registry);
+            Map<Meter.Id, Registered> meters = REGISTERED.computeIfAbsent(registry, r -> new HashMap<>());
+            Registered existing = meters.get(meter.getId());
+            if (existing != null && existing.meter() == meter) {
+                return existing.counter();
+            }
+            meters.put(meter.getId(), new Registered(meter, counter));
+            return counter;
+        }
+    }
+
+    public void increment() {
+        adder.increment();
+    }
+
+    public void add(long amount) {
+        adder.add(amount);
+    }
+
+    public long count() {
+        return adder.sum();
+    }
+}
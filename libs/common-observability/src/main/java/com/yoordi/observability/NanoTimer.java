@@ -0,0 +1,42 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times hot paths from {@link System#nanoTime()} readings: the caller keeps the start as a
+ * {@code long}, so there is no {@code Timer.Sample} or lambda per measurement. Recording goes
+ * to the wrapped {@link Timer}, which keeps its histogram and SLO configuration.
+ */
+public final class NanoTimer {
+
+    private final Timer timer;
+
+    private NanoTimer(Timer timer) {
+        this.timer = timer;
+    }
+
+    public static NanoTimer of(Timer timer) {
+        return new NanoTimer(timer);
+    }
+
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /** Records the time since {@code startNanos} and returns it. */
+    public long stop(long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+        return elapsed;
+    }
+
+    public void record(long nanos) {
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public Timer timer() {
+        return timer;
+    }
+}
@@ -0,0 +1,43 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedCountersTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void increment_shouldCountPerTagValue() {
+        KeyedCounters counters = new KeyedCounters(registry, "gateway.ratelimit.rejected", "rejected", "route", 8);
+
+        counters.increment("rank");
+        counters.increment("rank");
+        counters.increment("ingest");
+
+        assertSame(counters.get("rank"), counters.get("rank"));
+        assertEquals(2.0, count("rank"));
+        assertEquals(1.0, count("ingest"));
+    }
+
+    @Test
+    void valuesBeyondMax_shouldShareOtherCounter() {
+        KeyedCounters counters = new KeyedCounters(registry, "gateway.ratelimit.rejected", "rejected", "route", 2);
+
+        for (int i = 0; i < 5; i++) {
+            counters.increment("route-" + i);
+        }
+
+        assertEquals(1.0, count("route-0"));
+        assertEquals(1.0, count("route-1"));
+        assertEquals(3.0, count(KeyedCounters.OTHER));
+        assertNull(registry.find("gateway.ratelimit.rejected").tag("route", "route-2").meter());
+    }
+
+    private double count(String route) {
+        return registry.get("gateway.ratelimit.rejected").tag("route", route).functionCounter().count();
+    }
+}
@@ -0,0 +1,71 @@
+package com.yoordi.observability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongCounterTest {
+
+    private enum Reason { QUEUE, BUFFER }
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void increments_shouldBeReadByRegistry() {
+        LongCounter counter = LongCounter.register(registry, "events.published.total", "published", "topic", "t1");
+
+        IntStream.range(0, 1000).parallel().forEach(i -> counter.increment());
+        counter.add(24);
+
+        assertEquals(1024, counter.count());
+        assertEquals(1024.0, registry.get("events.published.total").tag("topic", "t1").functionCounter().count());
+    }
+
+    @Test
+    void register_sameIdTwice_shouldReturnCounterTheMeterReads() {
+        LongCounter first = LongCounter.register(registry, "events.published.total", "published", "topic", "t1");
+        LongCounter second = LongCounter.register(registry, "events.published.total", "published", "topic", "t1");
+
+        first.increment();
+        second.increment();
+
+        assertSame(first, second);
+        assertEquals(2.0, registry.get("events.published.total").tag("topic", "t1").functionCounter().count());
+        // Another registry gets a counter of its own
+        assertNotSame(first, LongCounter.register(new SimpleMeterRegistry(), "events.published.total", "published", "topic", "t1"));
+    }
+
+    @Test
+    void enumCounters_shouldTagEachConstant() {
+        EnumCounters<Reason> counters = EnumCounters.register(registry, "ingest.admission.rejected.total", "rejected",
+                "reason", Reason.class, r -> r.name().toLowerCase(Locale.ROOT));
+
+        counters.increment(Reason.BUFFER);
+        counters.increment(Reason.BUFFER);
+
+        assertEquals(0, counters.get(Reason.QUEUE).count());
+        assertEquals(2.0, registry.get("ingest.admission.rejected.total").tag("reason", "buffer").functionCounter().count());
+        assertEquals(0.0, registry.get("ingest.admission.rejected.total").tag("reason", "queue").functionCounter().count());
+    }
+
+    @Test
+    void nanoTimer_shouldRecordToWrappedTimer() {
+        Timer timer = registry.timer("events.publish.duration");
+        NanoTimer nanoTimer = NanoTimer.of(timer);
+
+        long elapsed = nanoTimer.stop(NanoTimer.start());
+        nanoTimer.record(TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertTrue(elapsed >= 0);
+        assertEquals(2, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5);
+        assertSame(timer, nanoTimer.timer());
+    }
+}
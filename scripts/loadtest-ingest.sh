@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares event-ingest throughput and p99 latency across target rates for one execution mode.
+# Start event-ingest in the mode under test, then run this with a matching label:
+#   VIRTUAL_THREADS=false ./gradlew :services:event-ingest:bootRun   ->  ./scripts/loadtest-ingest.sh platform
+#   VIRTUAL_THREADS=true  ./gradlew :services:event-ingest:bootRun   ->  ./scripts/loadtest-ingest.sh virtual
+# Requires k6 and a running auth-service. Results are appended to build/loadtest/ingest.tsv.
+
+MODE="${1:?usage: $0 <platform|virtual> [target] [auth-url]}"
+TARGET="${2:-http://localhost:8101}"
+AUTH_URL="${3:-http://localhost:8105}"
+RATES="${RATES:-5000 20000 50000}"
+BATCH="${BATCH:-1}"
+DURATION="${DURATION:-60s}"
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+OUT_DIR="$ROOT/build/loadtest"
+OUT="$OUT_DIR/ingest.tsv"
+mkdir -p "$OUT_DIR"
+
+TOKEN=$(curl -sS -X POST "$AUTH_URL/token?sub=loadtest&scope=write:ingest" | sed -n 's/.*"access_token":"\([^"]*\)".*/\1/p')
+[[ -n "$TOKEN" ]] || { echo "Could not issue token from $AUTH_URL" >&2; exit 1; }
+
+[[ -f "$OUT" ]] || printf 'mode\ttarget_eps\tbatch\tachieved_eps\tp99_ms\terror_pct\tdropped\n' > "$OUT"
+
+for RATE in $RATES; do
+  echo "[$MODE] $RATE events/s for $DURATION (batch=$BATCH)"
+  k6 run --quiet -e MODE="$MODE" -e RATE="$RATE" -e BATCH="$BATCH" -e DURATION="$DURATION" \
+    -e TARGET="$TARGET" -e TOKEN="$TOKEN" "$ROOT/scripts/loadtest/ingest-load.js" | tail -n 1 | tee -a "$OUT"
+  sleep 10
+done
+
+echo
+column -t -s $'\t' "$OUT"
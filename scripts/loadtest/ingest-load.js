@@ -0,0 +1,72 @@
+// k6 load profile for event-ingest: a constant arrival rate of RATE events/s.
+//   k6 run -e RATE=20000 -e TOKEN=... scripts/loadtest/ingest-load.js
+// BATCH > 1 posts that many events per request to /ingest/events/batch.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const RATE = parseInt(__ENV.RATE || '5000');
+const BATCH = parseInt(__ENV.BATCH || '1');
+const DURATION = __ENV.DURATION || '60s';
+const TARGET = __ENV.TARGET || 'http://localhost:8101';
+const MODE = __ENV.MODE || 'unknown';
+const CONTENTS = 1000;
+
+const requestRate = Math.ceil(RATE / BATCH);
+
+export const options = {
+  discardResponseBodies: true,
+  summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+  scenarios: {
+    ingest: {
+      executor: 'constant-arrival-rate',
+      rate: requestRate,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: Math.max(50, Math.ceil(requestRate / 50)),
+      maxVUs: Math.max(200, Math.ceil(requestRate / 5)),
+    },
+  },
+};
+
+const params = {
+  headers: {
+    'Content-Type': 'application/json',
+    Authorization: `Bearer ${__ENV.TOKEN}`,
+  },
+};
+
+function event(i) {
+  return {
+    eventId: `lt-${__VU}-${__ITER}-${i}`,
+    userId: `u-${Math.floor(Math.random() * 100000)}`,
+    contentId: `w-${Math.floor(Math.random() * CONTENTS)}`,
+    ts: Date.now(),
+    props: { action: Math.random() < 0.9 ? 'view' : 'like' },
+  };
+}
+
+export default function () {
+  let res;
+  if (BATCH > 1) {
+    const events = [];
+    for (let i = 0; i < BATCH; i++) events.push(event(i));
+    res = http.post(`${TARGET}/ingest/events/batch`, JSON.stringify(events), params);
+  } else {
+    res = http.post(`${TARGET}/ingest/events`, JSON.stringify(event(0)), params);
+  }
+  check(res, { accepted: (r) => r.status === 202 });
+}
+
+export function handleSummary(data) {
+  const m = data.metrics;
+  const line = [
+    MODE,
+    RATE,
+    BATCH,
+    Math.round(m.http_reqs.values.rate * BATCH),
+    m.http_req_duration.values['p(99)'].toFixed(1),
+    (m.http_req_failed.values.rate * 100).toFixed(2),
+    m.dropped_iterations ? m.dropped_iterations.values.count : 0,
+  ].join('\t');
+  return { stdout: line + '\n' };
+}
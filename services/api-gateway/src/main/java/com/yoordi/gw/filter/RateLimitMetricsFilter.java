@@ -1,6 +1,6 @@
 package com.yoordi.gw.filter;
 
-import io.micrometer.core.instrument.Counter;
+import com.yoordi.observability.KeyedCounters;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
@@ -15,10 +15,15 @@ import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.G
 @Component
 public class RateLimitMetricsFilter implements GlobalFilter, Ordered {
 
-    private final MeterRegistry registry;
+    // Routes come from configuration, so a few dozen values at most
+    private static final int MAX_ROUTES = 256;
+
+    private final KeyedCounters rejected;
 
     public RateLimitMetricsFilter(MeterRegistry registry) {
-        this.registry = registry;
+        // Registered once per route, not looked up in the registry on every 429
+        this.rejected = new KeyedCounters(registry, "gateway_ratelimit_rejected_total",
+                "Total number of requests rejected by rate limiting", "route", MAX_ROUTES);
     }
 
     @Override
@@ -33,11 +38,7 @@ public class RateLimitMetricsFilter implements GlobalFilter, Ordered {
             if (status != null && status.value() == 429) {
                 Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
                 String routeId = route != null ? route.getId() : "unknown";
-                Counter.builder("gateway_ratelimit_rejected_total")
-                        .description("Total number of requests rejected by rate limiting")
-                        .tag("route", routeId)
-                        .register(registry)
-                        .increment();
+                rejected.increment(routeId);
             }
         });
     }
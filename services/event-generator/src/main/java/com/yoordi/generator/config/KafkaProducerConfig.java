@@ -1,6 +1,11 @@
 package com.yoordi.generator.config;
 
-import com.yoordi.generator.domain.EventDto;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventSerdes;
+import com.yoordi.domain.wire.EventWireSerializer;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,8 +14,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,12 +25,21 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${events.wire.format:json}")
+    private String wireFormat;
+
+    @Value("${events.wire.registryDir}")
+    private String registryDir;
+
+    @Bean
+    public SchemaRegistry schemaRegistry() {
+        return new FileSchemaRegistry(Path.of(registryDir));
+    }
+
     @Bean
     public ProducerFactory<String, EventDto> producerFactory() {
         Map<String, Object> config = new HashMap<>();
         config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
 
         // High throughput settings
         config.put(ProducerConfig.ACKS_CONFIG, "all"); // Required for idempotence
@@ -37,7 +51,11 @@ public class KafkaProducerConfig {
         // Enable idempotence
         config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
 
-        return new DefaultKafkaProducerFactory<>(config);
+        // JSON or Avro per events.wire.format; consumers accept both during rollout
+        EventWireSerializer<EventDto> valueSerializer =
+                EventSerdes.serializer(WireFormat.parse(wireFormat), schemaRegistry());
+
+        return new DefaultKafkaProducerFactory<>(config, new StringSerializer(), valueSerializer);
     }
 
     @Bean
@@ -1,11 +0,0 @@
-package com.yoordi.generator.domain;
-
-public record EventDto(
-        String eventId,
-        String userId,
-        String contentId,
-        long ts,
-        Props props
-) {
-    public record Props(String action) {}
-}
\ No newline at end of file
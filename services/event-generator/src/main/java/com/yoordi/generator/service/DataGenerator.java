@@ -1,7 +1,8 @@
 package com.yoordi.generator.service;
 
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
 import com.yoordi.generator.config.GeneratorProperties;
-import com.yoordi.generator.domain.EventDto;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
@@ -21,7 +22,7 @@ public class DataGenerator {
         String userId = generateUserId();
         String contentId = generateContentId();
         long ts = System.currentTimeMillis();
-        String action = selectAction();
+        Action action = selectAction();
 
         return new EventDto(
                 eventId,
@@ -42,8 +43,8 @@ public class DataGenerator {
         return "w-" + id;
     }
 
-    private String selectAction() {
+    private Action selectAction() {
         double random = ThreadLocalRandom.current().nextDouble();
-        return random < props.getViewProbability() ? "view" : "like";
+        return random < props.getViewProbability() ? Action.VIEW : Action.LIKE;
     }
 }
\ No newline at end of file
@@ -1,23 +1,23 @@
 package com.yoordi.generator.service;
 
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.kafka.PartitionBatcher;
 import com.yoordi.generator.config.GeneratorProperties;
-import com.yoordi.generator.domain.EventDto;
-import io.micrometer.core.instrument.Counter;
+import com.yoordi.observability.LongCounter;
+import com.yoordi.observability.NanoTimer;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class EventGenerationService {
@@ -25,19 +25,16 @@ public class EventGenerationService {
     private static final Logger log = LoggerFactory.getLogger(EventGenerationService.class);
 
     private final DataGenerator dataGenerator;
-    private final KafkaTemplate<String, EventDto> kafkaTemplate;
+    private final PartitionBatcher<Void> batcher;
     private final GeneratorProperties props;
-    private final String topic;
 
-    private final Counter generatedCounter;
-    private final Counter publishedCounter;
-    private final Counter errorCounter;
-    private final Timer publishTimer;
+    // Also the totals reported by getStatus()
+    private final LongCounter generatedCounter;
+    private final LongCounter publishedCounter;
+    private final LongCounter errorCounter;
+    private final NanoTimer publishTimer;
 
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final AtomicLong totalGenerated = new AtomicLong(0);
-    private final AtomicLong totalPublished = new AtomicLong(0);
-    private final AtomicLong totalErrors = new AtomicLong(0);
 
     private ScheduledExecutorService scheduler;
 
@@ -45,24 +42,21 @@ public class EventGenerationService {
                                    KafkaTemplate<String, EventDto> kafkaTemplate,
                                    GeneratorProperties props,
                                    @Value("${topic.pageView}") String topic,
+                                   @Value("${generator.producer.batchSize:256}") int batchSize,
+                                   @Value("${generator.producer.lingerMs:5}") long lingerMs,
                                    MeterRegistry registry) {
         this.dataGenerator = dataGenerator;
-        this.kafkaTemplate = kafkaTemplate;
         this.props = props;
-        this.topic = topic;
-
-        this.generatedCounter = Counter.builder("generator.events.generated")
-                .description("Total events generated")
-                .register(registry);
-        this.publishedCounter = Counter.builder("generator.events.published")
-                .description("Total events published to Kafka")
-                .register(registry);
-        this.errorCounter = Counter.builder("generator.events.error")
-                .description("Total publishing errors")
-                .register(registry);
-        this.publishTimer = Timer.builder("generator.publish.duration")
-                .description("Event publishing duration")
-                .register(registry);
+        // Events are grouped per partition; counters and the timer are updated once per batch
+        this.batcher = new PartitionBatcher<>(kafkaTemplate.getProducerFactory().createProducer(), topic,
+                batchSize, lingerMs, this::onBatch);
+
+        this.generatedCounter = LongCounter.register(registry, "generator.events.generated", "Total events generated");
+        this.publishedCounter = LongCounter.register(registry, "generator.events.published", "Total events published to Kafka");
+        this.errorCounter = LongCounter.register(registry, "generator.events.error", "Total publishing errors");
+        this.publishTimer = NanoTimer.of(Timer.builder("generator.publish.duration")
+                .description("Producer batch duration, first send to last acknowledgement")
+                .register(registry));
     }
 
     public synchronized void start() {
@@ -105,9 +99,10 @@ public class EventGenerationService {
                 Thread.currentThread().interrupt();
             }
         }
+        batcher.flush();
 
         log.info("Event generator stopped. Stats: generated={}, published={}, errors={}",
-                totalGenerated.get(), totalPublished.get(), totalErrors.get());
+                generatedCounter.count(), publishedCounter.count(), errorCounter.count());
     }
 
     private void generateAndPublish() {
@@ -118,46 +113,55 @@ public class EventGenerationService {
         try {
             EventDto event = dataGenerator.generateEvent();
             generatedCounter.increment();
-            totalGenerated.incrementAndGet();
 
             log.debug("Generating event: {}", event.eventId());
 
-            Timer.Sample sample = Timer.start();
+            batcher.offer(event, null);
 
-            CompletableFuture<SendResult<String, EventDto>> future =
-                    kafkaTemplate.send(topic, event.contentId(), event);
+        } catch (Exception ex) {
+            errorCounter.increment();
+            log.error("Unexpected error during event generation", ex);
+        }
+    }
 
-            future.whenComplete((result, ex) -> {
-                sample.stop(publishTimer);
+    // Runs once per batch, on the producer's I/O thread
+    private void onBatch(PartitionBatcher.Batch<Void> batch) {
+        publishTimer.record(batch.elapsedNanos());
+        int failed = batch.failed();
+        int published = batch.size() - failed;
 
+        if (failed > 0) {
+            errorCounter.add(failed);
+            for (int i = 0; i < batch.size(); i++) {
+                Exception ex = batch.error(i);
                 if (ex != null) {
-                    errorCounter.increment();
-                    totalErrors.incrementAndGet();
-                    log.error("Failed to publish event: eventId={}, error={}",
-                            event.eventId(), ex.getMessage());
-                } else {
-                    publishedCounter.increment();
-                    totalPublished.incrementAndGet();
-                    if (totalPublished.get() % 1000 == 0) {
-                        log.info("Published {} events so far", totalPublished.get());
-                    }
+                    log.error("Failed to publish {} of {} events: partition={}, eventId={}, error={}",
+                            failed, batch.size(), batch.partition(), batch.event(i).eventId(), ex.getMessage());
+                    break;
                 }
-            });
-
-        } catch (Exception ex) {
-            errorCounter.increment();
-            totalErrors.incrementAndGet();
-            log.error("Unexpected error during event generation", ex);
+            }
         }
+        if (published > 0) {
+            publishedCounter.add(published);
+            long total = publishedCounter.count();
+            if (total / 1000 != (total - published) / 1000) {
+                log.info("Published {} events so far", total);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        batcher.close();
     }
 
     public GeneratorStatus getStatus() {
         return new GeneratorStatus(
                 running.get(),
                 props.getEventsPerSecond(),
-                totalGenerated.get(),
-                totalPublished.get(),
-                totalErrors.get()
+                generatedCounter.count(),
+                publishedCounter.count(),
+                errorCounter.count()
         );
     }
 
@@ -0,0 +1,172 @@
+package com.yoordi.ingest.admission;
+
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.observability.EnumCounters;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sheds ingest requests before the producer blocks. A request is refused when threads are
+ * already waiting for producer buffer space, when less than {@code minFreeBufferRatio} of
+ * {@code buffer.memory} is free, or when it would take the events handed to the producer but
+ * not yet acknowledged past {@code maxInFlight}. Refusals surface as {@link OverloadedException}
+ * (429 with {@code Retry-After}) instead of a request thread stuck for {@code max.block.ms}.
+ *
+ * <p>Buffer figures come from the producer's own metrics, read at most every
+ * {@code sampleIntervalMs}; the in-flight count is kept exactly by {@code EventPublisher}.
+ */
+@Component
+public class AdmissionControl {
+
+    public enum Reason {
+        /** Producer threads already blocked on buffer allocation. */
+        BLOCKED,
+        /** Free producer buffer below the threshold. */
+        BUFFER,
+        /** Too many unacknowledged events. */
+        IN_FLIGHT;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final String PRODUCER_GROUP = "producer-metrics";
+
+    private final boolean enabled;
+    private final double minFreeBufferRatio;
+    private final long maxInFlight;
+    private final long retryAfterSeconds;
+    private final long sampleIntervalNanos;
+    private final Supplier<Map<MetricName, ? extends Metric>> producerMetrics;
+    private final LongSupplier nanoClock;
+
+    // Striped: every event adds to it, only admission checks read it
+    private final LongAdder inFlight = new LongAdder();
+    private final AtomicLong nextSample;
+    private volatile double bufferAvailable = -1;
+    private volatile double bufferTotal = -1;
+    private volatile double waitingThreads;
+    private final EnumCounters<Reason> rejected;
+
+    public AdmissionControl(@Value("${ingest.admission.enabled:true}") boolean enabled,
+                            @Value("${ingest.admission.minFreeBufferRatio:0.25}") double minFreeBufferRatio,
+                            @Value("${ingest.admission.maxInFlight:100000}") long maxInFlight,
+                            @Value("${ingest.admission.retryAfterSeconds:1}") long retryAfterSeconds,
+                            @Value("${ingest.admission.sampleIntervalMs:50}") long sampleIntervalMs,
+                            KafkaTemplate<String, EventDto> kafkaTemplate,
+                            MeterRegistry meterRegistry) {
+        this(enabled, minFreeBufferRatio, maxInFlight, retryAfterSeconds, sampleIntervalMs,
+             kafkaTemplate::metrics, System::nanoTime, meterRegistry);
+    }
+
+    AdmissionControl(boolean enabled, double minFreeBufferRatio, long maxInFlight, long retryAfterSeconds,
+                     long sampleIntervalMs, Supplier<Map<MetricName, ? extends Metric>> producerMetrics,
+                     LongSupplier nanoClock, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minFreeBufferRatio = minFreeBufferRatio;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.retryAfterSeconds = Math.max(1, retryAfterSeconds);
+        this.sampleIntervalNanos = sampleIntervalMs * 1_000_000L;
+        this.producerMetrics = producerMetrics;
+        this.nanoClock = nanoClock;
+        this.nextSample = new AtomicLong(nanoClock.getAsLong());
+
+        this.rejected = EnumCounters.register(meterRegistry, "events.admission.rejected.total",
+                "Ingest requests refused with 429 before reaching the producer", "reason", Reason.class, Reason::tag);
+        Gauge.builder("events.admission.inflight", inFlight, LongAdder::sum)
+                .description("Events handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+        Gauge.builder("events.admission.buffer.available.bytes", this, a -> a.sample().bufferAvailable)
+                .description("Free producer buffer (buffer.memory) in bytes; -1 before the producer exists")
+                .register(meterRegistry);
+        Gauge.builder("events.admission.buffer.waiting.threads", this, a -> a.sample().waitingThreads)
+                .description("Threads blocked waiting for producer buffer space")
+                .register(meterRegistry);
+    }
+
+    /** Admits a request of {@code events} events or throws {@link OverloadedException}. */
+    public void admit(int events) {
+        if (!enabled) {
+            return;
+        }
+        sample();
+        Reason reason = null;
+        if (waitingThreads > 0) {
+            reason = Reason.BLOCKED;
+        } else if (bufferTotal > 0 && bufferAvailable < bufferTotal * minFreeBufferRatio) {
+            reason = Reason.BUFFER;
+        } else {
+            long pending = inFlight.sum();
+            // An idle producer takes any single request, however large
+            if (pending > 0 && pending + events > maxInFlight) {
+                reason = Reason.IN_FLIGHT;
+            }
+        }
+        if (reason != null) {
+            rejected.increment(reason);
+            throw new OverloadedException(reason, retryAfterSeconds);
+        }
+    }
+
+    public void sendStarted() {
+        inFlight.increment();
+    }
+
+    public void sendCompleted() {
+        inFlight.decrement();
+    }
+
+    public void sendsCompleted(int events) {
+        inFlight.add(-events);
+    }
+
+    public long inFlight() {
+        return inFlight.sum();
+    }
+
+    // One caller per interval walks the producer's metrics; the rest use the last values
+    private AdmissionControl sample() {
+        long now = nanoClock.getAsLong();
+        long due = nextSample.get();
+        if (now - due < 0 || !nextSample.compareAndSet(due, now + sampleIntervalNanos)) {
+            return this;
+        }
+        double available = -1;
+        double total = -1;
+        double waiting = 0;
+        for (Map.Entry<MetricName, ? extends Metric> e : producerMetrics.get().entrySet()) {
+            MetricName name = e.getKey();
+            if (!PRODUCER_GROUP.equals(name.group())) {
+                continue;
+            }
+            switch (name.name()) {
+                case "buffer-available-bytes" -> available = value(e.getValue());
+                case "buffer-total-bytes" -> total = value(e.getValue());
+                case "waiting-threads" -> waiting = value(e.getValue());
+                default -> {
+                }
+            }
+        }
+        bufferAvailable = available;
+        bufferTotal = total;
+        waitingThreads = waiting;
+        return this;
+    }
+
+    private static double value(Metric metric) {
+        return metric.metricValue() instanceof Number n ? n.doubleValue() : 0;
+    }
+}
@@ -0,0 +1,22 @@
+package com.yoordi.ingest.admission;
+
+/** Request shed by {@link AdmissionControl}; answered with 429 and {@code Retry-After}. */
+public class OverloadedException extends RuntimeException {
+
+    private final AdmissionControl.Reason reason;
+    private final long retryAfterSeconds;
+
+    public OverloadedException(AdmissionControl.Reason reason, long retryAfterSeconds) {
+        super("Event ingest overloaded (" + reason.tag() + "); retry after " + retryAfterSeconds + "s");
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public AdmissionControl.Reason reason() {
+        return reason;
+    }
+
+    public long retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
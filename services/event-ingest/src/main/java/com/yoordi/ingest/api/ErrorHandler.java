@@ -1,9 +1,11 @@
 package com.yoordi.ingest.api;
 
+import com.yoordi.ingest.admission.OverloadedException;
 import com.yoordi.ingest.api.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.KafkaException;
@@ -66,6 +68,26 @@ public class ErrorHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloadedException(
+            OverloadedException ex, WebRequest request) {
+
+        String traceId = getOrGenerateTraceId();
+        log.debug("Request shed [traceId: {}]: {}", traceId, ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.of(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "OVERLOADED",
+                "Too many events pending. Retry after " + ex.retryAfterSeconds() + " seconds.",
+                getPath(request),
+                traceId
+        );
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.retryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(KafkaException.class)
     public ResponseEntity<ErrorResponse> handleKafkaException(
             KafkaException ex, WebRequest request) {
@@ -1,48 +1,183 @@
 package com.yoordi.ingest.api;
 
-import com.yoordi.ingest.api.dto.EventDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.ingest.admission.AdmissionControl;
+import com.yoordi.ingest.admission.OverloadedException;
+import com.yoordi.ingest.api.dto.StreamIngestResponse;
+import com.yoordi.ingest.service.BatchPublishResult;
 import com.yoordi.ingest.service.EventPublisher;
+import com.yoordi.ingest.spill.SpillQueue;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.KafkaException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/ingest")
 @Tag(name = "Event Ingest", description = "Event ingestion API for webtoon analytics")
 public class IngestController {
+    private static final Logger log = LoggerFactory.getLogger(IngestController.class);
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
     private final EventPublisher publisher;
+    private final AdmissionControl admission;
+    private final SpillQueue spill;
+    private final JsonFactory jsonFactory;
+    private final long ackTimeoutMs;
 
-    public IngestController(EventPublisher publisher) {
+    public IngestController(EventPublisher publisher,
+                            AdmissionControl admission,
+                            SpillQueue spill,
+                            ObjectMapper objectMapper,
+                            @Value("${ingest.batch.ackTimeoutMs:10000}") long ackTimeoutMs) {
         this.publisher = publisher;
+        this.admission = admission;
+        this.spill = spill;
+        this.jsonFactory = objectMapper.getFactory();
+        this.ackTimeoutMs = ackTimeoutMs;
     }
 
     @PostMapping("/events")
     @Operation(summary = "Ingest single event", description = "Publishes a single event to Kafka topic")
     @ApiResponses({
-            @ApiResponse(responseCode = "202", description = "Event accepted for processing"),
-            @ApiResponse(responseCode = "400", description = "Invalid request body")
+            @ApiResponse(responseCode = "202", description = "Event handed to the producer"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body"),
+            @ApiResponse(responseCode = "429", description = "Producer backlog too large; retry after Retry-After seconds")
     })
     public ResponseEntity<Void> post(@RequestBody @Valid EventDto event) {
-        publisher.publish(event);
+        admit(1);
+        // Queued for its partition's batch before answering, like the batch path; admission keeps the producer from blocking
+        publisher.send(event);
         return ResponseEntity.accepted().build();
     }
 
     @PostMapping("/events/batch")
-    @Operation(summary = "Ingest batch of events", description = "Publishes multiple events to Kafka topic")
+    @Operation(summary = "Ingest batch of events",
+            description = "Publishes multiple events to Kafka topic. With waitForAcks=true the response reports per-event failures")
     @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "All events acknowledged by Kafka (waitForAcks=true)"),
             @ApiResponse(responseCode = "202", description = "Events accepted for processing"),
-            @ApiResponse(responseCode = "400", description = "Invalid request body")
+            @ApiResponse(responseCode = "207", description = "Some events failed to publish (waitForAcks=true)"),
+            @ApiResponse(responseCode = "400", description = "Invalid request body"),
+            @ApiResponse(responseCode = "429", description = "Producer backlog too large; retry after Retry-After seconds")
+    })
+    public ResponseEntity<BatchPublishResult> postBatch(
+            @RequestBody @NotEmpty List<@Valid EventDto> events,
+            @Parameter(description = "Wait for broker acknowledgements and report failed event IDs", example = "false")
+            @RequestParam(defaultValue = "false") boolean waitForAcks) {
+        admit(events.size());
+        CompletableFuture<BatchPublishResult> publishing = publisher.publishBatch(events);
+        if (!waitForAcks) {
+            return ResponseEntity.accepted().body(BatchPublishResult.accepted(events.size()));
+        }
+
+        BatchPublishResult result;
+        try {
+            result = publishing.get(ackTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Batch acks not received within {}ms: size={}", ackTimeoutMs, events.size());
+            return ResponseEntity.accepted().body(BatchPublishResult.accepted(events.size()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while waiting for batch acks", e);
+        } catch (ExecutionException e) {
+            throw new KafkaException("Batch publish failed", e.getCause());
+        }
+
+        HttpStatus status = result.hasFailures() ? HttpStatus.MULTI_STATUS : HttpStatus.OK;
+        return ResponseEntity.status(status).body(result);
+    }
+
+    @PostMapping(value = "/events/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Ingest NDJSON event stream",
+            description = "Parses one event per line and publishes each as soon as it is read. Invalid lines are skipped and reported")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Stream read to the end; valid events accepted"),
+            @ApiResponse(responseCode = "400", description = "Malformed JSON; events before it were already accepted"),
+            @ApiResponse(responseCode = "429", description = "Producer backlog too large; events before it were already accepted")
     })
-    public ResponseEntity<Map<String, Integer>> postBatch(@RequestBody @NotEmpty List<@Valid EventDto> events) {
-        events.forEach(publisher::publish);
-        return ResponseEntity.accepted().body(Map.of("accepted", events.size()));
+    public ResponseEntity<StreamIngestResponse> postStream(InputStream body) throws IOException {
+        StreamTally tally = new StreamTally();
+        try (NdjsonEventReader reader = new NdjsonEventReader(jsonFactory, body)) {
+            reader.readAll(tally);
+        } catch (JsonProcessingException e) {
+            long line = e.getLocation() != null ? e.getLocation().getLineNr() : -1;
+            log.warn("Malformed NDJSON at line {} after {} events: {}", line, tally.accepted, e.getOriginalMessage());
+            return ResponseEntity.badRequest().body(tally.toResponse("Malformed JSON at line " + line));
+        } catch (OverloadedException e) {
+            log.warn("NDJSON stream shed after {} events: {}", tally.accepted, e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(e.retryAfterSeconds()))
+                    .body(tally.toResponse(e.getMessage()));
+        }
+        return ResponseEntity.accepted().body(tally.toResponse(null));
+    }
+
+    // Spilled events do not touch the producer, so its backlog does not apply to them. A
+    // producer already blocking on buffer space is treated as unhealthy and spilling starts.
+    private void admit(int events) {
+        if (spill.active()) {
+            return;
+        }
+        try {
+            admission.admit(events);
+        } catch (OverloadedException e) {
+            if (e.reason() != AdmissionControl.Reason.BLOCKED || !spill.activate()) {
+                throw e;
+            }
+        }
+    }
+
+    private class StreamTally implements NdjsonEventReader.Handler {
+        private int accepted;
+        private int rejected;
+        private List<StreamIngestResponse.LineError> errors;
+
+        @Override
+        public void onEvent(EventDto event) {
+            admit(1);
+            publisher.send(event);
+            accepted++;
+        }
+
+        @Override
+        public void onInvalid(long line, String eventId, String message) {
+            rejected++;
+            if (errors == null) {
+                errors = new ArrayList<>();
+            }
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new StreamIngestResponse.LineError(line, eventId, message));
+            }
+        }
+
+        StreamIngestResponse toResponse(String error) {
+            return new StreamIngestResponse(accepted, rejected, errors, error);
+        }
     }
-}
\ No newline at end of file
+}
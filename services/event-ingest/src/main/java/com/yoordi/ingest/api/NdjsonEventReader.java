@@ -0,0 +1,123 @@
+package com.yoordi.ingest.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.ingest.api.dto.EventValidator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads newline-delimited JSON events one at a time with Jackson's streaming parser, so
+ * memory stays flat however large the body is. Each event is validated with
+ * {@link EventValidator} before it is built; invalid events are reported and skipped.
+ * Malformed JSON ends the stream with a {@link com.fasterxml.jackson.core.JsonProcessingException}.
+ */
+public class NdjsonEventReader implements Closeable {
+
+    public interface Handler {
+        void onEvent(EventDto event);
+
+        void onInvalid(long line, String eventId, String message);
+    }
+
+    private final JsonParser parser;
+
+    public NdjsonEventReader(JsonFactory jsonFactory, InputStream in) throws IOException {
+        this.parser = jsonFactory.createParser(in);
+    }
+
+    /** Reads to the end of input, calling {@code handler} once per top-level value. */
+    public void readAll(Handler handler) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            long line = parser.currentTokenLocation().getLineNr();
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                handler.onInvalid(line, null, "event must be a JSON object");
+                continue;
+            }
+            readEvent(line, handler);
+        }
+    }
+
+    private void readEvent(long line, Handler handler) throws IOException {
+        String eventId = null;
+        String userId = null;
+        String contentId = null;
+        long ts = 0;
+        boolean hasProps = false;
+        String action = null;
+        String typeError = null;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "eventId" -> eventId = scalarText(value);
+                case "userId" -> userId = scalarText(value);
+                case "contentId" -> contentId = scalarText(value);
+                case "ts" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        ts = parser.getLongValue();
+                    } else if (value == JsonToken.VALUE_STRING) {
+                        ts = parser.getValueAsLong(0);
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        parser.skipChildren();
+                        typeError = "ts must be an integer";
+                    }
+                }
+                case "props" -> {
+                    if (value == JsonToken.START_OBJECT) {
+                        hasProps = true;
+                        action = readAction();
+                    } else if (value != JsonToken.VALUE_NULL) {
+                        parser.skipChildren();
+                        typeError = "props must be an object";
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+
+        String violation = typeError != null ? typeError
+                : EventValidator.firstViolation(eventId, contentId, ts, hasProps, action);
+        if (violation != null) {
+            handler.onInvalid(line, eventId, violation);
+            return;
+        }
+        handler.onEvent(new EventDto(eventId, userId, contentId, ts, new EventDto.Props(Action.find(action))));
+    }
+
+    private String readAction() throws IOException {
+        String action = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            JsonToken value = parser.nextToken();
+            if (field.equals("action")) {
+                action = scalarText(value);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return action;
+    }
+
+    // Scalars bind to String the way Jackson databind would; objects/arrays don't
+    private String scalarText(JsonToken value) throws IOException {
+        if (value.isScalarValue()) {
+            return value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.yoordi.ingest.api.dto;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+
+/**
+ * Hand-written equivalent of the Bean Validation constraints on {@link EventDto} and
+ * {@link EventDto.Props} plus the {@link Action} binding, for the streaming path where events
+ * are checked field by field before any object is built. Messages match the annotation messages.
+ */
+public final class EventValidator {
+
+    private EventValidator() {
+    }
+
+    /** First violated constraint, or {@code null} if the event is valid. */
+    public static String firstViolation(String eventId, String contentId, long ts, boolean hasProps, String action) {
+        if (isBlank(eventId)) {
+            return "eventId must not be blank";
+        }
+        if (isBlank(contentId)) {
+            return "contentId must not be blank";
+        }
+        if (ts <= 0) {
+            return "ts must be positive";
+        }
+        if (!hasProps) {
+            return "props must not be null";
+        }
+        if (isBlank(action)) {
+            return "action must not be blank";
+        }
+        if (Action.find(action) == null) {
+            return "action must be 'view' or 'like'";
+        }
+        return null;
+    }
+
+    // Same rule as @NotBlank: null, or nothing left after trim()
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,34 @@
+package com.yoordi.ingest.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of an NDJSON stream ingestion")
+public record StreamIngestResponse(
+        @Schema(description = "Valid events handed to the producer", example = "9998")
+        int accepted,
+
+        @Schema(description = "Events skipped because they failed validation", example = "2")
+        int rejected,
+
+        @Schema(description = "Per-line validation errors (first 100 only)")
+        List<LineError> errors,
+
+        @Schema(description = "Why the stream stopped early, if it did", example = "Malformed JSON at line 10001")
+        String error
+) {
+    @Schema(description = "Validation error of one NDJSON line")
+    public record LineError(
+            @Schema(description = "1-based line number", example = "42")
+            long line,
+
+            @Schema(description = "Event ID, if present", example = "evt-42")
+            String eventId,
+
+            @Schema(description = "Error message", example = "ts must be positive")
+            String message
+    ) {}
+}
@@ -0,0 +1,166 @@
+package com.yoordi.ingest.dedup;
+
+import com.yoordi.domain.event.EventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drops events whose {@code eventId} was already accepted within {@code ingest.dedup.windowMs},
+ * so client and gateway retries do not publish the same event twice. The in-process
+ * {@link EventIdCache} catches retries that reach the same instance; with
+ * {@code ingest.dedup.redis.enabled} a {@code SET NX PX} per event also catches those routed
+ * to another one, at one Redis round trip per request (pipelined for batches). Redis errors
+ * fail open: the event is published.
+ */
+@Component
+public class EventDeduplicator {
+
+    private static final Logger log = LoggerFactory.getLogger(EventDeduplicator.class);
+
+    private static final String KEY_PREFIX = "ingest:dedup:";
+    private static final byte[] SEEN = {'1'};
+
+    private final boolean enabled;
+    private final EventIdCache local;
+    private final StringRedisTemplate redis; // null unless the Redis tier is on
+    private final Duration window;
+    private final Counter localDuplicates;
+    private final Counter redisDuplicates;
+    private final Counter redisErrors;
+
+    public EventDeduplicator(@Value("${ingest.dedup.enabled:true}") boolean enabled,
+                             @Value("${ingest.dedup.windowMs:60000}") long windowMs,
+                             @Value("${ingest.dedup.capacity:500000}") int capacity,
+                             @Value("${ingest.dedup.redis.enabled:false}") boolean redisEnabled,
+                             ObjectProvider<StringRedisTemplate> redisTemplate,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.window = Duration.ofMillis(windowMs);
+        this.local = new EventIdCache(capacity, window, Runtime.getRuntime().availableProcessors() * 4);
+        this.redis = enabled && redisEnabled ? redisTemplate.getObject() : null;
+        this.localDuplicates = duplicates("local", meterRegistry);
+        this.redisDuplicates = duplicates("redis", meterRegistry);
+        this.redisErrors = Counter.builder("events.dedup.redis.errors.total")
+                .description("Redis dedup checks that failed; the events were published")
+                .register(meterRegistry);
+        FunctionCounter.builder("events.dedup.early.rotations.total", local, EventIdCache::earlyRotations)
+                .description("Dedup cache generations retired by capacity before the window elapsed")
+                .register(meterRegistry);
+    }
+
+    private static Counter duplicates(String tier, MeterRegistry meterRegistry) {
+        return Counter.builder("events.dedup.duplicates.total")
+                .description("Events dropped because their eventId was already accepted")
+                .tag("tier", tier)
+                .register(meterRegistry);
+    }
+
+    /** Records the event as accepted; {@code true} if it is a duplicate and must not be published. */
+    public boolean isDuplicate(EventDto event) {
+        if (!enabled || event.eventId() == null) {
+            return false;
+        }
+        if (!local.add(event.eventId())) {
+            localDuplicates.increment();
+            return true;
+        }
+        if (redis == null) {
+            return false;
+        }
+        try {
+            // Only "OK" means the key was new; an existing key answers nil
+            Boolean first = redis.opsForValue().setIfAbsent(KEY_PREFIX + event.eventId(), "1", window);
+            if (!Boolean.TRUE.equals(first)) {
+                redisDuplicates.increment();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis dedup check failed, publishing: eventId={}, error={}", event.eventId(), e.getMessage());
+        }
+        return false;
+    }
+
+    /** {@link #isDuplicate} for a batch, with one pipelined Redis round trip; index i answers event i. */
+    public boolean[] duplicates(List<EventDto> events) {
+        boolean[] duplicate = new boolean[events.size()];
+        if (!enabled) {
+            return duplicate;
+        }
+        int checks = 0;
+        for (int i = 0; i < duplicate.length; i++) {
+            String eventId = events.get(i).eventId();
+            if (eventId == null) {
+                continue;
+            }
+            if (local.add(eventId)) {
+                checks++;
+            } else {
+                duplicate[i] = true;
+                localDuplicates.increment();
+            }
+        }
+        if (redis == null || checks == 0) {
+            return duplicate;
+        }
+        try {
+            Expiration expiration = Expiration.from(window);
+            List<Object> firsts = redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < duplicate.length; i++) {
+                    if (!duplicate[i] && events.get(i).eventId() != null) {
+                        connection.stringCommands().set(key(events.get(i)), SEEN, expiration, SetOption.ifAbsent());
+                    }
+                }
+                return null;
+            });
+            int r = 0;
+            for (int i = 0; i < duplicate.length; i++) {
+                if (!duplicate[i] && events.get(i).eventId() != null && !Boolean.TRUE.equals(firsts.get(r++))) {
+                    duplicate[i] = true;
+                    redisDuplicates.increment();
+                }
+            }
+        } catch (RuntimeException e) {
+            redisErrors.increment();
+            log.warn("Redis dedup check failed for a batch of {}, publishing: {}", events.size(), e.getMessage());
+        }
+        return duplicate;
+    }
+
+    /**
+     * Forgets an event whose publish failed so that the client's retry goes through. Called from
+     * producer callbacks, so the Redis delete runs off the producer's I/O thread.
+     */
+    public void forget(EventDto event) {
+        if (!enabled || event.eventId() == null) {
+            return;
+        }
+        local.remove(event.eventId());
+        if (redis != null) {
+            CompletableFuture.runAsync(() -> redis.delete(KEY_PREFIX + event.eventId()))
+                    .exceptionally(e -> {
+                        log.warn("Redis dedup key not removed: eventId={}, error={}", event.eventId(), e.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    private static byte[] key(EventDto event) {
+        return (KEY_PREFIX + event.eventId()).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,162 @@
+package com.yoordi.ingest.dedup;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded set of recently seen event IDs, kept as 64-bit fingerprints in open-addressed
+ * {@code long[]} tables: no object per ID and no allocation per lookup. Each segment holds two
+ * generations; lookups check both, inserts go to the current one, and the current one becomes
+ * the previous one (dropping the old previous) once it is a window old or full. An ID is thus
+ * remembered for at least one window and at most two, unless more than {@code capacity} IDs
+ * arrive within a window, which rotates early and shortens the memory instead of growing it.
+ *
+ * <p>Distinct IDs collide with probability about n^2 / 2^65 (below one in ten million at a million entries); a
+ * collision drops an event as a duplicate.
+ */
+public final class EventIdCache {
+
+    private static final long EMPTY = 0;
+    private static final long REMOVED = 1;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final long windowNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder earlyRotations = new LongAdder();
+
+    public EventIdCache(int capacity, Duration window, int segments) {
+        this(capacity, window, segments, System::nanoTime);
+    }
+
+    EventIdCache(int capacity, Duration window, int segments, LongSupplier nanoClock) {
+        if (capacity < 1 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("capacity and window must be positive");
+        }
+        int n = Integer.highestOneBit(Math.max(1, Math.min(segments, capacity)));
+        this.segments = new Segment[n];
+        this.segmentMask = n - 1;
+        this.windowNanos = window.toNanos();
+        this.nanoClock = nanoClock;
+        int perSegment = Math.max(1, capacity / n);
+        long now = nanoClock.getAsLong();
+        for (int i = 0; i < n; i++) {
+            this.segments[i] = new Segment(perSegment, now);
+        }
+    }
+
+    /** Records the ID; {@code true} if it was not seen within the window. */
+    public boolean add(String eventId) {
+        long fp = fingerprint(eventId);
+        return segmentOf(fp).add(fp, nanoClock.getAsLong());
+    }
+
+    /** Forgets the ID, so a retry after a failed publish is not taken for a duplicate. */
+    public void remove(String eventId) {
+        long fp = fingerprint(eventId);
+        segmentOf(fp).remove(fp);
+    }
+
+    /** Generations retired because they filled up before the window elapsed. */
+    public long earlyRotations() {
+        return earlyRotations.sum();
+    }
+
+    private Segment segmentOf(long fp) {
+        // High bits pick the segment, low bits the slot
+        return segments[(int) (fp >>> 40) & segmentMask];
+    }
+
+    // FNV-1a over the UTF-16 chars, then the murmur3 finalizer to spread the bits
+    static long fingerprint(String eventId) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < eventId.length(); i++) {
+            h ^= eventId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb93fe5c1a9c3L;
+        h ^= h >>> 33;
+        return h == EMPTY || h == REMOVED ? h + 2 : h;
+    }
+
+    private final class Segment {
+
+        private final int capacity;
+        private final int mask;
+        private long[] current;
+        private long[] previous;
+        private int used; // Slots taken in current, tombstones included
+        private long generationStart;
+
+        Segment(int capacity, long now) {
+            this.capacity = capacity;
+            // At most half full, so probe sequences stay short
+            int slots = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1) << 1;
+            this.mask = slots - 1;
+            this.current = new long[slots];
+            this.previous = new long[slots];
+            this.generationStart = now;
+        }
+
+        synchronized boolean add(long fp, long now) {
+            if (now - generationStart >= windowNanos) {
+                rotate(now);
+            }
+            if (indexOf(previous, fp) >= 0) {
+                return false;
+            }
+            int i = (int) fp & mask;
+            while (current[i] != EMPTY) {
+                if (current[i] == fp) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            current[i] = fp;
+            if (++used >= capacity) {
+                earlyRotations.increment();
+                rotate(now);
+            }
+            return true;
+        }
+
+        synchronized void remove(long fp) {
+            int i = indexOf(current, fp);
+            if (i >= 0) {
+                current[i] = REMOVED;
+            }
+            i = indexOf(previous, fp);
+            if (i >= 0) {
+                previous[i] = REMOVED;
+            }
+        }
+
+        private int indexOf(long[] table, long fp) {
+            int i = (int) fp & mask;
+            long slot;
+            while ((slot = table[i]) != EMPTY) {
+                if (slot == fp) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        // On a time rotation the dropped entries all predate the current generation's start,
+        // so they are at least a window old
+        private void rotate(long now) {
+            long[] dropped = previous;
+            Arrays.fill(dropped, EMPTY);
+            previous = current;
+            current = dropped;
+            used = 0;
+            generationStart = now;
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.yoordi.ingest.kafka;
 
-import com.yoordi.ingest.api.dto.EventDto;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventSerdes;
+import com.yoordi.domain.wire.EventWireSerializer;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,8 +14,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,20 +25,32 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${events.wire.format:json}")
+    private String wireFormat;
+
+    @Value("${events.wire.registryDir}")
+    private String registryDir;
+
+    @Bean
+    public SchemaRegistry schemaRegistry() {
+        return new FileSchemaRegistry(Path.of(registryDir));
+    }
+
     @Bean
     public ProducerFactory<String, EventDto> producerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
         props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
         props.put(ProducerConfig.BATCH_SIZE_CONFIG, 32768);
         props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
-        props.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        
-        return new DefaultKafkaProducerFactory<>(props);
+
+        // JSON or Avro per events.wire.format; consumers accept both during rollout
+        EventWireSerializer<EventDto> valueSerializer =
+                EventSerdes.serializer(WireFormat.parse(wireFormat), schemaRegistry());
+
+        return new DefaultKafkaProducerFactory<>(props, new StringSerializer(), valueSerializer);
     }
 
     @Bean
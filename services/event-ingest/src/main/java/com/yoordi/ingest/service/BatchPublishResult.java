@@ -0,0 +1,35 @@
+package com.yoordi.ingest.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of a batch publish")
+public record BatchPublishResult(
+        @Schema(description = "Events accepted in the request", example = "100")
+        int accepted,
+
+        @Schema(description = "Events acknowledged by Kafka (only when acks were awaited)", example = "98")
+        Integer published,
+
+        @Schema(description = "Events that failed to publish (only when acks were awaited)", example = "2")
+        Integer failed,
+
+        @Schema(description = "IDs of the events that failed to publish")
+        List<String> failedEventIds
+) {
+    /** Accepted without waiting for broker acknowledgements. */
+    public static BatchPublishResult accepted(int accepted) {
+        return new BatchPublishResult(accepted, null, null, null);
+    }
+
+    public static BatchPublishResult completed(int accepted, List<String> failedEventIds) {
+        return new BatchPublishResult(accepted, accepted - failedEventIds.size(), failedEventIds.size(), failedEventIds);
+    }
+
+    public boolean hasFailures() {
+        return failed != null && failed > 0;
+    }
+}
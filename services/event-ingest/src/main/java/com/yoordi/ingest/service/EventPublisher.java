@@ -1,18 +1,33 @@
 package com.yoordi.ingest.service;
 
-import com.yoordi.ingest.api.dto.EventDto;
-import io.micrometer.core.instrument.Counter;
-import io.micrometer.core.instrument.Timer;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.kafka.PartitionBatcher;
+import com.yoordi.ingest.admission.AdmissionControl;
+import com.yoordi.ingest.dedup.EventDeduplicator;
+import com.yoordi.ingest.spill.SpillQueue;
+import com.yoordi.observability.LongCounter;
+import com.yoordi.observability.NanoTimer;
+import io.micrometer.core.instrument.DistributionSummary;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Hands events to Kafka through a {@link PartitionBatcher}: events are queued per partition
+ * and each batch completes with one callback, so counters, the publish timer and admission
+ * accounting are updated once per batch instead of once per event.
+ */
 @Service
 public class EventPublisher {
 
@@ -20,73 +35,230 @@ public class EventPublisher {
 
     private final KafkaTemplate<String, EventDto> kt;
     private final String topic;
-    private final Counter publishCounter;
-    private final Counter publishErrorCounter;
-    private final Timer publishTimer;
+    private final PartitionBatcher<Acks> batcher;
+    private final LongCounter publishCounter;
+    private final LongCounter publishErrorCounter;
+    private final NanoTimer publishTimer;
+    private final DistributionSummary batchSize;
+    private final EventDeduplicator dedup;
+    private final AdmissionControl admission;
+    private final SpillQueue spill;
 
     public EventPublisher(KafkaTemplate<String, EventDto> kt,
                           @Value("${topic.pageView}") String topic,
-                          Counter eventPublishCounter,
-                          Counter eventPublishErrorCounter,
-                          Timer eventPublishTimer) {
+                          @Value("${ingest.producer.batchSize:256}") int batchSize,
+                          @Value("${ingest.producer.lingerMs:2}") long lingerMs,
+                          LongCounter eventPublishCounter,
+                          LongCounter eventPublishErrorCounter,
+                          NanoTimer eventPublishTimer,
+                          DistributionSummary eventPublishBatchSize,
+                          EventDeduplicator dedup,
+                          AdmissionControl admission,
+                          SpillQueue spill) {
         this.kt = kt;
         this.topic = topic;
         this.publishCounter = eventPublishCounter;
         this.publishErrorCounter = eventPublishErrorCounter;
         this.publishTimer = eventPublishTimer;
+        this.batchSize = eventPublishBatchSize;
+        this.dedup = dedup;
+        this.admission = admission;
+        this.spill = spill;
+        // The factory's shared producer, the same one KafkaTemplate sends through
+        this.batcher = new PartitionBatcher<>(kt.getProducerFactory().createProducer(), topic,
+                batchSize, lingerMs, this::onBatch);
     }
 
-    @Async
     public void publish(EventDto event) {
-        Timer.Sample sample = Timer.start();
+        send(event);
+    }
 
-        try {
-            // key = contentId (파티셔닝 일관성)
-            CompletableFuture<SendResult<String, EventDto>> future = kt.send(topic, event.contentId(), event);
-
-            future.whenComplete((result, ex) -> {
-                sample.stop(publishTimer);
-
-                if (ex != null) {
-                    publishErrorCounter.increment();
-                    log.error("Failed to publish event: eventId={}, contentId={}, error={}",
-                            event.eventId(), event.contentId(), ex.getMessage(), ex);
-                } else {
-                    publishCounter.increment();
-                    log.debug("Event published successfully: eventId={}, contentId={}, partition={}",
-                            event.eventId(), event.contentId(),
-                            result.getRecordMetadata().partition());
-                }
-            });
+    /**
+     * Queues the whole batch from the calling thread. The returned future completes once
+     * every event is acknowledged, spilled or failed. Duplicates are skipped and count as
+     * published: the first copy already was.
+     */
+    public CompletableFuture<BatchPublishResult> publishBatch(List<EventDto> events) {
+        boolean[] duplicate = dedup.duplicates(events);
+        Acks acks = new Acks(events);
 
-        } catch (Exception ex) {
-            sample.stop(publishTimer);
-            publishErrorCounter.increment();
-            log.error("Unexpected error publishing event: eventId={}, contentId={}",
-                    event.eventId(), event.contentId(), ex);
-            throw ex;
+        for (int i = 0; i < duplicate.length; i++) {
+            if (duplicate[i]) {
+                acks.done();
+                continue;
+            }
+            EventDto event = events.get(i);
+            if (spilled(event)) {
+                acks.done();
+                continue;
+            }
+            offer(event, acks);
         }
+        return acks.future;
+    }
+
+    /**
+     * Queues one event from the calling thread, unless it is a duplicate or spilling is on.
+     * Failures are counted and logged when its batch completes.
+     */
+    public void send(EventDto event) {
+        if (dedup.isDuplicate(event) || spilled(event)) {
+            return;
+        }
+        offer(event, null);
     }
 
     // Synchronous version for critical events
     public void publishSync(EventDto event) {
-        Timer.Sample sample = Timer.start();
+        if (dedup.isDuplicate(event) || spilled(event)) {
+            return;
+        }
+        long start = NanoTimer.start();
+        admission.sendStarted();
 
         try {
             SendResult<String, EventDto> result = kt.send(topic, event.contentId(), event).get();
             publishCounter.increment();
-            sample.stop(publishTimer);
+            publishTimer.stop(start);
 
             log.debug("Event published synchronously: eventId={}, contentId={}, partition={}",
                     event.eventId(), event.contentId(),
                     result.getRecordMetadata().partition());
 
         } catch (Exception ex) {
-            sample.stop(publishTimer);
+            publishTimer.stop(start);
+            if (spillFailed(event, ex)) {
+                return;
+            }
             publishErrorCounter.increment();
+            dedup.forget(event);
             log.error("Failed to publish event synchronously: eventId={}, contentId={}",
                     event.eventId(), event.contentId(), ex);
             throw new RuntimeException("Failed to publish event", ex);
+        } finally {
+            admission.sendCompleted();
+        }
+    }
+
+    /** Sends partial batches now instead of after {@code ingest.producer.lingerMs}. */
+    public void flush() {
+        batcher.flush();
+    }
+
+    @PreDestroy
+    public void close() {
+        batcher.close();
+    }
+
+    private void offer(EventDto event, Acks acks) {
+        admission.sendStarted();
+        try {
+            batcher.offer(event, acks);
+        } catch (RuntimeException ex) {
+            // Only the first offer asks the broker for metadata, and may time out doing so
+            admission.sendCompleted();
+            if (!spillFailed(event, ex)) {
+                publishErrorCounter.increment();
+                dedup.forget(event);
+                log.error("Failed to queue event: eventId={}, contentId={}, error={}",
+                        event.eventId(), event.contentId(), ex.getMessage());
+                if (acks != null) {
+                    acks.failed(event);
+                }
+            }
+            if (acks != null) {
+                acks.done();
+            }
+        }
+    }
+
+    // Runs once per batch, on the producer's I/O thread
+    private void onBatch(PartitionBatcher.Batch<Acks> batch) {
+        int size = batch.size();
+        publishTimer.record(batch.elapsedNanos());
+        batchSize.record(size);
+        admission.sendsCompleted(size);
+
+        int published = size;
+        int errors = 0;
+        boolean failures = batch.failed() > 0;
+        for (int i = 0; i < size; i++) {
+            Acks acks = batch.tag(i);
+            Exception ex = failures ? batch.error(i) : null;
+            if (ex != null) {
+                EventDto event = batch.event(i);
+                published--;
+                if (!spillFailedLater(event, ex)) {
+                    errors++;
+                    dedup.forget(event);
+                    log.error("Failed to publish event: eventId={}, contentId={}, partition={}, error={}",
+                            event.eventId(), event.contentId(), batch.partition(), ex.getMessage());
+                    if (acks != null) {
+                        acks.failed(event);
+                    }
+                }
+            }
+            if (acks != null) {
+                acks.done();
+            }
+        }
+        publishCounter.add(published);
+        if (errors > 0) {
+            publishErrorCounter.add(errors);
+        }
+    }
+
+    // While earlier events wait in the spill log, later ones queue behind them
+    private boolean spilled(EventDto event) {
+        return spill.active() && spill.offer(event);
+    }
+
+    // A broker outage rather than a bad record: keep the event for replay instead of losing it
+    private boolean spillFailed(EventDto event, Throwable ex) {
+        if (!SpillQueue.retriable(ex) || !spill.offer(event)) {
+            return false;
+        }
+        log.warn("Kafka unavailable, event spilled to disk: eventId={}, error={}", event.eventId(), ex.getMessage());
+        return true;
+    }
+
+    // Same, from the producer's I/O thread: the disk write happens on the spill writer thread
+    private boolean spillFailedLater(EventDto event, Throwable ex) {
+        if (!SpillQueue.retriable(ex) || !spill.offerLater(event)) {
+            return false;
+        }
+        log.warn("Kafka unavailable, event handed to spill: eventId={}, error={}", event.eventId(), ex.getMessage());
+        return true;
+    }
+
+    /** Completion of one publishBatch request, shared by its events as their batcher tag. */
+    static final class Acks {
+        private final List<EventDto> events;
+        private final AtomicInteger remaining;
+        private final Set<EventDto> failed = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        final CompletableFuture<BatchPublishResult> future = new CompletableFuture<>();
+
+        Acks(List<EventDto> events) {
+            this.events = events;
+            this.remaining = new AtomicInteger(events.size());
+            if (events.isEmpty()) {
+                future.complete(BatchPublishResult.completed(0, List.of()));
+            }
+        }
+
+        void failed(EventDto event) {
+            failed.add(event);
+        }
+
+        void done() {
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            // Reported in request order, whichever partition finished first
+            List<String> failedEventIds = failed.isEmpty() ? List.of()
+                    : events.stream().filter(failed::contains).map(EventDto::eventId).toList();
+            log.debug("Batch published: size={}, failed={}", events.size(), failedEventIds.size());
+            future.complete(BatchPublishResult.completed(events.size(), failedEventIds));
         }
     }
-}
\ No newline at end of file
+}
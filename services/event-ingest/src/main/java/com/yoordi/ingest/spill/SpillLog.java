@@ -0,0 +1,231 @@
+package com.yoordi.ingest.spill;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only record log in memory-mapped segment files of {@code segmentBytes} each, at most
+ * {@code maxSegments} of them. Appends are a copy into the mapped page cache, so they survive a
+ * process crash without a write call per record; segments are forced to disk when they fill up
+ * and on close. Records are read back in append order; a segment is deleted once everything in
+ * it has been committed, and {@link #append} refuses records once all segments are full.
+ *
+ * <p>Segment layout: a 16-byte header (magic, reserved, committed read offset) followed by
+ * records of {@code [int length][int crc32c][payload]}. The write position of the last segment
+ * is recovered by scanning to the first zero length or checksum mismatch, which also drops a
+ * record torn by a crash mid-append.
+ */
+public final class SpillLog implements AutoCloseable {
+
+    private static final int MAGIC = 0x53504c31; // "SPL1"
+    private static final int HEADER_BYTES = 16;
+    private static final int READ_OFFSET_AT = 8;
+    private static final int RECORD_HEADER_BYTES = 8;
+    private static final String SUFFIX = ".spill";
+
+    /** Where a read stopped: commit it once the records before it are safely elsewhere. */
+    public record Position(long segmentId, int offset) {}
+
+    public record Batch(List<byte[]> records, Position end) {}
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final CRC32C crc = new CRC32C();
+    private long pendingBytes;
+
+    public SpillLog(Path dir, int segmentBytes, int maxSegments) {
+        if (segmentBytes <= HEADER_BYTES + RECORD_HEADER_BYTES || maxSegments < 1) {
+            throw new IllegalArgumentException("segmentBytes and maxSegments too small");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = maxSegments;
+        try {
+            Files.createDirectories(dir);
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList()) {
+                    Segment segment = Segment.open(file);
+                    segments.add(segment);
+                    pendingBytes += segment.writeOffset - segment.readOffset;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open spill log in " + dir, e);
+        }
+    }
+
+    /** Appends one record; {@code false} if it does not fit in the remaining segments. */
+    public synchronized boolean append(byte[] payload) {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Empty spill record");
+        }
+        int size = RECORD_HEADER_BYTES + payload.length;
+        if (HEADER_BYTES + size > segmentBytes) {
+            return false;
+        }
+        Segment last = segments.peekLast();
+        // Segments recovered from disk keep the size they were created with
+        if (last == null || last.writeOffset + size > last.buffer.capacity()) {
+            if (segments.size() >= maxSegments) {
+                return false;
+            }
+            if (last != null) {
+                last.buffer.force();
+            }
+            last = create(last == null ? 0 : last.id + 1);
+        }
+        crc.reset();
+        crc.update(payload);
+        MappedByteBuffer buffer = last.buffer;
+        int at = last.writeOffset;
+        buffer.put(at + RECORD_HEADER_BYTES, payload);
+        buffer.putInt(at + 4, (int) crc.getValue());
+        // Length last: a record is visible to recovery only once its payload is in place
+        buffer.putInt(at, payload.length);
+        last.writeOffset = at + size;
+        pendingBytes += size;
+        return true;
+    }
+
+    /** Up to {@code maxRecords} uncommitted records in append order, without consuming them. */
+    public synchronized Batch read(int maxRecords) {
+        dropConsumed();
+        Segment first = segments.peekFirst();
+        if (first == null) {
+            return new Batch(List.of(), null);
+        }
+        List<byte[]> records = new ArrayList<>(Math.min(maxRecords, 1024));
+        int at = first.readOffset;
+        while (records.size() < maxRecords && at < first.writeOffset) {
+            int length = first.buffer.getInt(at);
+            byte[] payload = new byte[length];
+            first.buffer.get(at + RECORD_HEADER_BYTES, payload);
+            records.add(payload);
+            at += RECORD_HEADER_BYTES + length;
+        }
+        return new Batch(records, new Position(first.id, at));
+    }
+
+    /** Marks everything before {@code position} as consumed. */
+    public synchronized void commit(Position position) {
+        for (Segment segment : segments) {
+            if (segment.id == position.segmentId()) {
+                pendingBytes -= position.offset() - segment.readOffset;
+                segment.readOffset = position.offset();
+                segment.buffer.putLong(READ_OFFSET_AT, position.offset());
+                break;
+            }
+        }
+        dropConsumed();
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingBytes == 0;
+    }
+
+    /** Record bytes appended and not yet committed. */
+    public synchronized long pendingBytes() {
+        return pendingBytes;
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+    }
+
+    // Fully consumed segments go, except the last one, which appends still use
+    private void dropConsumed() {
+        while (segments.size() > 1 && segments.peekFirst().readOffset == segments.peekFirst().writeOffset) {
+            Segment done = segments.pollFirst();
+            try {
+                Files.deleteIfExists(done.file);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot delete spill segment " + done.file, e);
+            }
+        }
+    }
+
+    private Segment create(long id) {
+        Path file = dir.resolve(String.format("%020d%s", id, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(READ_OFFSET_AT, HEADER_BYTES);
+            Segment segment = new Segment(id, file, buffer, HEADER_BYTES, HEADER_BYTES);
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill segment " + file, e);
+        }
+    }
+
+    private static final class Segment {
+
+        final long id;
+        final Path file;
+        final MappedByteBuffer buffer;
+        int readOffset;
+        int writeOffset;
+
+        Segment(long id, Path file, MappedByteBuffer buffer, int readOffset, int writeOffset) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+            this.readOffset = readOffset;
+            this.writeOffset = writeOffset;
+        }
+
+        static Segment open(Path file) throws IOException {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+                if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("Not a spill segment: " + file);
+                }
+                int write = scan(buffer);
+                int read = (int) Math.min(Math.max(buffer.getLong(READ_OFFSET_AT), HEADER_BYTES), write);
+                return new Segment(id, file, buffer, read, write);
+            }
+        }
+
+        // End of the last intact record
+        private static int scan(MappedByteBuffer buffer) {
+            CRC32C crc = new CRC32C();
+            int at = HEADER_BYTES;
+            while (at + RECORD_HEADER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(at);
+                if (length <= 0 || length > buffer.capacity() - at - RECORD_HEADER_BYTES) {
+                    break;
+                }
+                crc.reset();
+                crc.update(buffer.slice(at + RECORD_HEADER_BYTES, length));
+                if ((int) crc.getValue() != buffer.getInt(at + 4)) {
+                    break;
+                }
+                at += RECORD_HEADER_BYTES + length;
+            }
+            return at;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.yoordi.ingest.spill;
+
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventJsonCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps ingest accepting events while Kafka is unreachable. Once a send fails with a retriable
+ * error, or the producer blocks for buffer space, {@code EventPublisher} appends events to a
+ * {@link SpillLog} on local disk instead of the producer; a single replay thread sends them
+ * to Kafka in append order, commits each batch once every record in it is acknowledged, and
+ * hands publishing back to the producer when the log is empty.
+ *
+ * <p>Replay is at least once: a batch that fails part-way is sent again whole. Disk use is
+ * bounded by {@code segmentBytes * maxSegments}; beyond it events go to the producer as usual.
+ *
+ * <p>Order is kept among spilled events only. Events that fail after reaching the producer are
+ * handed to a writer thread ({@link #offerLater}) so the producer's I/O thread never touches the
+ * log; by then newer events may have been sent or spilled, and the failed ones land behind them.
+ */
+@Component
+public class SpillQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(SpillQueue.class);
+
+    private final boolean enabled;
+    private final SpillLog spillLog; // null when disabled
+    private final KafkaTemplate<String, EventDto> kt;
+    private final String topic;
+    private final int replayBatch;
+    private final ScheduledExecutorService replayer;
+    private final ExecutorService writer;
+    private final AtomicInteger handoffs = new AtomicInteger();
+    private volatile boolean active;
+    private volatile boolean closing;
+
+    private Counter appended;
+    private Counter rejected;
+    private Counter replayed;
+    private Counter dropped;
+
+    public SpillQueue(@Value("${ingest.spill.enabled:true}") boolean enabled,
+                      @Value("${ingest.spill.dir:${java.io.tmpdir}/msa-webtoon/spill}") String dir,
+                      @Value("${ingest.spill.segmentBytes:67108864}") int segmentBytes,
+                      @Value("${ingest.spill.maxSegments:16}") int maxSegments,
+                      @Value("${ingest.spill.replayBatch:500}") int replayBatch,
+                      @Value("${ingest.spill.replayIntervalMs:1000}") long replayIntervalMs,
+                      @Value("${ingest.spill.handoffCapacity:10000}") int handoffCapacity,
+                      KafkaTemplate<String, EventDto> kt,
+                      @Value("${topic.pageView}") String topic,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.kt = kt;
+        this.topic = topic;
+        this.replayBatch = Math.max(1, replayBatch);
+        if (!enabled) {
+            this.spillLog = null;
+            this.replayer = null;
+            this.writer = null;
+            return;
+        }
+        this.spillLog = new SpillLog(Path.of(dir), segmentBytes, maxSegments);
+        // Events left over from before a restart are replayed first
+        this.active = !spillLog.isEmpty();
+
+        this.appended = Counter.builder("events.spill.appended.total")
+                .description("Events written to the local spill log instead of Kafka")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("events.spill.rejected.total")
+                .description("Events not spilled because the spill log or its hand-off queue was full")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("events.spill.replayed.total")
+                .description("Spilled events acknowledged by Kafka on replay")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("events.spill.dropped.total")
+                .description("Spilled events Kafka rejected permanently on replay")
+                .register(meterRegistry);
+        Gauge.builder("events.spill.pending.bytes", spillLog, SpillLog::pendingBytes)
+                .description("Spilled bytes waiting for replay")
+                .register(meterRegistry);
+        Gauge.builder("events.spill.segments", spillLog, SpillLog::segmentCount)
+                .description("Spill segment files on disk")
+                .register(meterRegistry);
+        Gauge.builder("events.spill.active", this, q -> q.active ? 1 : 0)
+                .description("1 while events go to the spill log instead of the producer")
+                .register(meterRegistry);
+
+        this.replayer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "spill-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.scheduleWithFixedDelay(this::replay, replayIntervalMs, replayIntervalMs, TimeUnit.MILLISECONDS);
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, handoffCapacity)), r -> {
+            Thread thread = new Thread(r, "spill-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** {@code true} while new events must be spilled to stay behind the ones already spilled. */
+    public boolean active() {
+        return active;
+    }
+
+    /** Switches to spilling, e.g. when the producer blocks; {@code false} if spilling is disabled. */
+    public boolean activate() {
+        if (enabled && !active) {
+            log.warn("Producer unhealthy; spilling events to local disk");
+            active = true;
+        }
+        return enabled;
+    }
+
+    /** Appends the event to the spill log; {@code false} if disabled or full. */
+    public boolean offer(EventDto event) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] payload = EventJsonCodec.encode(event);
+        synchronized (this) {
+            if (!spillLog.append(payload)) {
+                rejected.increment();
+                return false;
+            }
+            active = true;
+        }
+        appended.increment();
+        return true;
+    }
+
+    /**
+     * Queues the event for the spill writer thread, for callers that must not block on the log
+     * such as producer callbacks; {@code false} if disabled or the hand-off queue is full.
+     * Spilling starts at once, so later events queue behind this one.
+     */
+    public boolean offerLater(EventDto event) {
+        if (!enabled) {
+            return false;
+        }
+        handoffs.incrementAndGet();
+        try {
+            writer.execute(() -> {
+                try {
+                    if (!offer(event)) {
+                        log.error("Spill log full; dropping failed event: eventId={}", event.eventId());
+                    }
+                } finally {
+                    handoffs.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            handoffs.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        active = true;
+        return true;
+    }
+
+    /** Whether a failed send is worth spilling: the broker may accept the event later. */
+    public static boolean retriable(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void replay() {
+        try {
+            while (!closing) {
+                SpillLog.Batch batch = spillLog.read(replayBatch);
+                if (batch.records().isEmpty()) {
+                    synchronized (this) {
+                        // Checked under the append lock so no event slips in between
+                        if (active && handoffs.get() == 0 && spillLog.isEmpty()) {
+                            active = false;
+                            log.info("Spill log drained; publishing to Kafka directly");
+                        }
+                    }
+                    return;
+                }
+                if (!send(batch.records())) {
+                    return;
+                }
+                spillLog.commit(batch.end());
+            }
+        } catch (RuntimeException e) {
+            log.error("Spill replay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // True once every record is acknowledged or permanently rejected
+    private boolean send(List<byte[]> records) {
+        try {
+            // One metadata round trip: while the broker is down this blocks max.block.ms once,
+            // not once per record
+            kt.partitionsFor(topic);
+        } catch (RuntimeException e) {
+            log.warn("Kafka still unavailable; {} spilled bytes wait for replay", spillLog.pendingBytes());
+            return false;
+        }
+        List<CompletableFuture<SendResult<String, EventDto>>> sends = new ArrayList<>(records.size());
+        boolean retry = false;
+        for (byte[] record : records) {
+            EventDto event = EventJsonCodec.decode(record);
+            try {
+                sends.add(kt.send(topic, event.contentId(), event));
+            } catch (RuntimeException e) {
+                if (retriable(e)) {
+                    // The rest would block as long; the batch is sent again whole
+                    retry = true;
+                    break;
+                }
+                dropped.increment();
+                log.error("Dropping spilled event Kafka rejected: {}", e.getMessage());
+            }
+            if (closing) {
+                retry = true;
+                break;
+            }
+        }
+        int acked = 0;
+        for (CompletableFuture<SendResult<String, EventDto>> send : sends) {
+            try {
+                send.get();
+                acked++;
+            } catch (InterruptedException e) {
+                // close() gave up waiting; the batch stays uncommitted
+                Thread.currentThread().interrupt();
+                retry = true;
+                break;
+            } catch (ExecutionException e) {
+                if (retriable(e)) {
+                    retry = true;
+                } else {
+                    dropped.increment();
+                    log.error("Dropping spilled event Kafka rejected: {}", e.getCause().getMessage());
+                }
+            }
+        }
+        replayed.increment(acked);
+        if (retry && !closing) {
+            log.warn("Kafka still unavailable; {} spilled bytes wait for replay", spillLog.pendingBytes());
+        }
+        return !retry;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        // Events handed off by producer callbacks reach the log first
+        writer.shutdown();
+        writer.awaitTermination(5, TimeUnit.SECONDS);
+        closing = true;
+        replayer.shutdown();
+        if (!replayer.awaitTermination(5, TimeUnit.SECONDS)) {
+            // A send blocked on the broker: interrupt it rather than close the log underneath it
+            replayer.shutdownNow();
+            replayer.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        spillLog.close();
+    }
+}
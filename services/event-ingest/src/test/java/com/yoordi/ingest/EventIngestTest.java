@@ -1,6 +1,7 @@
 package com.yoordi.ingest;
 
-import com.yoordi.ingest.api.dto.EventDto;
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
 import com.yoordi.ingest.service.EventPublisher;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -86,7 +87,7 @@ class EventIngestTest {
                 "user-123",
                 "webtoon-456",
                 System.currentTimeMillis(),
-                new EventDto.Props("view")
+                new EventDto.Props(Action.VIEW)
         );
 
         // When: 이벤트 발행
@@ -104,9 +105,9 @@ class EventIngestTest {
     void testBatchEventIngestion() {
         // Given: 여러 이벤트 생성
         List<EventDto> events = List.of(
-                new EventDto("evt-002", "user-124", "webtoon-789", System.currentTimeMillis(), new EventDto.Props("like")),
-                new EventDto("evt-003", "user-125", "webtoon-101", System.currentTimeMillis(), new EventDto.Props("view")),
-                new EventDto("evt-004", "user-126", "webtoon-102", System.currentTimeMillis(), new EventDto.Props("like"))
+                new EventDto("evt-002", "user-124", "webtoon-789", System.currentTimeMillis(), new EventDto.Props(Action.LIKE)),
+                new EventDto("evt-003", "user-125", "webtoon-101", System.currentTimeMillis(), new EventDto.Props(Action.VIEW)),
+                new EventDto("evt-004", "user-126", "webtoon-102", System.currentTimeMillis(), new EventDto.Props(Action.LIKE))
         );
 
         // When: 배치 이벤트 발행
@@ -159,7 +160,7 @@ class EventIngestTest {
                 "user-999",
                 "webtoon-999",
                 System.currentTimeMillis(),
-                new EventDto.Props("view")
+                new EventDto.Props(Action.VIEW)
         );
 
         // When: publishSync로 직접 발행 (동기)
@@ -178,9 +179,9 @@ class EventIngestTest {
     void testKafkaPublishAsyncIntegration() throws InterruptedException {
         // Given: 여러 이벤트 생성
         List<EventDto> events = List.of(
-                new EventDto("evt-async-001", "user-201", "webtoon-301", System.currentTimeMillis(), new EventDto.Props("like")),
-                new EventDto("evt-async-002", "user-202", "webtoon-302", System.currentTimeMillis(), new EventDto.Props("view")),
-                new EventDto("evt-async-003", "user-203", "webtoon-303", System.currentTimeMillis(), new EventDto.Props("like"))
+                new EventDto("evt-async-001", "user-201", "webtoon-301", System.currentTimeMillis(), new EventDto.Props(Action.LIKE)),
+                new EventDto("evt-async-002", "user-202", "webtoon-302", System.currentTimeMillis(), new EventDto.Props(Action.VIEW)),
+                new EventDto("evt-async-003", "user-203", "webtoon-303", System.currentTimeMillis(), new EventDto.Props(Action.LIKE))
         );
 
         // When: publish (비동기)로 발행
@@ -209,9 +210,9 @@ class EventIngestTest {
         // Given: 동일한 contentId를 가진 이벤트들
         String contentId = "webtoon-partition-test";
         List<EventDto> events = List.of(
-                new EventDto("evt-part-001", "user-301", contentId, System.currentTimeMillis(), new EventDto.Props("view")),
-                new EventDto("evt-part-002", "user-302", contentId, System.currentTimeMillis(), new EventDto.Props("like")),
-                new EventDto("evt-part-003", "user-303", contentId, System.currentTimeMillis(), new EventDto.Props("view"))
+                new EventDto("evt-part-001", "user-301", contentId, System.currentTimeMillis(), new EventDto.Props(Action.VIEW)),
+                new EventDto("evt-part-002", "user-302", contentId, System.currentTimeMillis(), new EventDto.Props(Action.LIKE)),
+                new EventDto("evt-part-003", "user-303", contentId, System.currentTimeMillis(), new EventDto.Props(Action.VIEW))
         );
 
         // When: publishSync로 발행
@@ -0,0 +1,90 @@
+package com.yoordi.ingest.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    private static final long TOTAL = 64L << 20;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<MetricName, Metric> producerMetrics = new HashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void admit_lowFreeBuffer_shouldShedWithRetryAfter() {
+        AdmissionControl admission = admission(1000);
+        producer(TOTAL, 0);
+        admission.admit(10);
+
+        // Within the sample interval the last reading still applies
+        producer(TOTAL / 8, 0);
+        admission.admit(10);
+
+        clock.addAndGet(50_000_000L);
+        OverloadedException ex = assertThrows(OverloadedException.class, () -> admission.admit(10));
+        assertEquals(AdmissionControl.Reason.BUFFER, ex.reason());
+        assertEquals(3, ex.retryAfterSeconds());
+        assertEquals(1.0, registry.get("events.admission.rejected.total").tag("reason", "buffer").functionCounter().count());
+        assertEquals(TOTAL / 8, registry.get("events.admission.buffer.available.bytes").gauge().value());
+    }
+
+    @Test
+    void admit_waitingThreads_shouldShed() {
+        AdmissionControl admission = admission(1000);
+        producer(TOTAL, 2);
+
+        OverloadedException ex = assertThrows(OverloadedException.class, () -> admission.admit(1));
+        assertEquals(AdmissionControl.Reason.BLOCKED, ex.reason());
+    }
+
+    @Test
+    void admit_tooManyInFlight_shouldShedUntilAcked() {
+        AdmissionControl admission = admission(100);
+        // An idle producer takes any request, however large
+        admission.admit(500);
+        for (int i = 0; i < 90; i++) {
+            admission.sendStarted();
+        }
+
+        admission.admit(10);
+        assertThrows(OverloadedException.class, () -> admission.admit(11));
+        assertEquals(90, registry.get("events.admission.inflight").gauge().value());
+
+        admission.sendCompleted();
+        admission.admit(11);
+    }
+
+    private AdmissionControl admission(long maxInFlight) {
+        return new AdmissionControl(true, 0.25, maxInFlight, 3, 50, () -> producerMetrics, clock::get, registry);
+    }
+
+    private void producer(long available, int waiting) {
+        metric("buffer-total-bytes", TOTAL);
+        metric("buffer-available-bytes", available);
+        metric("waiting-threads", waiting);
+    }
+
+    private void metric(String name, double value) {
+        MetricName metricName = new MetricName(name, "producer-metrics", "", Map.of("client-id", "producer-1"));
+        producerMetrics.put(metricName, new Metric() {
+            @Override
+            public MetricName metricName() {
+                return metricName;
+            }
+
+            @Override
+            public Object metricValue() {
+                return value;
+            }
+        });
+    }
+}
@@ -1,7 +1,10 @@
 package com.yoordi.ingest.api;
 
+import com.yoordi.ingest.admission.AdmissionControl;
+import com.yoordi.ingest.admission.OverloadedException;
 import com.yoordi.ingest.api.dto.ErrorResponse;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.kafka.KafkaException;
@@ -67,6 +70,20 @@ class ErrorHandlerTest {
         assertTrue(response.getBody().message().contains("Failed to publish event"));
     }
 
+    @Test
+    void handleOverloadedException_shouldReturnTooManyRequestsWithRetryAfter() {
+        OverloadedException ex = new OverloadedException(AdmissionControl.Reason.BUFFER, 2);
+        WebRequest request = mock(WebRequest.class);
+        when(request.getDescription(false)).thenReturn("uri=/ingest/events/batch");
+
+        ResponseEntity<ErrorResponse> response = handler.handleOverloadedException(ex, request);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals("OVERLOADED", response.getBody().error());
+    }
+
     @Test
     void handleGenericException_shouldReturnInternalServerError() {
         Exception ex = new Exception("Unexpected error");
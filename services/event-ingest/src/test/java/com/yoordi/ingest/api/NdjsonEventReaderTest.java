@@ -0,0 +1,95 @@
+package com.yoordi.ingest.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.ingest.api.dto.EventValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonEventReaderTest {
+
+    private final JsonFactory jsonFactory = new ObjectMapper().getFactory();
+
+    private final List<EventDto> events = new ArrayList<>();
+    private final List<String> invalid = new ArrayList<>();
+
+    private final NdjsonEventReader.Handler handler = new NdjsonEventReader.Handler() {
+        @Override
+        public void onEvent(EventDto event) {
+            events.add(event);
+        }
+
+        @Override
+        public void onInvalid(long line, String eventId, String message) {
+            invalid.add(line + ":" + message);
+        }
+    };
+
+    @Test
+    void readAll_shouldParseEventsAndSkipInvalidLines() throws IOException {
+        String body = """
+                {"eventId":"evt-1","userId":"u-1","contentId":"w-1","ts":1700000000000,"props":{"action":"view"}}
+                {"eventId":"evt-2","contentId":"w-2","ts":1700000000001,"props":{"action":"share"}}
+                {"eventId":"evt-3","contentId":"w-3","ts":1700000000002,"extra":{"nested":[1,2]},"props":{"action":"like","sessionId":"s"}}
+                [1, 2]
+                """;
+
+        read(body);
+
+        assertEquals(List.of(
+                new EventDto("evt-1", "u-1", "w-1", 1_700_000_000_000L, new EventDto.Props(Action.VIEW)),
+                new EventDto("evt-3", null, "w-3", 1_700_000_000_002L, new EventDto.Props(Action.LIKE))), events);
+        assertEquals(List.of("2:action must be 'view' or 'like'", "4:event must be a JSON object"), invalid);
+    }
+
+    @Test
+    void readAll_malformedJson_shouldStopAfterValidPrefix() {
+        String body = """
+                {"eventId":"evt-1","contentId":"w-1","ts":1,"props":{"action":"view"}}
+                {"eventId":"evt-2","contentId":
+                """;
+
+        assertThrows(JsonProcessingException.class, () -> read(body));
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void validator_shouldAgreeWithBeanValidation() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        String[] ids = {"evt-1", "", "  ", "\t", null};
+        long[] timestamps = {1, 0, -5};
+        String[] actions = {"view", "like", "", null};
+
+        for (String id : ids) {
+            for (long ts : timestamps) {
+                for (String action : actions) {
+                    EventDto dto = new EventDto(id, "u-1", "w-1", ts, new EventDto.Props(Action.from(action)));
+                    boolean beanValid = validator.validate(dto).isEmpty();
+                    boolean handValid = EventValidator.firstViolation(id, "w-1", ts, true, action) == null;
+                    assertEquals(beanValid, handValid, () -> "id=" + id + ", ts=" + ts + ", action=" + action);
+                }
+            }
+        }
+        assertFalse(validator.validate(new EventDto("evt-1", "u-1", "w-1", 1, null)).isEmpty());
+        assertNotNull(EventValidator.firstViolation("evt-1", "w-1", 1, false, null));
+    }
+
+    private void read(String body) throws IOException {
+        try (NdjsonEventReader reader = new NdjsonEventReader(jsonFactory,
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)))) {
+            reader.readAll(handler);
+        }
+    }
+}
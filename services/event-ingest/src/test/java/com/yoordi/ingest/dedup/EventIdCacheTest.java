@@ -0,0 +1,65 @@
+package com.yoordi.ingest.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIdCacheTest {
+
+    private static final long WINDOW_NANOS = Duration.ofSeconds(60).toNanos();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void add_shouldRejectRepeatsWithinWindow() {
+        EventIdCache cache = new EventIdCache(1000, Duration.ofSeconds(60), 4, clock::get);
+
+        assertTrue(cache.add("evt-1"));
+        assertTrue(cache.add("evt-2"));
+        clock.addAndGet(WINDOW_NANOS - 1);
+        assertFalse(cache.add("evt-1"));
+        // One rotation: evt-2 moved to the previous generation and is still known
+        clock.addAndGet(1);
+        assertFalse(cache.add("evt-2"));
+    }
+
+    @Test
+    void add_shouldForgetAfterTwoWindows() {
+        EventIdCache cache = new EventIdCache(1000, Duration.ofSeconds(60), 4, clock::get);
+
+        assertTrue(cache.add("evt-1"));
+        clock.addAndGet(WINDOW_NANOS);
+        assertTrue(cache.add("evt-other"));
+        clock.addAndGet(WINDOW_NANOS);
+
+        assertTrue(cache.add("evt-1"));
+    }
+
+    @Test
+    void remove_shouldAllowRetry() {
+        EventIdCache cache = new EventIdCache(1000, Duration.ofSeconds(60), 4, clock::get);
+
+        assertTrue(cache.add("evt-1"));
+        cache.remove("evt-1");
+
+        assertTrue(cache.add("evt-1"));
+        assertFalse(cache.add("evt-1"));
+    }
+
+    @Test
+    void add_overCapacity_shouldRotateEarlyAndStayBounded() {
+        EventIdCache cache = new EventIdCache(100, Duration.ofSeconds(60), 1, clock::get);
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(cache.add("evt-" + i));
+        }
+
+        assertEquals(10, cache.earlyRotations());
+        // The last full generation is still remembered, older ones are gone
+        assertFalse(cache.add("evt-950"));
+        assertTrue(cache.add("evt-0"));
+    }
+}
@@ -0,0 +1,223 @@
+package com.yoordi.ingest.service;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.ingest.admission.AdmissionControl;
+import com.yoordi.ingest.dedup.EventDeduplicator;
+import com.yoordi.ingest.spill.SpillQueue;
+import com.yoordi.observability.LongCounter;
+import com.yoordi.observability.NanoTimer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EventPublisherTest {
+
+    private static final String TOPIC = "events.page_view.v1";
+    private static final Node NODE = new Node(0, "localhost", 9092);
+
+    private KafkaTemplate<String, EventDto> kafkaTemplate;
+    private MockProducer<String, EventDto> producer;
+    private EventPublisher publisher;
+    private LongCounter publishCounter;
+    private LongCounter publishErrorCounter;
+    private DistributionSummary batchSize;
+    private AdmissionControl admission;
+    private EventDeduplicator dedup;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        kafkaTemplate = mock(KafkaTemplate.class);
+        ProducerFactory<String, EventDto> producerFactory = mock(ProducerFactory.class);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        // Acks are completed by hand; the producer throws for eventIds starting with "reject"
+        producer = new MockProducer<String, EventDto>(cluster(), false, null, new StringSerializer(), (topic, event) -> new byte[0]) {
+            @Override
+            public synchronized Future<RecordMetadata> send(ProducerRecord<String, EventDto> record, Callback callback) {
+                if (record.value().eventId().startsWith("reject")) {
+                    throw new TimeoutException("max.block.ms exceeded");
+                }
+                return super.send(record, callback);
+            }
+        };
+        when(producerFactory.createProducer()).thenReturn(producer);
+        publishCounter = LongCounter.register(registry, "events.published.total", "published");
+        publishErrorCounter = LongCounter.register(registry, "events.publish.errors.total", "errors");
+        batchSize = registry.summary("events.publish.batch.size");
+        dedup = new EventDeduplicator(true, 60_000, 1024, false, null, registry);
+        admission = new AdmissionControl(true, 0.25, 1000, 1, 50, kafkaTemplate, registry);
+        publisher = publisher(new SpillQueue(false, null, 0, 0, 0, 0, 0, kafkaTemplate, TOPIC, registry));
+    }
+
+    @AfterEach
+    void tearDown() {
+        publisher.close();
+    }
+
+    @Test
+    void publishBatch_allAcked_shouldReportNoFailures() {
+        CompletableFuture<BatchPublishResult> future = publisher.publishBatch(List.of(event("evt-1"), event("evt-2")));
+        publisher.flush();
+        ackAll();
+
+        BatchPublishResult result = future.join();
+        assertEquals(2, result.accepted());
+        assertEquals(2, result.published());
+        assertEquals(0, result.failed());
+        assertFalse(result.hasFailures());
+        assertEquals(2, publishCounter.count());
+        assertEquals(List.of("webtoon-1", "webtoon-1"), producer.history().stream().map(ProducerRecord::key).toList());
+        // One batch, one callback: metrics are recorded once
+        assertEquals(1, batchSize.count());
+        assertEquals(2.0, batchSize.totalAmount());
+        assertEquals(1, registry.timer("events.publish.duration").count());
+    }
+
+    @Test
+    void publishBatch_partialFailure_shouldReportFailedEventIds() {
+        CompletableFuture<BatchPublishResult> future =
+                publisher.publishBatch(List.of(event("evt-1"), event("evt-2"), event("reject-3")));
+        publisher.flush();
+        assertTrue(producer.completeNext());
+        assertTrue(producer.errorNext(new RecordTooLargeException("too large")));
+
+        BatchPublishResult result = future.join();
+        assertEquals(3, result.accepted());
+        assertEquals(1, result.published());
+        assertEquals(List.of("evt-2", "reject-3"), result.failedEventIds());
+        assertEquals(2, publishErrorCounter.count());
+    }
+
+    @Test
+    void publishBatch_pendingAck_shouldNotCompleteEarly() {
+        CompletableFuture<BatchPublishResult> future = publisher.publishBatch(List.of(event("evt-1"), event("evt-2")));
+        publisher.flush();
+
+        assertTrue(producer.completeNext());
+        assertFalse(future.isDone());
+        assertEquals(2, admission.inFlight());
+        assertTrue(producer.completeNext());
+        assertEquals(2, future.join().published());
+        assertEquals(0, admission.inFlight());
+    }
+
+    @Test
+    void publishBatch_duplicateEventIds_shouldSendOnce() {
+        CompletableFuture<BatchPublishResult> future = publisher.publishBatch(List.of(event("evt-1"), event("evt-1")));
+        publisher.send(event("evt-1"));
+        publisher.flush();
+        ackAll();
+
+        BatchPublishResult result = future.join();
+        assertEquals(2, result.accepted());
+        assertEquals(2, result.published());
+        assertEquals(1, producer.history().size());
+    }
+
+    @Test
+    void publishBatch_shouldUseProducerPartitionForKey() {
+        List<EventDto> events = List.of(event("evt-1", "webtoon-1"), event("evt-2", "webtoon-2"),
+                event("evt-3", "webtoon-3"), event("evt-4", "webtoon-1"));
+        publisher.publishBatch(events);
+        publisher.flush();
+
+        for (ProducerRecord<String, EventDto> record : producer.history()) {
+            assertEquals(BuiltInPartitioner.partitionForKey(record.key().getBytes(StandardCharsets.UTF_8), 3),
+                    record.partition());
+        }
+        assertEquals(4, producer.history().size());
+    }
+
+    @Test
+    void send_afterFailedPublish_shouldAllowRetry() {
+        publisher.send(event("evt-1"));
+        publisher.flush();
+        assertTrue(producer.errorNext(new TimeoutException("delivery timeout")));
+
+        publisher.send(event("evt-1"));
+        publisher.flush();
+        ackAll();
+
+        assertEquals(2, producer.history().size());
+        assertEquals(1, publishCounter.count());
+        assertEquals(1, publishErrorCounter.count());
+    }
+
+    @Test
+    void send_brokerUnavailable_shouldSpillAndQueueLaterEvents(@TempDir Path spillDir) throws Exception {
+        // Replay interval far beyond the test, so nothing is replayed underneath it
+        SpillQueue spill = new SpillQueue(true, spillDir.toString(), 1 << 16, 2, 100, 600_000, 16, kafkaTemplate, TOPIC, registry);
+        publisher.close();
+        publisher = publisher(spill);
+
+        publisher.send(event("evt-1"));
+        publisher.flush();
+        assertTrue(producer.errorNext(new TimeoutException("delivery timeout")));
+        assertTrue(spill.active());
+        publisher.send(event("evt-2"));
+        publisher.flush();
+
+        // Waits for the hand-off from the producer callback to reach the log
+        spill.close();
+        assertEquals(1, producer.history().size());
+        assertEquals(0, publishErrorCounter.count());
+        assertEquals(2.0, registry.get("events.spill.appended.total").counter().count());
+    }
+
+    private EventPublisher publisher(SpillQueue spill) {
+        // Linger far beyond the test: batches go out on flush() only
+        return new EventPublisher(kafkaTemplate, TOPIC, 256, 600_000, publishCounter, publishErrorCounter,
+                NanoTimer.of(registry.timer("events.publish.duration")), batchSize, dedup, admission, spill);
+    }
+
+    private void ackAll() {
+        while (producer.completeNext()) {
+            // completes in send order
+        }
+    }
+
+    private static Cluster cluster() {
+        List<PartitionInfo> partitions = List.of(
+                new PartitionInfo(TOPIC, 0, NODE, new Node[]{NODE}, new Node[]{NODE}),
+                new PartitionInfo(TOPIC, 1, NODE, new Node[]{NODE}, new Node[]{NODE}),
+                new PartitionInfo(TOPIC, 2, NODE, new Node[]{NODE}, new Node[]{NODE}));
+        return new Cluster("test", List.of(NODE), partitions, Set.of(), Set.of());
+    }
+
+    private static EventDto event(String eventId) {
+        return event(eventId, "webtoon-1");
+    }
+
+    private static EventDto event(String eventId, String contentId) {
+        return new EventDto(eventId, "user-1", contentId, System.currentTimeMillis(), new EventDto.Props(Action.VIEW));
+    }
+}
@@ -0,0 +1,100 @@
+package com.yoordi.ingest.spill;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void read_shouldReturnRecordsInOrderUntilCommitted() {
+        SpillLog log = new SpillLog(dir, 1024, 4);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(log.append(bytes("evt-" + i)));
+        }
+
+        SpillLog.Batch first = log.read(3);
+        assertEquals(List.of("evt-0", "evt-1", "evt-2"), strings(first));
+        // Not consumed until committed
+        assertEquals(strings(first), strings(log.read(3)));
+
+        log.commit(first.end());
+        assertEquals(List.of("evt-3", "evt-4"), strings(log.read(10)));
+        log.commit(log.read(10).end());
+        assertTrue(log.isEmpty());
+    }
+
+    @Test
+    void append_shouldRollSegmentsAndStopAtLimit() throws IOException {
+        // 16-byte header + 8 records of 8 + 8 bytes per segment
+        SpillLog log = new SpillLog(dir, 16 + 8 * 16, 2);
+        int appended = 0;
+        while (log.append(bytes(String.format("evt-%04d", appended)))) {
+            appended++;
+        }
+
+        assertEquals(16, appended);
+        assertEquals(2, log.segmentCount());
+
+        // Draining the first segment deletes it and frees room for a new one
+        SpillLog.Batch batch = log.read(100);
+        assertEquals(8, batch.records().size());
+        log.commit(batch.end());
+        log.read(1);
+        assertEquals(1, log.segmentCount());
+        assertEquals(1, segmentFiles());
+        assertTrue(log.append(bytes("evt-next")));
+    }
+
+    @Test
+    void reopen_shouldResumeAfterCommittedRecordsAndDropTornTail() throws IOException {
+        SpillLog log = new SpillLog(dir, 1024, 4);
+        log.append(bytes("evt-0"));
+        log.append(bytes("evt-1"));
+        log.append(bytes("evt-2"));
+        log.commit(log.read(1).end());
+        log.close();
+
+        // A crash mid-append: length written, payload checksum missing
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 5), 16 + 3 * (8 + 5));
+        }
+
+        SpillLog reopened = new SpillLog(dir, 1024, 4);
+        assertEquals(List.of("evt-1", "evt-2"), strings(reopened.read(10)));
+        assertTrue(reopened.append(bytes("evt-3")));
+        assertEquals(List.of("evt-1", "evt-2", "evt-3"), strings(reopened.read(10)));
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<String> strings(SpillLog.Batch batch) {
+        return batch.records().stream().map(b -> new String(b, StandardCharsets.UTF_8)).toList();
+    }
+}
@@ -1,5 +1,6 @@
 package com.yoordi.rank.api;
 
+import com.yoordi.rank.service.RankResult;
 import com.yoordi.rank.service.RankService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Value;
 
 @RestController
@@ -22,18 +24,20 @@ public class RankController {
 
     private final RankService rankService;
     private final List<String> allowedWindows;
+    // Hopping windows are ranked over their whole span already; they take no aggregate
+    private final List<String> hoppingWindows;
     private final int aggregateMax;
-    private final int aggregateReadFactor;
 
     public RankController(RankService rankService,
                           @Value("${rank.windows}") String windowsConfig,
-                          @Value("${rank.aggregateMax:5}") int aggregateMax,
-                          @Value("${rank.aggregateReadFactor:3}") int aggregateReadFactor) {
+                          @Value("${rank.hopping:}") String hoppingConfig,
+                          @Value("${rank.aggregateMax:5}") int aggregateMax) {
         this.rankService = rankService;
-        this.allowedWindows = List.of(windowsConfig.split(","))
-                                   .stream().map(String::trim).toList();
+        this.hoppingWindows = hoppingConfig.isBlank() ? List.of()
+                : List.of(hoppingConfig.split(",")).stream().map(w -> w.split("/")[0].trim()).toList();
+        this.allowedWindows = Stream.concat(List.of(windowsConfig.split(",")).stream().map(String::trim),
+                                            hoppingWindows.stream()).toList();
         this.aggregateMax = aggregateMax;
-        this.aggregateReadFactor = aggregateReadFactor;
     }
 
     @GetMapping("/top")
@@ -57,14 +61,17 @@ public class RankController {
         if (aggregate <= 0 || aggregate > aggregateMax) {
             throw new IllegalArgumentException("Parameter 'aggregate' must be between 1 and " + aggregateMax);
         }
+        if (aggregate != 1 && hoppingWindows.contains(window)) {
+            throw new IllegalArgumentException("Parameter 'aggregate' must be 1 for hopping window " + window);
+        }
         
-        List<String> topContent = rankService.getTopContentIds(window, n, aggregate);
-        HttpHeaders headers = buildAggregationHeaders(window, aggregate);
-        return ResponseEntity.ok().headers(headers).body(topContent);
+        RankResult result = rankService.getTop(window, n, aggregate);
+        HttpHeaders headers = buildAggregationHeaders(window, aggregate, result);
+        return ResponseEntity.ok().headers(headers).body(result.contentIds());
     }
 
     @GetMapping("/top/detail")
-    @Operation(summary = "Get detailed top content rankings", description = "Returns ranked list with content IDs and their counts")
+    @Operation(summary = "Get detailed top content rankings", description = "Returns ranked list with content IDs, their counts and, for a single window, estimated unique viewers")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved detailed rankings"),
             @ApiResponse(responseCode = "400", description = "Invalid window or n parameter")
@@ -84,18 +91,20 @@ public class RankController {
         if (aggregate <= 0 || aggregate > aggregateMax) {
             throw new IllegalArgumentException("Parameter 'aggregate' must be between 1 and " + aggregateMax);
         }
+        if (aggregate != 1 && hoppingWindows.contains(window)) {
+            throw new IllegalArgumentException("Parameter 'aggregate' must be 1 for hopping window " + window);
+        }
         
-        List<Map<String, Object>> topContentDetails = rankService.getTopContentDetails(window, n, aggregate);
-        HttpHeaders headers = buildAggregationHeaders(window, aggregate);
-        return ResponseEntity.ok().headers(headers).body(topContentDetails);
+        RankResult result = rankService.getTopDetail(window, n, aggregate);
+        HttpHeaders headers = buildAggregationHeaders(window, aggregate, result);
+        return ResponseEntity.ok().headers(headers).body(result.details());
     }
 
-    private HttpHeaders buildAggregationHeaders(String window, int aggregate) {
+    private HttpHeaders buildAggregationHeaders(String window, int aggregate, RankResult result) {
         HttpHeaders headers = new HttpHeaders();
         headers.add("X-Window", window);
         headers.add("X-Aggregate", String.valueOf(aggregate));
-        headers.add("X-Aggregate-ReadFactor", String.valueOf(aggregateReadFactor));
-        rankService.getAggregationRange(window, aggregate).ifPresent(m -> {
+        result.range().ifPresent(m -> {
             headers.add("X-Aggregate-Start-Ms", String.valueOf(m.get("start")));
             headers.add("X-Aggregate-End-Ms", String.valueOf(m.get("end")));
             headers.add("X-Window-Seconds", String.valueOf(m.get("windowSec")));
@@ -0,0 +1,64 @@
+package com.yoordi.rank.config;
+
+import org.apache.kafka.streams.state.RocksDBConfigSetter;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.Cache;
+import org.rocksdb.LRUCache;
+import org.rocksdb.Options;
+import org.rocksdb.WriteBufferManager;
+
+import java.util.Map;
+
+/**
+ * Puts every RocksDB store of the process on one LRU block cache, with memtables charged to
+ * it through a shared write buffer manager. Off-heap memory is then bounded by
+ * {@code rank.streams.rocksdb.blockCacheBytes} however many windows, partitions and stream
+ * threads there are, instead of growing by a default cache and memtable set per store
+ * segment. Index and filter blocks live in the cache at high priority rather than unbounded
+ * on the side.
+ */
+public class BoundedRocksDbConfigSetter implements RocksDBConfigSetter {
+
+    static final String BLOCK_CACHE_BYTES = "rank.rocksdb.block.cache.bytes";
+    static final String WRITE_BUFFER_BYTES = "rank.rocksdb.write.buffer.bytes";
+    static final String MEMTABLE_BYTES = "rank.rocksdb.memtable.bytes";
+    static final String MAX_WRITE_BUFFERS = "rank.rocksdb.max.write.buffers";
+
+    // Share of the cache reserved for index and filter blocks
+    private static final double HIGH_PRIORITY_RATIO = 0.1;
+
+    private static Cache cache;
+    private static WriteBufferManager writeBufferManager;
+
+    private static synchronized void initShared(Map<String, Object> configs) {
+        if (cache != null) {
+            return;
+        }
+        cache = new LRUCache(longConfig(configs, BLOCK_CACHE_BYTES, 64L << 20), -1, false, HIGH_PRIORITY_RATIO);
+        writeBufferManager = new WriteBufferManager(longConfig(configs, WRITE_BUFFER_BYTES, 16L << 20), cache);
+    }
+
+    @Override
+    public void setConfig(String storeName, Options options, Map<String, Object> configs) {
+        initShared(configs);
+        BlockBasedTableConfig tableConfig = (BlockBasedTableConfig) options.tableFormatConfig();
+        tableConfig.setBlockCache(cache);
+        tableConfig.setCacheIndexAndFilterBlocks(true);
+        tableConfig.setCacheIndexAndFilterBlocksWithHighPriority(true);
+        tableConfig.setPinTopLevelIndexAndFilter(true);
+        options.setWriteBufferManager(writeBufferManager);
+        options.setWriteBufferSize(longConfig(configs, MEMTABLE_BYTES, 4L << 20));
+        options.setMaxWriteBufferNumber((int) longConfig(configs, MAX_WRITE_BUFFERS, 3));
+        options.setTableFormatConfig(tableConfig);
+    }
+
+    @Override
+    public void close(String storeName, Options options) {
+        // The cache and write buffer manager outlive single stores; they are released with the process
+    }
+
+    private static long longConfig(Map<String, Object> configs, String key, long defaultValue) {
+        Object value = configs.get(key);
+        return value == null ? defaultValue : Long.parseLong(value.toString());
+    }
+}
@@ -0,0 +1,44 @@
+package com.yoordi.rank.config;
+
+import org.apache.kafka.streams.errors.StreamsUncaughtExceptionHandler.StreamThreadExceptionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.StreamsBuilderFactoryBeanConfigurer;
+
+import java.util.Properties;
+
+/**
+ * Applies {@link StreamsTuningProperties} to the Kafka Streams client and reports store
+ * restoration through {@link StateRestoreMetrics}. Its client metrics
+ * (thread, task, store and, at DEBUG recording level, RocksDB) reach Micrometer through the
+ * {@code KafkaStreamsMicrometerListener} that Spring Boot attaches to the same factory bean.
+ *
+ * <p>A stream thread that dies, e.g. because a Redis flush failed its commit, is replaced
+ * rather than shutting the client down: the new thread resumes its tasks from the last
+ * committed offsets, so the uncommitted records are processed again.
+ */
+@Configuration
+public class KafkaStreamsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(KafkaStreamsConfig.class);
+
+    @Bean
+    public StreamsBuilderFactoryBeanConfigurer rankStreamsTuning(StreamsTuningProperties tuning,
+                                                                 StateRestoreMetrics restoreMetrics) {
+        return factoryBean -> {
+            Properties streams = new Properties();
+            if (factoryBean.getStreamsConfiguration() != null) {
+                streams.putAll(factoryBean.getStreamsConfiguration());
+            }
+            streams.putAll(tuning.streamsOverrides());
+            factoryBean.setStreamsConfiguration(streams);
+            factoryBean.setStateRestoreListener(restoreMetrics);
+            factoryBean.setStreamsUncaughtExceptionHandler(e -> {
+                logger.error("Stream thread failed, replacing it", e);
+                return StreamThreadExceptionResponse.REPLACE_THREAD;
+            });
+        };
+    }
+}
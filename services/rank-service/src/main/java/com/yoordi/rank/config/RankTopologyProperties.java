@@ -0,0 +1,245 @@
+package com.yoordi.rank.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings of the rank topology ({@code rank.*}) read by {@code TopologyConfig}: windows and
+ * their emit modes, counting engine, scoring and the Redis sink.
+ */
+@Component
+@ConfigurationProperties(prefix = "rank")
+public class RankTopologyProperties {
+
+    private String windows = "10s,60s,300s";
+    private String hopping = ""; // e.g. "300s/10s": window size / hop
+    private int aggregateMax = 5; // Windows kept per size in the top-K store, for aggregate reads
+    private String engine = "exact"; // exact | sketch
+    private boolean multiWindow = true; // exact engine: all windows from one processor and store
+    private Emit emit = new Emit();
+    private Sink sink = new Sink();
+    private TopK topk = new TopK();
+    private Sketch sketch = new Sketch();
+    private Scoring scoring = new Scoring();
+    private UniqueViewers uniqueViewers = new UniqueViewers();
+
+    public static class Emit {
+
+        private String modes = ""; // update | final | early per window, e.g. "10s=early,60s=final"; unlisted windows use update
+        private long graceMs;
+        private long earlyIntervalMs = 1000;
+
+        public String getModes() {
+            return modes;
+        }
+
+        public void setModes(String modes) {
+            this.modes = modes;
+        }
+
+        public long getGraceMs() {
+            return graceMs;
+        }
+
+        public void setGraceMs(long graceMs) {
+            this.graceMs = graceMs;
+        }
+
+        public long getEarlyIntervalMs() {
+            return earlyIntervalMs;
+        }
+
+        public void setEarlyIntervalMs(long earlyIntervalMs) {
+            this.earlyIntervalMs = earlyIntervalMs;
+        }
+    }
+
+    public static class Sink {
+
+        private int batchSize = 500;
+        private long flushIntervalMs = 1000;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+    }
+
+    public static class TopK {
+
+        private int size = 100; // Entries kept per window in the local top-K store
+
+        public int getSize() {
+            return size;
+        }
+
+        public void setSize(int size) {
+            this.size = size;
+        }
+    }
+
+    public static class Sketch {
+
+        private int width = 2048;
+        private int depth = 5;
+        private int capacity = 1000;
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+
+    public static class Scoring {
+
+        private String weights = ""; // e.g. "view=1,like=5"; empty counts every action once
+        private boolean dedupUsers;
+
+        public String getWeights() {
+            return weights;
+        }
+
+        public void setWeights(String weights) {
+            this.weights = weights;
+        }
+
+        public boolean isDedupUsers() {
+            return dedupUsers;
+        }
+
+        public void setDedupUsers(boolean dedupUsers) {
+            this.dedupUsers = dedupUsers;
+        }
+    }
+
+    public static class UniqueViewers {
+
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public String getWindows() {
+        return windows;
+    }
+
+    public void setWindows(String windows) {
+        this.windows = windows;
+    }
+
+    public String getHopping() {
+        return hopping;
+    }
+
+    public void setHopping(String hopping) {
+        this.hopping = hopping;
+    }
+
+    public int getAggregateMax() {
+        return aggregateMax;
+    }
+
+    public void setAggregateMax(int aggregateMax) {
+        this.aggregateMax = aggregateMax;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public boolean isMultiWindow() {
+        return multiWindow;
+    }
+
+    public void setMultiWindow(boolean multiWindow) {
+        this.multiWindow = multiWindow;
+    }
+
+    public Emit getEmit() {
+        return emit;
+    }
+
+    public void setEmit(Emit emit) {
+        this.emit = emit;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+
+    public TopK getTopk() {
+        return topk;
+    }
+
+    public void setTopk(TopK topk) {
+        this.topk = topk;
+    }
+
+    public Sketch getSketch() {
+        return sketch;
+    }
+
+    public void setSketch(Sketch sketch) {
+        this.sketch = sketch;
+    }
+
+    public Scoring getScoring() {
+        return scoring;
+    }
+
+    public void setScoring(Scoring scoring) {
+        this.scoring = scoring;
+    }
+
+    public UniqueViewers getUniqueViewers() {
+        return uniqueViewers;
+    }
+
+    public void setUniqueViewers(UniqueViewers uniqueViewers) {
+        this.uniqueViewers = uniqueViewers;
+    }
+}
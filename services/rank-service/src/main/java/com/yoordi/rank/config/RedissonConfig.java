@@ -1,23 +1,167 @@
 package com.yoordi.rank.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
 import org.redisson.Redisson;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.NettyHook;
+import org.redisson.config.BaseMasterSlaveServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Redis topology and pool sizing from {@code rank.redis.*}. The primary client keeps every
+ * command on masters: the sink writes there, and aggregation reads back the unions it has
+ * just stored. When {@code rank.redis.readMode} sends reads to replicas, a second client
+ * serves the single-window query path so reads scale out with the replicas.
+ */
 @Configuration
 public class RedissonConfig {
 
-    @Value("${REDIS_URL:redis://localhost:6379}")
-    private String redisUrl;
+    enum Mode {
+        SINGLE, CLUSTER, REPLICATED, SENTINEL;
+
+        static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid rank.redis.mode: " + value
+                        + " (expected single, cluster, replicated or sentinel)");
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final List<String> nodes;
+    private final String masterName;
+    private final ReadMode queryReadMode;
+    private final int poolSize;
+    private final int poolMinIdle;
+    private final int subscriptionPoolSize;
+    private final int nettyThreads;
+    private final int threads;
+
+    public RedissonConfig(@Value("${rank.redis.mode:single}") String mode,
+                          @Value("${rank.redis.nodes:${REDIS_URL:redis://localhost:6379}}") String nodes,
+                          @Value("${rank.redis.masterName:mymaster}") String masterName,
+                          @Value("${rank.redis.readMode:master}") String readMode,
+                          @Value("${rank.redis.pool.size:64}") int poolSize,
+                          @Value("${rank.redis.pool.minIdle:24}") int poolMinIdle,
+                          @Value("${rank.redis.pool.subscriptionSize:50}") int subscriptionPoolSize,
+                          @Value("${rank.redis.nettyThreads:32}") int nettyThreads,
+                          @Value("${rank.redis.threads:16}") int threads) {
+        this.mode = Mode.parse(mode);
+        this.nodes = Arrays.stream(nodes.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+        if (this.nodes.isEmpty()) {
+            throw new IllegalArgumentException("rank.redis.nodes must list at least one address");
+        }
+        this.masterName = masterName;
+        this.queryReadMode = parseReadMode(readMode);
+        if (this.mode == Mode.SINGLE && this.queryReadMode != ReadMode.MASTER) {
+            throw new IllegalArgumentException("rank.redis.readMode " + readMode + " needs replicas (cluster, replicated or sentinel mode)");
+        }
+        this.poolSize = Math.max(1, poolSize);
+        this.poolMinIdle = Math.min(Math.max(0, poolMinIdle), this.poolSize);
+        this.subscriptionPoolSize = Math.max(1, subscriptionPoolSize);
+        this.nettyThreads = nettyThreads;
+        this.threads = threads;
+    }
+
+    private static ReadMode parseReadMode(String value) {
+        try {
+            return ReadMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid rank.redis.readMode: " + value
+                    + " (expected master, slave or master_slave)");
+        }
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @Primary
+    public RedissonClient redisson(MeterRegistry meterRegistry) {
+        return Redisson.create(config(ReadMode.MASTER, connectionGauge("primary", meterRegistry)));
+    }
 
+    // Only with replica reads; RankService falls back to the primary client otherwise
     @Bean(destroyMethod = "shutdown")
-    public RedissonClient redisson() {
+    @ConditionalOnExpression("!'${rank.redis.readMode:master}'.equalsIgnoreCase('master')")
+    public RedissonClient queryRedisson(MeterRegistry meterRegistry) {
+        return Redisson.create(config(queryReadMode, connectionGauge("query", meterRegistry)));
+    }
+
+    private Config config(ReadMode readMode, NettyHook hook) {
         Config config = new Config();
-        config.useSingleServer()
-                .setAddress(redisUrl);
-        return Redisson.create(config);
+        config.setNettyThreads(nettyThreads);
+        config.setThreads(threads);
+        config.setNettyHook(hook);
+        String[] addresses = nodes.toArray(String[]::new);
+        switch (mode) {
+            case SINGLE -> config.useSingleServer()
+                    .setAddress(addresses[0])
+                    .setConnectionPoolSize(poolSize)
+                    .setConnectionMinimumIdleSize(poolMinIdle)
+                    .setSubscriptionConnectionPoolSize(subscriptionPoolSize);
+            case CLUSTER -> pools(config.useClusterServers().addNodeAddress(addresses), readMode);
+            case REPLICATED -> pools(config.useReplicatedServers().addNodeAddress(addresses), readMode);
+            case SENTINEL -> pools(config.useSentinelServers().setMasterName(masterName).addSentinelAddress(addresses), readMode);
+        }
+        return config;
+    }
+
+    // Pool sizes are per node, for masters and replicas alike
+    private <T extends BaseMasterSlaveServersConfig<T>> void pools(T servers, ReadMode readMode) {
+        servers.setReadMode(readMode)
+                .setMasterConnectionPoolSize(poolSize)
+                .setMasterConnectionMinimumIdleSize(poolMinIdle)
+                .setSlaveConnectionPoolSize(poolSize)
+                .setSlaveConnectionMinimumIdleSize(poolMinIdle)
+                .setSubscriptionConnectionPoolSize(subscriptionPoolSize);
+    }
+
+    private ConnectionGauge connectionGauge(String client, MeterRegistry meterRegistry) {
+        ConnectionGauge gauge = new ConnectionGauge();
+        Gauge.builder("rank_redis_connections_open", gauge.open, AtomicInteger::get)
+                .description("Open Redis connections (command and pub/sub, all nodes)")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder("rank_redis_pool_size", () -> poolSize)
+                .description("Configured command connection pool size per Redis node")
+                .tag("client", client)
+                .register(meterRegistry);
+        return gauge;
+    }
+
+    /**
+     * Tracks open connections through Netty's channel lifecycle; Redisson does not expose
+     * its pool counters as public API.
+     */
+    static final class ConnectionGauge implements NettyHook {
+
+        final AtomicInteger open = new AtomicInteger();
+
+        @Override
+        public void afterBoostrapInitialization(Bootstrap bootstrap) {
+        }
+
+        @Override
+        public void afterChannelInitialization(Channel channel) {
+            open.incrementAndGet();
+            channel.closeFuture().addListener(f -> open.decrementAndGet());
+        }
     }
 }
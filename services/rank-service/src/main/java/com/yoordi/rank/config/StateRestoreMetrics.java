@@ -0,0 +1,126 @@
+package com.yoordi.rank.config;
+
+import com.yoordi.observability.LongCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.streams.processor.StateRestoreListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks changelog restoration of the rank stores: records still to restore, partitions in
+ * progress, records restored per store and restore time per store partition. Callbacks run
+ * on the stream threads; a store's meters are registered on its first restore and reused.
+ */
+@Component
+public class StateRestoreMetrics implements StateRestoreListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(StateRestoreMetrics.class);
+
+    private static final String COMPLETED = "completed";
+    private static final String SUSPENDED = "suspended";
+
+    private static final class Restore {
+
+        final long endOffset;
+        final StoreMeters meters;
+        final long startNanos = System.nanoTime();
+        volatile long position;
+
+        Restore(long startOffset, long endOffset, StoreMeters meters) {
+            this.position = startOffset;
+            this.endOffset = endOffset;
+            this.meters = meters;
+        }
+    }
+
+    private record StoreMeters(LongCounter restored, Timer completed, Timer suspended) {}
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TopicPartition, Restore> active = new ConcurrentHashMap<>();
+    private final Map<String, StoreMeters> stores = new ConcurrentHashMap<>();
+
+    public StateRestoreMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("rank_streams_restoring_partitions", active, Map::size)
+                .description("Changelog partitions currently being restored")
+                .register(meterRegistry);
+        Gauge.builder("rank_streams_restore_remaining_records", this, StateRestoreMetrics::remainingRecords)
+                .description("Changelog records left to restore across all partitions")
+                .register(meterRegistry);
+    }
+
+    public boolean isRestoring() {
+        return !active.isEmpty();
+    }
+
+    public long remainingRecords() {
+        long remaining = 0;
+        for (Restore r : active.values()) {
+            remaining += Math.max(0, r.endOffset - r.position);
+        }
+        return remaining;
+    }
+
+    @Override
+    public void onRestoreStart(TopicPartition partition, String storeName, long startingOffset, long endingOffset) {
+        logger.info("Restoring state: store={}, partition={}, records={}", storeName, partition, endingOffset - startingOffset);
+        active.put(partition, new Restore(startingOffset, endingOffset, meters(storeName)));
+    }
+
+    @Override
+    public void onBatchRestored(TopicPartition partition, String storeName, long batchEndOffset, long numRestored) {
+        Restore restore = active.get(partition);
+        if (restore != null) {
+            restore.position = batchEndOffset + 1;
+        }
+        StoreMeters meters = restore != null ? restore.meters : meters(storeName);
+        meters.restored().add(numRestored);
+    }
+
+    @Override
+    public void onRestoreEnd(TopicPartition partition, String storeName, long totalRestored) {
+        finish(partition, storeName, totalRestored, COMPLETED);
+    }
+
+    @Override
+    public void onRestoreSuspended(TopicPartition partition, String storeName, long totalRestored) {
+        // The task moved to another instance mid-restore
+        finish(partition, storeName, totalRestored, SUSPENDED);
+    }
+
+    private void finish(TopicPartition partition, String storeName, long totalRestored, String outcome) {
+        Restore restore = active.remove(partition);
+        if (restore == null) {
+            return;
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - restore.startNanos);
+        Timer timer = COMPLETED.equals(outcome) ? restore.meters.completed() : restore.meters.suspended();
+        timer.record(elapsed);
+        logger.info("State restore {}: store={}, partition={}, records={}, took={}ms",
+                    outcome, storeName, partition, totalRestored, elapsed.toMillis());
+    }
+
+    private StoreMeters meters(String storeName) {
+        return stores.computeIfAbsent(storeName, store -> new StoreMeters(
+                LongCounter.register(meterRegistry, "rank_streams_restored_records_total",
+                        "Changelog records restored into state stores", "store", store),
+                restoreTimer(store, COMPLETED),
+                restoreTimer(store, SUSPENDED)));
+    }
+
+    private Timer restoreTimer(String storeName, String outcome) {
+        return Timer.builder("rank_streams_restore_duration")
+                .description("Time to restore one store partition from its changelog")
+                .tag("store", storeName)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.yoordi.rank.config;
+
+import org.apache.kafka.streams.KafkaStreams;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness of the rank topology ({@code rankStreams} in the readiness group). Out of service
+ * until Kafka Streams first reaches RUNNING with every store restored, so a fresh instance
+ * takes no traffic while its state rebuilds. After that it stays up through rebalances:
+ * queries fall back to Redis while local stores move, and pulling every instance out of
+ * rotation on each rebalance would turn it into an outage. Down once the client has failed.
+ */
+@Component("rankStreams")
+public class StreamsReadinessIndicator implements HealthIndicator {
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final StateRestoreMetrics restoreMetrics;
+    private volatile boolean restored;
+
+    public StreamsReadinessIndicator(StreamsBuilderFactoryBean streamsFactory, StateRestoreMetrics restoreMetrics) {
+        this.streamsFactory = streamsFactory;
+        this.restoreMetrics = restoreMetrics;
+    }
+
+    @Override
+    public Health health() {
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null) {
+            return Health.outOfService().withDetail("state", "NOT_STARTED").build();
+        }
+        KafkaStreams.State state = streams.state();
+        if (state == KafkaStreams.State.ERROR || state == KafkaStreams.State.PENDING_ERROR
+                || state == KafkaStreams.State.NOT_RUNNING || state == KafkaStreams.State.PENDING_SHUTDOWN) {
+            return Health.down().withDetail("state", state.name()).build();
+        }
+        if (!restored && state == KafkaStreams.State.RUNNING && !restoreMetrics.isRestoring()) {
+            restored = true;
+        }
+        Health.Builder health = restored ? Health.up() : Health.outOfService();
+        return health.withDetail("state", state.name())
+                .withDetail("restoreRemainingRecords", restoreMetrics.remainingRecords())
+                .build();
+    }
+}
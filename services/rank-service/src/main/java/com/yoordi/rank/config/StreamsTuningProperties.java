@@ -0,0 +1,161 @@
+package com.yoordi.rank.config;
+
+import org.apache.kafka.streams.StreamsConfig;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Kafka Streams tuning for the rank topology ({@code rank.streams.*}), applied on top of
+ * {@code spring.kafka.streams.*} by {@link KafkaStreamsConfig}.
+ */
+@Component
+@ConfigurationProperties(prefix = "rank.streams")
+public class StreamsTuningProperties {
+
+    private int numStreamThreads = 1;
+    private Long commitIntervalMs; // null: Kafka's default for the guarantee (30s, or 100ms with exactly-once)
+    private long cacheMaxBytes = 10 * 1024 * 1024;
+    private String processingGuarantee = StreamsConfig.AT_LEAST_ONCE;
+    private String metricsRecordingLevel = "INFO";
+    private int numStandbyReplicas; // Warm copies of each store on other instances; a moved task resumes without a full restore
+    private Long acceptableRecoveryLag; // null: Kafka's default; a standby this close to the changelog end takes over directly
+    private RocksDb rocksdb = new RocksDb();
+
+    public static class RocksDb {
+
+        private long blockCacheBytes = 64 * 1024 * 1024; // Shared by all stores; write buffers are charged to it
+        private long writeBufferBytes = 16 * 1024 * 1024; // Memtables of all stores together
+        private long memtableBytes = 4 * 1024 * 1024;
+        private int maxWriteBuffers = 3;
+
+        public long getBlockCacheBytes() {
+            return blockCacheBytes;
+        }
+
+        public void setBlockCacheBytes(long blockCacheBytes) {
+            this.blockCacheBytes = blockCacheBytes;
+        }
+
+        public long getWriteBufferBytes() {
+            return writeBufferBytes;
+        }
+
+        public void setWriteBufferBytes(long writeBufferBytes) {
+            this.writeBufferBytes = writeBufferBytes;
+        }
+
+        public long getMemtableBytes() {
+            return memtableBytes;
+        }
+
+        public void setMemtableBytes(long memtableBytes) {
+            this.memtableBytes = memtableBytes;
+        }
+
+        public int getMaxWriteBuffers() {
+            return maxWriteBuffers;
+        }
+
+        public void setMaxWriteBuffers(int maxWriteBuffers) {
+            this.maxWriteBuffers = maxWriteBuffers;
+        }
+    }
+
+    public boolean isExactlyOnce() {
+        return StreamsConfig.EXACTLY_ONCE_V2.equals(processingGuarantee);
+    }
+
+    /** Streams config entries for these settings, including the RocksDB config setter and its limits. */
+    public Map<String, Object> streamsOverrides() {
+        if (!StreamsConfig.AT_LEAST_ONCE.equals(processingGuarantee) && !isExactlyOnce()) {
+            throw new IllegalArgumentException("Invalid rank.streams.processingGuarantee: " + processingGuarantee
+                    + " (expected at_least_once or exactly_once_v2)");
+        }
+        Map<String, Object> config = new HashMap<>();
+        config.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, Math.max(1, numStreamThreads));
+        if (commitIntervalMs != null) {
+            config.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, commitIntervalMs);
+        }
+        config.put(StreamsConfig.STATESTORE_CACHE_MAX_BYTES_CONFIG, Math.max(0, cacheMaxBytes));
+        config.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, processingGuarantee);
+        config.put(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG, Math.max(0, numStandbyReplicas));
+        if (acceptableRecoveryLag != null) {
+            config.put(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG, acceptableRecoveryLag);
+        }
+        config.put(StreamsConfig.METRICS_RECORDING_LEVEL_CONFIG, metricsRecordingLevel.toUpperCase(Locale.ROOT));
+        config.put(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG, BoundedRocksDbConfigSetter.class);
+        config.put(BoundedRocksDbConfigSetter.BLOCK_CACHE_BYTES, rocksdb.blockCacheBytes);
+        config.put(BoundedRocksDbConfigSetter.WRITE_BUFFER_BYTES, rocksdb.writeBufferBytes);
+        config.put(BoundedRocksDbConfigSetter.MEMTABLE_BYTES, rocksdb.memtableBytes);
+        config.put(BoundedRocksDbConfigSetter.MAX_WRITE_BUFFERS, rocksdb.maxWriteBuffers);
+        return config;
+    }
+
+    public int getNumStreamThreads() {
+        return numStreamThreads;
+    }
+
+    public void setNumStreamThreads(int numStreamThreads) {
+        this.numStreamThreads = numStreamThreads;
+    }
+
+    public Long getCommitIntervalMs() {
+        return commitIntervalMs;
+    }
+
+    public void setCommitIntervalMs(Long commitIntervalMs) {
+        this.commitIntervalMs = commitIntervalMs;
+    }
+
+    public long getCacheMaxBytes() {
+        return cacheMaxBytes;
+    }
+
+    public void setCacheMaxBytes(long cacheMaxBytes) {
+        this.cacheMaxBytes = cacheMaxBytes;
+    }
+
+    public String getProcessingGuarantee() {
+        return processingGuarantee;
+    }
+
+    public void setProcessingGuarantee(String processingGuarantee) {
+        this.processingGuarantee = processingGuarantee.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String getMetricsRecordingLevel() {
+        return metricsRecordingLevel;
+    }
+
+    public void setMetricsRecordingLevel(String metricsRecordingLevel) {
+        this.metricsRecordingLevel = metricsRecordingLevel;
+    }
+
+    public int getNumStandbyReplicas() {
+        return numStandbyReplicas;
+    }
+
+    public void setNumStandbyReplicas(int numStandbyReplicas) {
+        this.numStandbyReplicas = numStandbyReplicas;
+    }
+
+    public Long getAcceptableRecoveryLag() {
+        return acceptableRecoveryLag;
+    }
+
+    public void setAcceptableRecoveryLag(Long acceptableRecoveryLag) {
+        this.acceptableRecoveryLag = acceptableRecoveryLag;
+    }
+
+    public RocksDb getRocksdb() {
+        return rocksdb;
+    }
+
+    public void setRocksdb(RocksDb rocksdb) {
+        this.rocksdb = rocksdb;
+    }
+}
@@ -0,0 +1,89 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.observability.LongCounter;
+import com.yoordi.rank.store.RankEntry;
+import com.yoordi.rank.store.ReadOnlyTopKStore;
+import com.yoordi.rank.store.TopKStore;
+import com.yoordi.rank.store.TopKStoreType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.streams.KafkaStreams;
+import org.apache.kafka.streams.StoreQueryParameters;
+import org.apache.kafka.streams.errors.InvalidStateStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.StreamsBuilderFactoryBean;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Answers rank queries from the in-process top-K stores via Interactive Queries.
+ * Only used while this instance hosts every partition of the input topic; otherwise
+ * (or while stores are rebuilding) callers fall back to Redis.
+ */
+@Component
+public class LocalRankReader {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalRankReader.class);
+    private static final TopKStoreType STORE_TYPE = new TopKStoreType();
+
+    private final StreamsBuilderFactoryBean streamsFactory;
+    private final boolean enabled;
+    private final LongCounter localHits;
+    private final LongCounter localMisses;
+
+    public LocalRankReader(StreamsBuilderFactoryBean streamsFactory,
+                           @Value("${rank.topk.enabled:true}") boolean enabled,
+                           MeterRegistry meterRegistry) {
+        this.streamsFactory = streamsFactory;
+        this.enabled = enabled;
+        this.localHits = LongCounter.register(meterRegistry, "rank_local_reads_total",
+                "Rank queries answered from the local top-K store", "result", "hit");
+        this.localMisses = LongCounter.register(meterRegistry, "rank_local_reads_total",
+                "Rank queries answered from the local top-K store", "result", "fallback");
+    }
+
+    /** Top {@code n} of the window ending at {@code windowEnd}, if the local store can answer it exactly. */
+    public Optional<List<RankEntry>> top(int windowSec, long windowEnd, int n) {
+        Optional<List<RankEntry>> result = store(windowSec).flatMap(s -> s.top(windowEnd, n));
+        (result.isPresent() ? localHits : localMisses).increment();
+        return result;
+    }
+
+    /** End of the latest window, if that window is fully covered locally. */
+    public OptionalLong latestWindowEnd(int windowSec) {
+        Optional<ReadOnlyTopKStore> store = store(windowSec);
+        if (store.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        OptionalLong latest = store.get().latestWindowEnd();
+        if (latest.isEmpty() || store.get().top(latest.getAsLong(), 1).isEmpty()) {
+            return OptionalLong.empty();
+        }
+        return latest;
+    }
+
+    private Optional<ReadOnlyTopKStore> store(int windowSec) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        KafkaStreams streams = streamsFactory.getKafkaStreams();
+        if (streams == null || streams.state() != KafkaStreams.State.RUNNING) {
+            return Optional.empty();
+        }
+        String storeName = TopKStore.storeName(windowSec);
+        try {
+            // Another instance owns some partitions: the local view is partial
+            if (streams.streamsMetadataForStore(storeName).size() > 1) {
+                return Optional.empty();
+            }
+            return Optional.of(streams.store(StoreQueryParameters.fromNameAndType(storeName, STORE_TYPE)));
+        } catch (InvalidStateStoreException e) {
+            logger.debug("Local top-K store unavailable: store={}, reason={}", storeName, e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
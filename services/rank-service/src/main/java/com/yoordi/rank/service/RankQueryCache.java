@@ -0,0 +1,109 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.observability.LongCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for rank queries keyed on the window end they were computed for.
+ * Concurrent misses on the same key share one computation. Entries live for a short TTL,
+ * since the latest window keeps changing until it closes, and are dropped as soon as a
+ * newer window end shows up for the same window size.
+ */
+@Component
+public class RankQueryCache {
+
+    public record Key(int windowSec, int n, int aggregate, long windowEnd) {}
+
+    private record Entry(CompletableFuture<RankResult> value, long expiresAt) {}
+
+    private final long ttlMs;
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // Newest window end seen per window size
+    private final Map<Integer, Long> latestEnds = new ConcurrentHashMap<>();
+    private final LongCounter hits;
+    private final LongCounter misses;
+    private final LongCounter coalesced;
+
+    public RankQueryCache(@Value("${rank.cache.ttlMs:1000}") long ttlMs,
+                          MeterRegistry meterRegistry) {
+        this.ttlMs = ttlMs;
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.coalesced = counter(meterRegistry, "coalesced");
+    }
+
+    private static LongCounter counter(MeterRegistry meterRegistry, String result) {
+        return LongCounter.register(meterRegistry, "rank_query_cache_total", "Rank query cache lookups", "result", result);
+    }
+
+    public RankResult get(Key key, Supplier<RankResult> loader) {
+        if (ttlMs <= 0) {
+            misses.increment();
+            return loader.get();
+        }
+        long now = System.currentTimeMillis();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt() > now) {
+            return await(existing);
+        }
+
+        Entry created = new Entry(new CompletableFuture<>(), now + ttlMs);
+        Entry winner = entries.compute(key, (k, current) ->
+                current != null && current.expiresAt() > now ? current : created);
+        if (winner != created) {
+            return await(winner);
+        }
+
+        misses.increment();
+        evictStale(key.windowSec(), key.windowEnd(), now);
+        try {
+            RankResult result = loader.get();
+            created.value().complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Don't cache failures, errors included, or waiters would block on the entry forever; they see the same exception
+            entries.remove(key, created);
+            created.value().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private RankResult await(Entry entry) {
+        (entry.value().isDone() ? hits : coalesced).increment();
+        try {
+            return entry.value().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void evictStale(int windowSec, long windowEnd, long now) {
+        boolean newest = latestEnds.merge(windowSec, windowEnd, Math::max) == windowEnd;
+        entries.entrySet().removeIf(e -> {
+            Key k = e.getKey();
+            Entry v = e.getValue();
+            if (newest && k.windowSec() == windowSec && k.windowEnd() < windowEnd) {
+                return true;
+            }
+            return v.expiresAt() <= now && v.value().isDone();
+        });
+    }
+}
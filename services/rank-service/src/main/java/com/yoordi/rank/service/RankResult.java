@@ -0,0 +1,49 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.rank.store.RankEntry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ranked entries of one query together with the aggregation range they were read from,
+ * so response headers describe exactly the windows behind the body. Unique viewer estimates
+ * are only attached for single-window detail queries; contents without one omit the field.
+ */
+public record RankResult(List<RankEntry> entries, Optional<Map<String, Long>> range, Map<String, Long> uniqueViewers) {
+
+    private static final RankResult EMPTY = new RankResult(List.of(), Optional.empty());
+
+    public RankResult(List<RankEntry> entries, Optional<Map<String, Long>> range) {
+        this(entries, range, Map.of());
+    }
+
+    public static RankResult empty() {
+        return EMPTY;
+    }
+
+    public List<String> contentIds() {
+        return entries.stream().map(RankEntry::contentId).toList();
+    }
+
+    public RankResult withUniqueViewers(Map<String, Long> uniqueViewers) {
+        return new RankResult(entries, range, uniqueViewers);
+    }
+
+    public List<Map<String, Object>> details() {
+        return entries.stream().map(this::toDetail).toList();
+    }
+
+    private Map<String, Object> toDetail(RankEntry entry) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("contentId", entry.contentId());
+        m.put("count", (int) entry.count());
+        Long viewers = uniqueViewers.get(entry.contentId());
+        if (viewers != null) {
+            m.put("uniqueViewers", viewers);
+        }
+        return m;
+    }
+}
@@ -1,120 +1,316 @@
 package com.yoordi.rank.service;
 
+import com.yoordi.observability.NanoTimer;
+import com.yoordi.rank.sink.RankKeyLayout;
+import com.yoordi.rank.store.RankEntry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
 import org.redisson.api.RedissonClient;
 import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
+import org.redisson.client.codec.StringCodec;
 import org.redisson.client.protocol.ScoredEntry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class RankService {
 
     private static final Logger logger = LoggerFactory.getLogger(RankService.class);
-    
+
     private final RedissonClient redissonClient;
-    private final int aggregateReadFactor;
+    // Single-window reads and the latest pointer; may read from replicas
+    private final RedissonClient queryClient;
+    private final LocalRankReader localRankReader;
+    private final RankQueryCache queryCache;
+    private final RankKeyLayout layout;
+    private final long unionTtlMs;
+    private final boolean uniqueViewers;
+    private final NanoTimer latestTimer;
+    private final NanoTimer windowTimer;
+    private final NanoTimer aggregateTimer;
+    private final NanoTimer uniqueViewersTimer;
+    // Union keys this instance computed recently -> local expiry (epoch millis)
+    private final Map<String, Long> computedUnions = new ConcurrentHashMap<>();
 
     public RankService(RedissonClient redissonClient,
-                       @Value("${rank.aggregateReadFactor:3}") int aggregateReadFactor) {
+                       @Qualifier("queryRedisson") ObjectProvider<RedissonClient> queryClient,
+                       LocalRankReader localRankReader,
+                       RankQueryCache queryCache,
+                       RankKeyLayout layout,
+                       MeterRegistry meterRegistry,
+                       @Value("${rank.aggregate.unionTtlMs:1000}") long unionTtlMs,
+                       @Value("${rank.uniqueViewers.enabled:false}") boolean uniqueViewers) {
         this.redissonClient = redissonClient;
-        this.aggregateReadFactor = aggregateReadFactor;
+        this.queryClient = queryClient.getIfAvailable(() -> redissonClient);
+        this.localRankReader = localRankReader;
+        this.queryCache = queryCache;
+        this.layout = layout;
+        this.unionTtlMs = Math.max(1, unionTtlMs);
+        this.uniqueViewers = uniqueViewers;
+        this.latestTimer = timer(meterRegistry, "latest");
+        this.windowTimer = timer(meterRegistry, "window");
+        this.aggregateTimer = timer(meterRegistry, "aggregate");
+        this.uniqueViewersTimer = timer(meterRegistry, "unique_viewers");
+    }
+
+    private static NanoTimer timer(MeterRegistry meterRegistry, String query) {
+        return NanoTimer.of(Timer.builder("rank_redis_query_seconds")
+                .description("Redis round-trip time of rank queries")
+                .tag("query", query)
+                .register(meterRegistry));
     }
 
     public List<String> getTopContentIds(String window, int n, int aggregate) {
-        int windowSec = parseWindowSeconds(window);
-        List<String> zsetKeys = getRecentZsetKeys(windowSec, aggregate);
-        if (zsetKeys.isEmpty()) return List.of();
-
-        Map<String, Double> sums = aggregateCounts(zsetKeys, n);
-        return sums.entrySet().stream()
-                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                .limit(n)
-                .map(Map.Entry::getKey)
-                .toList();
+        return getTop(window, n, aggregate).contentIds();
     }
 
     public List<Map<String, Object>> getTopContentDetails(String window, int n, int aggregate) {
+        return getTopDetail(window, n, aggregate).details();
+    }
+
+    /**
+     * {@link #getTop} plus each content's unique viewers in that window, read from the hash
+     * the sink writes beside the ZSET. Distinct counts of different windows do not add up, so
+     * aggregated queries carry none.
+     */
+    public RankResult getTopDetail(String window, int n, int aggregate) {
+        RankResult result = getTop(window, n, aggregate);
+        if (!uniqueViewers || aggregate != 1 || result.entries().isEmpty() || result.range().isEmpty()) {
+            return result;
+        }
         int windowSec = parseWindowSeconds(window);
-        List<String> zsetKeys = getRecentZsetKeys(windowSec, aggregate);
-        if (zsetKeys.isEmpty()) return List.of();
-
-        Map<String, Double> sums = aggregateCounts(zsetKeys, n);
-        return sums.entrySet().stream()
-                .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
-                .limit(n)
-                .map(e -> {
-                    Map<String, Object> m = new HashMap<>();
-                    m.put("contentId", e.getKey());
-                    m.put("count", e.getValue().intValue());
-                    return m;
-                })
-                .toList();
+        long endMs = result.range().get().get("end");
+        long start = NanoTimer.start();
+        try {
+            return result.withUniqueViewers(readUniqueViewers(windowSec, endMs, result.contentIds()));
+        } finally {
+            uniqueViewersTimer.stop(start);
+        }
+    }
+
+    /**
+     * Top {@code n} of the latest window (or the last {@code aggregate} windows) with the range
+     * it covers. The latest window end is resolved once and keys the response cache.
+     */
+    public RankResult getTop(String window, int n, int aggregate) {
+        int windowSec = parseWindowSeconds(window);
+        OptionalLong localEnd = aggregate == 1 ? localRankReader.latestWindowEnd(windowSec) : OptionalLong.empty();
+        OptionalLong latestEnd = localEnd.isPresent() ? localEnd : redisLatestEnd(windowSec);
+        if (latestEnd.isEmpty()) {
+            logger.debug("No ranking data found for windowSec: {}", windowSec);
+            return RankResult.empty();
+        }
+        long endMs = latestEnd.getAsLong();
+        RankQueryCache.Key key = new RankQueryCache.Key(windowSec, n, aggregate, endMs);
+        return queryCache.get(key, () -> computeTop(windowSec, n, aggregate, endMs, localEnd.isPresent()));
+    }
+
+    private RankResult computeTop(int windowSec, int n, int aggregate, long endMs, boolean tryLocal) {
+        if (tryLocal) {
+            Optional<List<RankEntry>> local = localRankReader.top(windowSec, endMs, n);
+            if (local.isPresent()) {
+                return new RankResult(local.get(), Optional.of(rangeOf(endMs, windowSec, aggregate)));
+            }
+            // e.g. n above the tracked K: read the window Redis currently points at
+            OptionalLong redisEnd = redisLatestEnd(windowSec);
+            if (redisEnd.isEmpty()) {
+                return RankResult.empty();
+            }
+            endMs = redisEnd.getAsLong();
+        }
+
+        List<RankEntry> entries;
+        long start = NanoTimer.start();
+        if (aggregate == 1) {
+            try {
+                entries = readWindow(windowSec, endMs, n);
+            } finally {
+                windowTimer.stop(start);
+            }
+        } else {
+            try {
+                entries = aggregateCounts(windowSec, endMs, aggregate, n);
+            } finally {
+                aggregateTimer.stop(start);
+            }
+        }
+        return new RankResult(entries, Optional.of(rangeOf(endMs, windowSec, aggregate)));
     }
 
-    private Map<String, Double> aggregateCounts(List<String> zsetKeys, int n) {
-        Map<String, Double> sums = new HashMap<>();
-        int limitPerSet = Math.max(n * aggregateReadFactor, n);
-        for (String key : zsetKeys) {
-            RScoredSortedSet<String> set = redissonClient.getScoredSortedSet(key);
-            Collection<ScoredEntry<String>> top = set.entryRangeReversed(0, limitPerSet - 1);
-            for (ScoredEntry<String> e : top) {
-                sums.merge(e.getValue(), e.getScore(), Double::sum);
+    private List<RankEntry> readWindow(int windowSec, long endMs, int n) {
+        List<String> keys = new ArrayList<>(layout.shards() + 1);
+        if (layout.readsSingle()) {
+            keys.add(RankKeyLayout.windowKey(windowSec, endMs));
+        }
+        if (layout.readsShards()) {
+            for (int shard = 0; shard < layout.shards(); shard++) {
+                keys.add(RankKeyLayout.shardKey(windowSec, endMs, shard));
             }
         }
-        return sums;
+        if (keys.size() == 1) {
+            RScoredSortedSet<String> set = queryClient.getScoredSortedSet(keys.get(0));
+            return TopMerge.merge(List.of(set.entryRangeReversed(0, n - 1)), n);
+        }
+        RBatch batch = queryClient.createBatch();
+        List<RFuture<Collection<ScoredEntry<String>>>> parts = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            parts.add(batch.<String>getScoredSortedSet(key).entryRangeReversedAsync(0, n - 1));
+        }
+        batch.execute();
+        return TopMerge.merge(join(parts), n);
     }
 
-    private List<String> getRecentZsetKeys(int windowSec, int aggregate) {
-        String latestKey = String.format("rank:latest:%s", windowSec);
-        String latestZsetKey = (String) redissonClient.getBucket(latestKey).get();
-        if (latestZsetKey == null) {
-            logger.debug("No ranking data found for windowSec: {}", windowSec);
-            return List.of();
+    // One HMGET per hash holding any of the contents, pipelined
+    private Map<String, Long> readUniqueViewers(int windowSec, long endMs, List<String> contentIds) {
+        RBatch batch = queryClient.createBatch();
+        List<RFuture<Map<String, String>>> parts = new ArrayList<>(layout.shards() + 1);
+        Set<String> ids = new HashSet<>(contentIds);
+        if (layout.readsSingle()) {
+            parts.add(batch.<String, String>getMap(RankKeyLayout.uniqueViewersKey(windowSec, endMs), StringCodec.INSTANCE)
+                    .getAllAsync(ids));
         }
-        try {
-            String[] parts = latestZsetKey.split(":"); // rank:{window}:{end}
-            long endMs = Long.parseLong(parts[2]);
-            long stepMs = windowSec * 1000L;
-            java.util.ArrayList<String> keys = new java.util.ArrayList<>(aggregate);
+        if (layout.readsShards()) {
+            List<Set<String>> byShard = new ArrayList<>(layout.shards());
+            for (int shard = 0; shard < layout.shards(); shard++) {
+                byShard.add(new HashSet<>());
+            }
+            ids.forEach(id -> byShard.get(layout.shardOf(id)).add(id));
+            for (int shard = 0; shard < layout.shards(); shard++) {
+                if (!byShard.get(shard).isEmpty()) {
+                    parts.add(batch.<String, String>getMap(RankKeyLayout.shardUniqueViewersKey(windowSec, endMs, shard), StringCodec.INSTANCE)
+                            .getAllAsync(byShard.get(shard)));
+                }
+            }
+        }
+        batch.execute();
+
+        Map<String, Long> viewers = new HashMap<>();
+        for (RFuture<Map<String, String>> part : parts) {
+            part.toCompletableFuture().join().forEach((id, value) -> viewers.merge(id, Long.parseLong(value), Math::max));
+        }
+        return viewers;
+    }
+
+    private record Union(String key, String[] sources) {}
+
+    /**
+     * Sums the windows server-side with ZUNIONSTORE into short-lived keys shared by all
+     * requests for the same (windowSec, endMs, aggregate), one per shard with the sharded
+     * layout, then reads the top n of each and merges them. Exact, and one pipelined
+     * round-trip whether the unions are computed or reused. Runs on the primary client, as
+     * the reads have to see the unions the same batch stores.
+     */
+    private List<RankEntry> aggregateCounts(int windowSec, long endMs, int aggregate, int n) {
+        String unionKey = RankKeyLayout.unionKey(windowSec, endMs, aggregate);
+        List<Union> unions = unions(windowSec, endMs, aggregate);
+        long now = System.currentTimeMillis();
+
+        Long expiresAt = computedUnions.get(unionKey);
+        if (expiresAt != null && expiresAt > now) {
+            List<RankEntry> top = readUnions(unions, n, false);
+            if (!top.isEmpty()) {
+                return top;
+            }
+        }
+
+        List<RankEntry> top = readUnions(unions, n, true);
+        computedUnions.values().removeIf(exp -> exp <= now);
+        computedUnions.put(unionKey, now + unionTtlMs);
+        return top;
+    }
+
+    private List<Union> unions(int windowSec, long endMs, int aggregate) {
+        List<Union> unions = new ArrayList<>(layout.shards() + 1);
+        long stepMs = windowSec * 1000L;
+        if (layout.readsSingle()) {
+            String[] sources = new String[aggregate];
             for (int i = 0; i < aggregate; i++) {
-                long ts = endMs - (i * stepMs);
-                keys.add(String.format("rank:%d:%d", windowSec, ts));
+                sources[i] = RankKeyLayout.windowKey(windowSec, endMs - i * stepMs);
             }
-            return keys;
-        } catch (Exception e) {
-            logger.warn("Failed to parse latest zset key: {}", latestZsetKey, e);
-            return List.of(latestZsetKey);
+            unions.add(new Union(RankKeyLayout.unionKey(windowSec, endMs, aggregate), sources));
         }
+        if (layout.readsShards()) {
+            for (int shard = 0; shard < layout.shards(); shard++) {
+                String[] sources = new String[aggregate];
+                for (int i = 0; i < aggregate; i++) {
+                    sources[i] = RankKeyLayout.shardKey(windowSec, endMs - i * stepMs, shard);
+                }
+                unions.add(new Union(RankKeyLayout.shardUnionKey(windowSec, endMs, aggregate, shard), sources));
+            }
+        }
+        return unions;
     }
 
-    public java.util.Optional<java.util.Map<String, Long>> getAggregationRange(String window, int aggregate) {
-        int windowSec = parseWindowSeconds(window);
-        String latestKey = String.format("rank:latest:%s", windowSec);
-        String latestZsetKey = (String) redissonClient.getBucket(latestKey).get();
+    private List<RankEntry> readUnions(List<Union> unions, int n, boolean compute) {
+        RBatch batch = redissonClient.createBatch();
+        List<RFuture<Collection<ScoredEntry<String>>>> parts = new ArrayList<>(unions.size());
+        for (Union u : unions) {
+            RScoredSortedSetAsync<String> union = batch.getScoredSortedSet(u.key());
+            if (compute) {
+                union.unionAsync(u.sources());
+                union.expireAsync(Duration.ofMillis(unionTtlMs));
+            }
+            parts.add(union.entryRangeReversedAsync(0, n - 1));
+        }
+        batch.execute();
+        return TopMerge.merge(join(parts), n);
+    }
+
+    private static List<Collection<ScoredEntry<String>>> join(List<RFuture<Collection<ScoredEntry<String>>>> parts) {
+        List<Collection<ScoredEntry<String>>> result = new ArrayList<>(parts.size());
+        for (RFuture<Collection<ScoredEntry<String>>> part : parts) {
+            result.add(part.toCompletableFuture().join());
+        }
+        return result;
+    }
+
+    private OptionalLong redisLatestEnd(int windowSec) {
+        long start = NanoTimer.start();
+        String latestZsetKey;
+        try {
+            latestZsetKey = queryClient.<String>getBucket(RankKeyLayout.latestKey(windowSec), StringCodec.INSTANCE).get();
+        } finally {
+            latestTimer.stop(start);
+        }
         if (latestZsetKey == null) {
-            return java.util.Optional.empty();
+            return OptionalLong.empty();
         }
         try {
-            String[] parts = latestZsetKey.split(":");
-            long endMs = Long.parseLong(parts[2]);
-            long startMs = endMs - (Math.max(1, aggregate) - 1L) * windowSec * 1000L;
-            java.util.Map<String, Long> m = new java.util.HashMap<>();
-            m.put("start", startMs);
-            m.put("end", endMs);
-            m.put("windowSec", (long) windowSec);
-            return java.util.Optional.of(m);
+            String[] parts = latestZsetKey.split(":"); // rank:{<window>}:<end>
+            return OptionalLong.of(Long.parseLong(parts[2]));
         } catch (Exception e) {
-            logger.warn("Failed to compute aggregation range from key: {}", latestZsetKey, e);
-            return java.util.Optional.empty();
+            logger.warn("Failed to parse latest zset key: {}", latestZsetKey, e);
+            return OptionalLong.empty();
         }
     }
+
+    private Map<String, Long> rangeOf(long endMs, int windowSec, int aggregate) {
+        long startMs = endMs - (Math.max(1, aggregate) - 1L) * windowSec * 1000L;
+        Map<String, Long> m = new HashMap<>();
+        m.put("start", startMs);
+        m.put("end", endMs);
+        m.put("windowSec", (long) windowSec);
+        return m;
+    }
 
     private int parseWindowSeconds(String window) {
         if (window.endsWith("s")) {
@@ -0,0 +1,67 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.rank.store.RankEntry;
+import org.redisson.client.protocol.ScoredEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Merges per-shard top lists into the overall top {@code n}. A content hashes to one shard,
+ * so the overall top is among the shards' tops; a content seen twice (the single-layout key
+ * read alongside its shard during migration) keeps its highest count.
+ */
+final class TopMerge {
+
+    private static final Comparator<RankEntry> BY_COUNT_DESC =
+            Comparator.comparingLong(RankEntry::count).reversed().thenComparing(RankEntry::contentId);
+
+    private TopMerge() {
+    }
+
+    static List<RankEntry> merge(List<? extends Collection<ScoredEntry<String>>> parts, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+        if (parts.size() == 1) {
+            // Already ordered by Redis
+            List<RankEntry> result = new ArrayList<>(parts.get(0).size());
+            for (ScoredEntry<String> e : parts.get(0)) {
+                result.add(new RankEntry(e.getValue(), e.getScore().longValue()));
+            }
+            return result;
+        }
+
+        Map<String, Long> best = new HashMap<>();
+        for (Collection<ScoredEntry<String>> part : parts) {
+            for (ScoredEntry<String> e : part) {
+                best.merge(e.getValue(), e.getScore().longValue(), Math::max);
+            }
+        }
+
+        // Bounded min-heap: the weakest of the current top n sits at the head
+        PriorityQueue<RankEntry> heap = new PriorityQueue<>(n + 1, BY_COUNT_DESC.reversed());
+        best.forEach((contentId, count) -> {
+            RankEntry entry = new RankEntry(contentId, count);
+            if (heap.size() < n) {
+                heap.add(entry);
+            } else if (BY_COUNT_DESC.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        });
+
+        List<RankEntry> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+}
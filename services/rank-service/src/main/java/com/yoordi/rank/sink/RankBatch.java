@@ -0,0 +1,58 @@
+package com.yoordi.rank.sink;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Buffer of pending rank updates flushed to Redis by {@link RankSink#flush(RankBatch)}.
+ * Not thread-safe: each stream task owns its own instance.
+ */
+public class RankBatch {
+
+    // (windowSec, windowEnd) -> contentId -> latest count
+    private final Map<WindowKey, Map<String, Double>> scores = new HashMap<>();
+    // (windowSec, windowEnd) -> contentId -> latest unique viewer estimate, as hash field values
+    private final Map<WindowKey, Map<String, String>> uniqueViewers = new HashMap<>();
+    private int size;
+
+    public void add(int windowSec, long windowEnd, String contentId, long count) {
+        Map<String, Double> window = scores.computeIfAbsent(new WindowKey(windowSec, windowEnd), k -> new HashMap<>());
+        // Windowed counts only grow, so a later update for the same content replaces the earlier one
+        if (window.put(contentId, (double) count) == null) {
+            size++;
+        }
+    }
+
+    /** Same as {@link #add(int, long, String, long)}; a negative {@code viewers} means unknown. */
+    public void add(int windowSec, long windowEnd, String contentId, long count, long viewers) {
+        add(windowSec, windowEnd, contentId, count);
+        if (viewers >= 0) {
+            uniqueViewers.computeIfAbsent(new WindowKey(windowSec, windowEnd), k -> new HashMap<>())
+                    .put(contentId, Long.toString(viewers));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        scores.clear();
+        uniqueViewers.clear();
+        size = 0;
+    }
+
+    Map<WindowKey, Map<String, Double>> scores() {
+        return scores;
+    }
+
+    Map<WindowKey, Map<String, String>> uniqueViewers() {
+        return uniqueViewers;
+    }
+
+    record WindowKey(int windowSec, long windowEnd) {}
+}
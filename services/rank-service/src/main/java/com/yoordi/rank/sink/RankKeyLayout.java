@@ -0,0 +1,137 @@
+package com.yoordi.rank.sink;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Where window counts live in Redis. The single layout keeps one ZSET per window
+ * ({@code rank:{60}:1700000010000}); the sharded layout spreads a window over N ZSETs
+ * by content-ID hash, so a hot window no longer sits on one Redis node. Keys carry a hash
+ * tag, {@code {windowSec}} in the single layout and {@code {windowSec:sN}} per shard: every
+ * window of one size (or of one shard) lands on the same cluster slot, which keeps
+ * ZUNIONSTORE across windows legal on a cluster, while different shards spread.
+ *
+ * <p>Migration runs single → dual (write both, keep reading single, for at least one ZSET
+ * TTL) → sharded. A content's score is its absolute window count in either layout, so while
+ * {@code readLegacy} is on readers merge the old key in by max without double counting.
+ */
+@Component
+public class RankKeyLayout {
+
+    public enum Mode {
+        /** One ZSET per window. */
+        SINGLE,
+        /** Writes both layouts, reads the single one. */
+        DUAL,
+        /** Writes shards only, reads shards (plus the single key while {@code readLegacy}). */
+        SHARDED;
+
+        static Mode parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid rank layout mode: " + value + " (expected single, dual or sharded)");
+            }
+        }
+    }
+
+    private final Mode mode;
+    private final int shards;
+    private final boolean readLegacy;
+
+    public RankKeyLayout(@Value("${rank.layout.mode:single}") String mode,
+                         @Value("${rank.layout.shards:1}") int shards,
+                         @Value("${rank.layout.readLegacy:true}") boolean readLegacy) {
+        this.mode = Mode.parse(mode);
+        if (this.mode != Mode.SINGLE && shards < 2) {
+            throw new IllegalArgumentException("rank.layout.shards must be at least 2 for mode " + mode);
+        }
+        this.shards = Math.max(1, shards);
+        this.readLegacy = readLegacy;
+    }
+
+    public static RankKeyLayout single() {
+        return new RankKeyLayout("single", 1, true);
+    }
+
+    public Mode mode() {
+        return mode;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public boolean writesSingle() {
+        return mode != Mode.SHARDED;
+    }
+
+    public boolean writesShards() {
+        return mode != Mode.SINGLE;
+    }
+
+    public boolean readsShards() {
+        return mode == Mode.SHARDED;
+    }
+
+    public boolean readsSingle() {
+        return mode != Mode.SHARDED || readLegacy;
+    }
+
+    public int shardOf(String contentId) {
+        return Math.floorMod(contentId.hashCode(), shards);
+    }
+
+    /** Splits one window's entries by shard; index i holds the entries of shard i. */
+    public <V> List<Map<String, V>> split(Map<String, V> entries) {
+        List<Map<String, V>> parts = new ArrayList<>(shards);
+        int expected = entries.size() / shards + 1;
+        for (int i = 0; i < shards; i++) {
+            parts.add(new HashMap<>(expected * 4 / 3 + 1));
+        }
+        entries.forEach((contentId, value) -> parts.get(shardOf(contentId)).put(contentId, value));
+        return parts;
+    }
+
+    // Single-layout ZSET: "rank:{<windowSec>}:<windowEndEpochMillis>", hash-tagged by window size
+    public static String windowKey(int windowSec, long windowEnd) {
+        return "rank:{" + windowSec + "}:" + windowEnd;
+    }
+
+    // Shard ZSET: "rank:{{windowSec}:s{shard}}:{windowEnd}"
+    public static String shardKey(int windowSec, long windowEnd, int shard) {
+        return "rank:{" + windowSec + ":s" + shard + "}:" + windowEnd;
+    }
+
+    // Union of the last <aggregate> single-layout windows, on their slot: "rank:agg:{<windowSec>}:<windowEnd>:<aggregate>"
+    public static String unionKey(int windowSec, long windowEnd, int aggregate) {
+        return "rank:agg:{" + windowSec + "}:" + windowEnd + ":" + aggregate;
+    }
+
+    // Same union for one shard, on that shard's slot
+    public static String shardUnionKey(int windowSec, long windowEnd, int aggregate, int shard) {
+        return "rank:agg:{" + windowSec + ":s" + shard + "}:" + windowEnd + ":" + aggregate;
+    }
+
+    // Unique viewer estimates of one window, a hash of contentId -> count: "rank:uv:{<windowSec>}:<windowEndEpochMillis>",
+    // on the same slot as the window's ZSET
+    public static String uniqueViewersKey(int windowSec, long windowEnd) {
+        return "rank:uv:{" + windowSec + "}:" + windowEnd;
+    }
+
+    // Same hash for one shard, next to that shard's ZSET
+    public static String shardUniqueViewersKey(int windowSec, long windowEnd, int shard) {
+        return "rank:uv:{" + windowSec + ":s" + shard + "}:" + windowEnd;
+    }
+
+    // Latest pointer key: "rank:latest:{windowSec}"; its value is the single-layout key of the newest window
+    public static String latestKey(int windowSec) {
+        return "rank:latest:" + windowSec;
+    }
+}
@@ -1,54 +1,161 @@
 package com.yoordi.rank.sink;
 
+import com.yoordi.observability.NanoTimer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.redisson.api.BatchOptions;
+import org.redisson.api.RBatch;
+import org.redisson.api.RScript;
+import org.redisson.api.RScriptAsync;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class RankSink {
 
     private static final Logger logger = LoggerFactory.getLogger(RankSink.class);
-    
+
+    // Sets the latest pointer unless it already names a later window, so a flush that lands
+    // late (a retried batch, an earlier window closing after a later one) never moves it back.
+    // KEYS[1] pointer, ARGV[1] window key, ARGV[2] window end, ARGV[3] TTL in ms
+    private static final String ADVANCE_LATEST =
+            "local cur = redis.call('GET', KEYS[1]) " +
+            "if cur then " +
+            "  local curEnd = tonumber(string.match(cur, ':(%d+)$')) " +
+            "  if curEnd and curEnd > tonumber(ARGV[2]) then return 0 end " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[3]) " +
+            "return 1";
+
     private final RedissonClient redissonClient;
+    private final RankKeyLayout layout;
     private final int ttlFactor;
+    private final DistributionSummary flushSize;
+    private final NanoTimer flushTimer;
 
     public RankSink(RedissonClient redissonClient,
-                    @Value("${rank.ttlFactor:3}") int ttlFactor) {
+                    RankKeyLayout layout,
+                    @Value("${rank.ttlFactor:3}") int ttlFactor,
+                    MeterRegistry meterRegistry) {
         this.redissonClient = redissonClient;
+        this.layout = layout;
         this.ttlFactor = ttlFactor;
+        this.flushSize = DistributionSummary.builder("rank_sink_flush_size")
+                .description("Number of rank entries written per Redis flush")
+                .register(meterRegistry);
+        this.flushTimer = NanoTimer.of(Timer.builder("rank_sink_flush_duration")
+                .description("Latency of a pipelined Redis rank flush")
+                .register(meterRegistry));
     }
 
     public void update(int windowSec, long windowEnd, String contentId, int count) {
+        RankBatch batch = new RankBatch();
+        batch.add(windowSec, windowEnd, contentId, count);
+        flush(batch);
+    }
+
+    /**
+     * Writes all buffered updates in a single pipelined round-trip. TTL and the
+     * latest pointer are set once per ZSET / window rather than once per entry.
+     * With the sharded layout each window is split across its shard keys; on a cluster
+     * the batch goes out to the owning nodes in parallel. The batch is cleared once written;
+     * after a failure it is left as it was, so the caller can send it again.
+     */
+    public int flush(RankBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int entries = batch.size();
+        int zsets = batch.scores().size();
+        long start = NanoTimer.start();
         try {
-            // ZSET key format: "rank:{windowSec}:{windowEndEpochMillis}"
-            String zsetKey = String.format("rank:%d:%d", windowSec, windowEnd);
-            
-            // Latest pointer key: "rank:latest:{windowSec}"
-            String latestKey = String.format("rank:latest:%d", windowSec);
-            
-            // Add to sorted set with count as score
-            var zset = redissonClient.getScoredSortedSet(zsetKey);
-            zset.add(count, contentId);
-            // Set TTL to auto-expire old windows
-            int ttlSeconds = Math.max(windowSec * ttlFactor, windowSec);
-            zset.expire(Duration.ofSeconds(ttlSeconds));
-            
-            // Update latest pointer (with TTL a bit longer than ZSET)
-            var latestBucket = redissonClient.getBucket(latestKey);
-            latestBucket.set(zsetKey);
-            latestBucket.expire(Duration.ofSeconds(ttlSeconds * 2L));
-            
-            logger.debug("Updated Redis: zsetKey={}, contentId={}, count={}, latestKey={}", 
-                        zsetKey, contentId, count, latestKey);
-                        
+            RBatch rBatch = redissonClient.createBatch(BatchOptions.defaults().skipResult());
+            Map<Integer, Long> latestEnds = new HashMap<>();
+
+            for (Map.Entry<RankBatch.WindowKey, Map<String, Double>> e : batch.scores().entrySet()) {
+                int windowSec = e.getKey().windowSec();
+                long windowEnd = e.getKey().windowEnd();
+                Duration ttl = Duration.ofSeconds(ttlSeconds(windowSec));
+
+                // Add to sorted set with count as score, TTL to auto-expire old windows
+                if (layout.writesSingle()) {
+                    write(rBatch, RankKeyLayout.windowKey(windowSec, windowEnd), e.getValue(), ttl);
+                }
+                if (layout.writesShards()) {
+                    List<Map<String, Double>> parts = layout.split(e.getValue());
+                    for (int shard = 0; shard < parts.size(); shard++) {
+                        if (!parts.get(shard).isEmpty()) {
+                            write(rBatch, RankKeyLayout.shardKey(windowSec, windowEnd, shard), parts.get(shard), ttl);
+                        }
+                    }
+                }
+
+                latestEnds.merge(windowSec, windowEnd, Math::max);
+            }
+
+            // Unique viewers go to a hash beside each ZSET, with the same TTL
+            for (Map.Entry<RankBatch.WindowKey, Map<String, String>> e : batch.uniqueViewers().entrySet()) {
+                int windowSec = e.getKey().windowSec();
+                long windowEnd = e.getKey().windowEnd();
+                Duration ttl = Duration.ofSeconds(ttlSeconds(windowSec));
+                if (layout.writesSingle()) {
+                    writeHash(rBatch, RankKeyLayout.uniqueViewersKey(windowSec, windowEnd), e.getValue(), ttl);
+                }
+                if (layout.writesShards()) {
+                    List<Map<String, String>> parts = layout.split(e.getValue());
+                    for (int shard = 0; shard < parts.size(); shard++) {
+                        if (!parts.get(shard).isEmpty()) {
+                            writeHash(rBatch, RankKeyLayout.shardUniqueViewersKey(windowSec, windowEnd, shard), parts.get(shard), ttl);
+                        }
+                    }
+                }
+            }
+
+            // Latest pointer only moves forward, to the newest window seen (TTL a bit longer than ZSET)
+            RScriptAsync script = rBatch.getScript(StringCodec.INSTANCE);
+            latestEnds.forEach((windowSec, windowEnd) ->
+                    script.evalAsync(RScript.Mode.READ_WRITE, ADVANCE_LATEST, RScript.ReturnType.BOOLEAN,
+                            List.of(RankKeyLayout.latestKey(windowSec)),
+                            RankKeyLayout.windowKey(windowSec, windowEnd), windowEnd,
+                            ttlSeconds(windowSec) * 2000L));
+
+            rBatch.execute();
+            batch.clear();
+
+            flushSize.record(entries);
+            logger.debug("Flushed rank batch to Redis: entries={}, zsets={}", entries, zsets);
+            return entries;
         } catch (Exception e) {
-            logger.error("Failed to update Redis rank: windowSec={}, windowEnd={}, contentId={}, count={}", 
-                        windowSec, windowEnd, contentId, count, e);
+            logger.error("Failed to flush rank batch to Redis: entries={}, zsets={}", entries, zsets, e);
             throw e;
+        } finally {
+            flushTimer.stop(start);
         }
     }
+
+    private static void write(RBatch rBatch, String key, Map<String, Double> scores, Duration ttl) {
+        var zset = rBatch.<String>getScoredSortedSet(key);
+        zset.addAllAsync(scores);
+        zset.expireAsync(ttl);
+    }
+
+    private static void writeHash(RBatch rBatch, String key, Map<String, String> values, Duration ttl) {
+        var hash = rBatch.<String, String>getMap(key, StringCodec.INSTANCE);
+        hash.putAllAsync(values);
+        hash.expireAsync(ttl);
+    }
+
+    private int ttlSeconds(int windowSec) {
+        return Math.max(windowSec * ttlFactor, windowSec);
+    }
 }
@@ -0,0 +1,111 @@
+package com.yoordi.rank.sink;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+
+/**
+ * Rank updates of one window size on their way to Redis, one store per stream task. It is a
+ * state store so that the Streams commit drains it: {@link #flush()} writes whatever is
+ * pending before the task's offsets (or transaction) are committed, and a Redis failure
+ * fails the commit instead of letting offsets get ahead of Redis. Not changelogged: after a
+ * failure the task replays from its last commit, and counts are absolute, so rewriting the
+ * same entries is harmless.
+ */
+public class RankSinkStore implements StateStore {
+
+    private final String name;
+    private final int windowSec;
+    private final RankSink rankSink;
+    private final Counter redisUpdatesCounter;
+    private final RankBatch batch = new RankBatch();
+
+    // Set by a failed early send; later early sends wait for the commit to retry
+    private boolean failing;
+    private volatile boolean open;
+
+    public RankSinkStore(String name, int windowSec, RankSink rankSink, Counter redisUpdatesCounter) {
+        this.name = name;
+        this.windowSec = windowSec;
+        this.rankSink = rankSink;
+        this.redisUpdatesCounter = redisUpdatesCounter;
+    }
+
+    public static String storeName(int windowSec) {
+        return "rank-sink-" + windowSec + "s";
+    }
+
+    public void add(long windowEnd, String contentId, long count, long uniqueViewers) {
+        batch.add(windowSec, windowEnd, contentId, count, uniqueViewers);
+    }
+
+    public int size() {
+        return batch.size();
+    }
+
+    /**
+     * Writes pending updates ahead of the commit, e.g. when the batch is full. A failure keeps
+     * them buffered (RankSink has logged it) for the commit to retry.
+     */
+    public void send() {
+        if (batch.isEmpty() || failing) {
+            return;
+        }
+        try {
+            write();
+        } catch (RuntimeException e) {
+            failing = true;
+        }
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Deprecated
+    @Override
+    public void init(org.apache.kafka.streams.processor.ProcessorContext context, StateStore root) {
+        batch.clear();
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        batch.clear();
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    /** Called on every commit before offsets are committed; throws if Redis cannot be written. */
+    @Override
+    public void flush() {
+        if (!batch.isEmpty()) {
+            write();
+        }
+        failing = false;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        batch.clear();
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    private void write() {
+        int entries = batch.size();
+        rankSink.flush(batch);
+        redisUpdatesCounter.increment(entries);
+    }
+}
@@ -0,0 +1,64 @@
+package com.yoordi.rank.sink;
+
+import io.micrometer.core.instrument.Counter;
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.util.Map;
+
+/**
+ * Builds one {@link RankSinkStore} per stream task. Caching and logging are not supported.
+ */
+public class RankSinkStoreBuilder implements StoreBuilder<RankSinkStore> {
+
+    private final String name;
+    private final int windowSec;
+    private final RankSink rankSink;
+    private final Counter redisUpdatesCounter;
+
+    public RankSinkStoreBuilder(String name, int windowSec, RankSink rankSink, Counter redisUpdatesCounter) {
+        this.name = name;
+        this.windowSec = windowSec;
+        this.rankSink = rankSink;
+        this.redisUpdatesCounter = redisUpdatesCounter;
+    }
+
+    @Override
+    public StoreBuilder<RankSinkStore> withCachingEnabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<RankSinkStore> withCachingDisabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<RankSinkStore> withLoggingEnabled(Map<String, String> config) {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<RankSinkStore> withLoggingDisabled() {
+        return this;
+    }
+
+    @Override
+    public RankSinkStore build() {
+        return new RankSinkStore(name, windowSec, rankSink, redisUpdatesCounter);
+    }
+
+    @Override
+    public Map<String, String> logConfig() {
+        return Map.of();
+    }
+
+    @Override
+    public boolean loggingEnabled() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,116 @@
+package com.yoordi.rank.sketch;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Count-Min Sketch over content IDs: {@code depth} rows of {@code width} counters, one per
+ * row hit by each content. Updates are conservative (a row is only raised up to the new
+ * estimate), which keeps the classic guarantee: an estimate never undercounts, and overcounts
+ * by at most {@code e / width * N} with probability {@code 1 - e^-depth}, N being the
+ * number of events added. Memory is {@code 8 * width * depth} bytes whatever the catalogue size.
+ */
+public final class CountMinSketch {
+
+    private final int width;
+    private final int depth;
+    private final int mask;
+    private final long[] table;
+    private long total;
+
+    /** {@code width} is rounded up to a power of two. */
+    public CountMinSketch(int width, int depth) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("width and depth must be positive");
+        }
+        this.width = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = this.width - 1;
+        this.table = new long[this.width * depth];
+    }
+
+    /** Adds {@code count} occurrences and returns the new estimate. */
+    public long add(String item, long count) {
+        int h1 = mix(item.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[slot(row, h1, h2)]);
+        }
+        long estimate = min + count;
+        for (int row = 0; row < depth; row++) {
+            int slot = slot(row, h1, h2);
+            if (table[slot] < estimate) {
+                table[slot] = estimate;
+            }
+        }
+        total += count;
+        return estimate;
+    }
+
+    public long estimate(String item) {
+        int h1 = mix(item.hashCode());
+        int h2 = mix(h1 ^ 0x9E3779B9) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, table[slot(row, h1, h2)]);
+        }
+        return min;
+    }
+
+    /** Events added so far (N). */
+    public long total() {
+        return total;
+    }
+
+    /** Overestimate bound {@code e / width * N}, holding with probability {@link #confidence()}. */
+    public long errorBound() {
+        return (long) Math.ceil(Math.E / width * total);
+    }
+
+    public double confidence() {
+        return 1 - Math.exp(-depth);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    int serializedSize() {
+        return 16 + 8 * table.length;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(width).putInt(depth).putLong(total);
+        for (long counter : table) {
+            buffer.putLong(counter);
+        }
+    }
+
+    static CountMinSketch readFrom(ByteBuffer buffer) {
+        CountMinSketch sketch = new CountMinSketch(buffer.getInt(), buffer.getInt());
+        sketch.total = buffer.getLong();
+        for (int i = 0; i < sketch.table.length; i++) {
+            sketch.table[i] = buffer.getLong();
+        }
+        return sketch;
+    }
+
+    // Row i uses h1 + i * h2 (Kirsch-Mitzenmacher), so one pair of hashes serves every row
+    private int slot(int row, int h1, int h2) {
+        return row * width + ((h1 + row * h2) & mask);
+    }
+
+    // murmur3 fmix32: String.hashCode alone clusters similar IDs in the low bits
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
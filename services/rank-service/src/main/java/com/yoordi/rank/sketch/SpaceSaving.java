@@ -0,0 +1,155 @@
+package com.yoordi.rank.sketch;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters (Metwally et al.) over at most {@code capacity} monitored
+ * contents, kept in an indexed min-heap. An unmonitored content replaces the minimum and
+ * inherits its count as error, so a monitored count overestimates by at most its error,
+ * which is at most {@code N / capacity}; every content seen more than {@code N / capacity}
+ * times is monitored.
+ */
+public final class SpaceSaving {
+
+    public record Counter(String contentId, long count, long error) {}
+
+    private final int capacity;
+    private final String[] ids;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> index;
+    private int size;
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.index = new HashMap<>(capacity * 2);
+    }
+
+    public void offer(String contentId, long count) {
+        Integer pos = index.get(contentId);
+        if (pos != null) {
+            counts[pos] += count;
+            siftDown(pos);
+            return;
+        }
+        if (size < capacity) {
+            ids[size] = contentId;
+            counts[size] = count;
+            errors[size] = 0;
+            index.put(contentId, size);
+            size++;
+            siftUp(size - 1);
+            return;
+        }
+        index.remove(ids[0]);
+        ids[0] = contentId;
+        errors[0] = counts[0];
+        counts[0] += count;
+        index.put(contentId, 0);
+        siftDown(0);
+    }
+
+    /** Monitored counters, unordered. */
+    public List<Counter> counters() {
+        List<Counter> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(new Counter(ids[i], counts[i], errors[i]));
+        }
+        return result;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int serializedSize() {
+        int bytes = 8;
+        for (int i = 0; i < size; i++) {
+            bytes += 4 + ids[i].getBytes(StandardCharsets.UTF_8).length + 16;
+        }
+        return bytes;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(capacity).putInt(size);
+        for (int i = 0; i < size; i++) {
+            byte[] id = ids[i].getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(id.length).put(id).putLong(counts[i]).putLong(errors[i]);
+        }
+    }
+
+    static SpaceSaving readFrom(ByteBuffer buffer) {
+        SpaceSaving summary = new SpaceSaving(buffer.getInt());
+        int size = buffer.getInt();
+        for (int i = 0; i < size; i++) {
+            byte[] id = new byte[buffer.getInt()];
+            buffer.get(id);
+            // Written in heap order, so the heap property holds as read
+            summary.ids[i] = new String(id, StandardCharsets.UTF_8);
+            summary.counts[i] = buffer.getLong();
+            summary.errors[i] = buffer.getLong();
+            summary.index.put(summary.ids[i], i);
+        }
+        summary.size = size;
+        return summary;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[i] >= counts[parent]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String id = ids[a];
+        long count = counts[a];
+        long error = errors[a];
+        ids[a] = ids[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        ids[b] = id;
+        counts[b] = count;
+        errors[b] = error;
+        index.put(ids[a], a);
+        index.put(ids[b], b);
+    }
+}
@@ -0,0 +1,75 @@
+package com.yoordi.rank.sketch;
+
+import com.yoordi.rank.store.RankEntry;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Approximate counts of one window: Space-Saving picks the candidates, the Count-Min Sketch
+ * tightens their counts. Both only overestimate, so the smaller of the two is reported; it
+ * exceeds the true count by at most {@link #errorBound()}.
+ */
+public final class WindowSketch {
+
+    private static final Comparator<RankEntry> BY_COUNT_DESC =
+            Comparator.comparingLong(RankEntry::count).reversed().thenComparing(RankEntry::contentId);
+
+    private final CountMinSketch counts;
+    private final SpaceSaving candidates;
+
+    public WindowSketch(int width, int depth, int capacity) {
+        this(new CountMinSketch(width, depth), new SpaceSaving(capacity));
+    }
+
+    private WindowSketch(CountMinSketch counts, SpaceSaving candidates) {
+        this.counts = counts;
+        this.candidates = candidates;
+    }
+
+    public void add(String contentId) {
+        add(contentId, 1);
+    }
+
+    /** Adds {@code weight} to the content's score; N then counts total weight. */
+    public void add(String contentId, long weight) {
+        counts.add(contentId, weight);
+        candidates.offer(contentId, weight);
+    }
+
+    /** Highest {@code n} estimated counts, ordered by count descending. */
+    public List<RankEntry> top(int n) {
+        List<RankEntry> entries = new ArrayList<>(candidates.size());
+        for (SpaceSaving.Counter c : candidates.counters()) {
+            entries.add(new RankEntry(c.contentId(), Math.min(c.count(), counts.estimate(c.contentId()))));
+        }
+        entries.sort(BY_COUNT_DESC);
+        return n >= entries.size() ? entries : entries.subList(0, n);
+    }
+
+    /**
+     * Largest overestimate of a reported count: {@code N / capacity} always holds, and the
+     * sketch's {@code e / width * N} with probability {@code 1 - e^-depth}.
+     */
+    public long errorBound() {
+        return Math.min(counts.errorBound(), counts.total() / candidates.capacity());
+    }
+
+    public long total() {
+        return counts.total();
+    }
+
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(counts.serializedSize() + candidates.serializedSize());
+        counts.writeTo(buffer);
+        candidates.writeTo(buffer);
+        return buffer.array();
+    }
+
+    public static WindowSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new WindowSketch(CountMinSketch.readFrom(buffer), SpaceSaving.readFrom(buffer));
+    }
+}
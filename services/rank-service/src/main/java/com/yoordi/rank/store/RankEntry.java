@@ -0,0 +1,6 @@
+package com.yoordi.rank.store;
+
+public record RankEntry(
+        String contentId,
+        long count
+) {}
@@ -0,0 +1,21 @@
+package com.yoordi.rank.store;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Read view of the per-window top-K store, as exposed through Interactive Queries.
+ */
+public interface ReadOnlyTopKStore {
+
+    /** End (epoch millis) of the newest window held locally. */
+    OptionalLong latestWindowEnd();
+
+    /**
+     * Highest {@code n} entries of the window ending at {@code windowEnd}.
+     * Empty when the local store cannot answer exactly, e.g. the window was only
+     * partially observed since start-up or {@code n} exceeds the tracked K.
+     */
+    Optional<List<RankEntry>> top(long windowEnd, int n);
+}
@@ -0,0 +1,138 @@
+package com.yoordi.rank.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded top-K of one window: an indexed min-heap over the K highest counts.
+ * Every offer carries the content's absolute window count, so a content evicted
+ * earlier re-enters as soon as it overtakes the current minimum and the result stays exact.
+ */
+public class TopK {
+
+    private static final Comparator<RankEntry> BY_COUNT_DESC =
+            Comparator.comparingLong(RankEntry::count).reversed().thenComparing(RankEntry::contentId);
+
+    private final int capacity;
+    private final String[] ids;
+    private final long[] counts;
+    private final Map<String, Integer> index;
+    private int size;
+
+    // Sorted view handed to readers, rebuilt lazily after a change
+    private List<RankEntry> sorted = List.of();
+    private boolean dirty;
+
+    public TopK(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new String[capacity];
+        this.counts = new long[capacity];
+        this.index = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String contentId, long count) {
+        Integer pos = index.get(contentId);
+        if (pos != null) {
+            long previous = counts[pos];
+            counts[pos] = count;
+            if (count > previous) {
+                siftDown(pos);
+            } else if (count < previous) {
+                siftUp(pos);
+            }
+            dirty = true;
+            return;
+        }
+        if (size < capacity) {
+            ids[size] = contentId;
+            counts[size] = count;
+            index.put(contentId, size);
+            size++;
+            siftUp(size - 1);
+            dirty = true;
+            return;
+        }
+        if (count <= counts[0]) {
+            return;
+        }
+        index.remove(ids[0]);
+        ids[0] = contentId;
+        counts[0] = count;
+        index.put(contentId, 0);
+        siftDown(0);
+        dirty = true;
+    }
+
+    /** Highest {@code n} entries, ordered by count descending. */
+    public synchronized List<RankEntry> top(int n) {
+        if (dirty) {
+            List<RankEntry> entries = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                entries.add(new RankEntry(ids[i], counts[i]));
+            }
+            entries.sort(BY_COUNT_DESC);
+            sorted = List.copyOf(entries);
+            dirty = false;
+        }
+        return n >= sorted.size() ? sorted : sorted.subList(0, n);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    static Comparator<RankEntry> byCountDesc() {
+        return BY_COUNT_DESC;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[i] >= counts[parent]) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String id = ids[a];
+        long count = counts[a];
+        ids[a] = ids[b];
+        counts[a] = counts[b];
+        ids[b] = id;
+        counts[b] = count;
+        index.put(ids[a], a);
+        index.put(ids[b], b);
+    }
+}
@@ -0,0 +1,116 @@
+package com.yoordi.rank.store;
+
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.processor.StateStoreContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory state store holding a bounded {@link TopK} per window end for one stream task.
+ * Not changelogged: after a restart or rebalance it refills from the count stream, and
+ * windows it only saw partially are reported as unanswerable so callers fall back to Redis.
+ */
+public class TopKStore implements StateStore, ReadOnlyTopKStore {
+
+    private final String name;
+    private final int capacity;
+    private final int retainWindows;
+    private final boolean finalResults;
+    private final ConcurrentSkipListMap<Long, TopK> windows = new ConcurrentSkipListMap<>();
+
+    // Windows ending after this are fully covered; Long.MAX_VALUE until the first update
+    private volatile long completeAfter = Long.MAX_VALUE;
+    private volatile boolean open;
+
+    public TopKStore(String name, int capacity, int retainWindows, boolean finalResults) {
+        this.name = name;
+        this.capacity = capacity;
+        this.retainWindows = Math.max(1, retainWindows);
+        this.finalResults = finalResults;
+    }
+
+    public static String storeName(int windowSec) {
+        return "rank-topk-" + windowSec + "s";
+    }
+
+    public void update(long windowEnd, String contentId, long count) {
+        if (completeAfter == Long.MAX_VALUE) {
+            // Final results carry every content of the window; otherwise the first window seen may be partial
+            completeAfter = finalResults ? Long.MIN_VALUE : windowEnd;
+        }
+        windows.computeIfAbsent(windowEnd, k -> new TopK(capacity)).offer(contentId, count);
+        while (windows.size() > retainWindows) {
+            windows.pollFirstEntry();
+        }
+    }
+
+    @Override
+    public OptionalLong latestWindowEnd() {
+        Map.Entry<Long, TopK> last = windows.lastEntry();
+        return last == null ? OptionalLong.empty() : OptionalLong.of(last.getKey());
+    }
+
+    @Override
+    public Optional<List<RankEntry>> top(long windowEnd, int n) {
+        if (n > capacity || windowEnd <= completeAfter) {
+            return Optional.empty();
+        }
+        TopK topK = windows.get(windowEnd);
+        if (topK == null) {
+            // Covered but nothing hashed to this task, or already evicted
+            Long oldest = windows.isEmpty() ? null : windows.firstKey();
+            return oldest != null && windowEnd < oldest ? Optional.empty() : Optional.of(List.of());
+        }
+        return Optional.of(topK.top(n));
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Deprecated
+    @Override
+    public void init(org.apache.kafka.streams.processor.ProcessorContext context, StateStore root) {
+        reset();
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    @Override
+    public void init(StateStoreContext context, StateStore root) {
+        reset();
+        context.register(root, (key, value) -> { });
+        open = true;
+    }
+
+    @Override
+    public void flush() {
+        // Nothing to persist
+    }
+
+    @Override
+    public void close() {
+        open = false;
+        reset();
+    }
+
+    @Override
+    public boolean persistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    private void reset() {
+        windows.clear();
+        completeAfter = Long.MAX_VALUE;
+    }
+}
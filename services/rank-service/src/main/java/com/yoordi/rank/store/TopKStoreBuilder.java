@@ -0,0 +1,63 @@
+package com.yoordi.rank.store;
+
+import org.apache.kafka.streams.state.StoreBuilder;
+
+import java.util.Map;
+
+/**
+ * Builds one {@link TopKStore} per stream task. Caching and logging are not supported.
+ */
+public class TopKStoreBuilder implements StoreBuilder<TopKStore> {
+
+    private final String name;
+    private final int capacity;
+    private final int retainWindows;
+    private final boolean finalResults;
+
+    public TopKStoreBuilder(String name, int capacity, int retainWindows, boolean finalResults) {
+        this.name = name;
+        this.capacity = capacity;
+        this.retainWindows = retainWindows;
+        this.finalResults = finalResults;
+    }
+
+    @Override
+    public StoreBuilder<TopKStore> withCachingEnabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<TopKStore> withCachingDisabled() {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<TopKStore> withLoggingEnabled(Map<String, String> config) {
+        return this;
+    }
+
+    @Override
+    public StoreBuilder<TopKStore> withLoggingDisabled() {
+        return this;
+    }
+
+    @Override
+    public TopKStore build() {
+        return new TopKStore(name, capacity, retainWindows, finalResults);
+    }
+
+    @Override
+    public Map<String, String> logConfig() {
+        return Map.of();
+    }
+
+    @Override
+    public boolean loggingEnabled() {
+        return false;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,58 @@
+package com.yoordi.rank.store;
+
+import org.apache.kafka.streams.processor.StateStore;
+import org.apache.kafka.streams.state.QueryableStoreType;
+import org.apache.kafka.streams.state.internals.StateStoreProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+/**
+ * Interactive Queries type for {@link TopKStore}. The returned view merges the stores of
+ * all local tasks; content IDs are partitioned by key, so merging per-task top-K is exact.
+ */
+public class TopKStoreType implements QueryableStoreType<ReadOnlyTopKStore> {
+
+    @Override
+    public boolean accepts(StateStore stateStore) {
+        return stateStore instanceof TopKStore;
+    }
+
+    @Override
+    public ReadOnlyTopKStore create(StateStoreProvider storeProvider, String storeName) {
+        return new CompositeView(storeProvider, storeName, this);
+    }
+
+    private record CompositeView(StateStoreProvider provider, String storeName, TopKStoreType type)
+            implements ReadOnlyTopKStore {
+
+        @Override
+        public OptionalLong latestWindowEnd() {
+            return provider.stores(storeName, type).stream()
+                    .map(ReadOnlyTopKStore::latestWindowEnd)
+                    .filter(OptionalLong::isPresent)
+                    .mapToLong(OptionalLong::getAsLong)
+                    .max();
+        }
+
+        @Override
+        public Optional<List<RankEntry>> top(long windowEnd, int n) {
+            List<ReadOnlyTopKStore> stores = provider.stores(storeName, type);
+            if (stores.size() == 1) {
+                return stores.get(0).top(windowEnd, n);
+            }
+            List<RankEntry> merged = new ArrayList<>();
+            for (ReadOnlyTopKStore store : stores) {
+                Optional<List<RankEntry>> part = store.top(windowEnd, n);
+                if (part.isEmpty()) {
+                    return Optional.empty();
+                }
+                merged.addAll(part.get());
+            }
+            merged.sort(TopK.byCountDesc());
+            return Optional.of(merged.size() > n ? merged.subList(0, n) : merged);
+        }
+    }
+}
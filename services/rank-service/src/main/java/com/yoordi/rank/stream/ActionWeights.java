@@ -0,0 +1,67 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+
+import java.util.Arrays;
+
+/**
+ * Integer score per action, e.g. {@code view=1,like=5}. Integer weights keep scores exact
+ * and let them flow through the same {@code long} pipeline as plain counts; with every
+ * weight at 1 the score is the event count.
+ */
+final class ActionWeights {
+
+    private static final Action[] ACTIONS = Action.values();
+
+    private final long[] weights;
+
+    private ActionWeights(long[] weights) {
+        this.weights = weights;
+    }
+
+    static ActionWeights uniform() {
+        long[] weights = new long[ACTIONS.length];
+        Arrays.fill(weights, 1);
+        return new ActionWeights(weights);
+    }
+
+    // Format: "view=1,like=5"; unlisted actions weigh 1
+    static ActionWeights parse(String config) {
+        ActionWeights result = uniform();
+        if (config == null || config.isBlank()) {
+            return result;
+        }
+        for (String entry : config.split(",")) {
+            String[] parts = entry.trim().split("=");
+            Action action = parts.length == 2 ? Action.find(parts[0].trim()) : null;
+            if (action == null) {
+                throw new IllegalArgumentException("Invalid action weight entry: " + entry);
+            }
+            long weight = Long.parseLong(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Action weight must not be negative: " + entry);
+            }
+            result.weights[action.ordinal()] = weight;
+        }
+        return result;
+    }
+
+    long weight(Action action) {
+        // Events without an action count as views, as plain counting did
+        return weights[(action == null ? Action.VIEW : action).ordinal()];
+    }
+
+    long weight(EventDto event) {
+        return weight(event.props() == null ? null : event.props().action());
+    }
+
+    /** Score of per-action event counts indexed by {@link Action#ordinal()}. */
+    long score(long[] countsByAction) {
+        long score = 0;
+        for (int i = 0; i < countsByAction.length && i < weights.length; i++) {
+            score += countsByAction[i] * weights[i];
+        }
+        return score;
+    }
+}
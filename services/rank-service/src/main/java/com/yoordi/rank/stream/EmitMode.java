@@ -0,0 +1,23 @@
+package com.yoordi.rank.stream;
+
+import java.util.Locale;
+
+/**
+ * How windowed counts are emitted downstream to the Redis sink.
+ */
+enum EmitMode {
+    /** Every count change is forwarded (subject to record caching). */
+    UPDATE,
+    /** A single result per key once the window (plus grace) has closed. */
+    FINAL,
+    /** The latest count per key at most once per early-emit interval, stream-time based. */
+    EARLY;
+
+    static EmitMode parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid emit mode: " + value + " (expected update, final or early)");
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.rank.sketch.HyperLogLog;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed binary layout for {@link EngagementScore}: action count, the per-action counts and
+ * anonymous counts, a tracked flag, then per action a presence flag and the user sketch; all
+ * big-endian. No boxing and no field names on the wire.
+ */
+class EngagementScoreSerde implements Serde<EngagementScore> {
+
+    @Override
+    public Serializer<EngagementScore> serializer() {
+        return (topic, score) -> {
+            if (score == null) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(sizeOf(score));
+            write(buffer, score);
+            return buffer.array();
+        };
+    }
+
+    @Override
+    public Deserializer<EngagementScore> deserializer() {
+        return (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            try {
+                return read(ByteBuffer.wrap(data));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new SerializationException("Malformed engagement score", e);
+            }
+        };
+    }
+
+    static int sizeOf(EngagementScore score) {
+        int size = 5 + 16 * score.counts.length;
+        if (score.users != null) {
+            for (HyperLogLog hll : score.users) {
+                size += 1 + (hll == null ? 0 : hll.serializedSize());
+            }
+        }
+        return size;
+    }
+
+    static void write(ByteBuffer buffer, EngagementScore score) {
+        buffer.putInt(score.counts.length);
+        for (int i = 0; i < score.counts.length; i++) {
+            buffer.putLong(score.counts[i]).putLong(score.anonymous[i]);
+        }
+        buffer.put((byte) (score.users == null ? 0 : 1));
+        if (score.users != null) {
+            for (HyperLogLog hll : score.users) {
+                buffer.put((byte) (hll == null ? 0 : 1));
+                if (hll != null) {
+                    hll.writeTo(buffer);
+                }
+            }
+        }
+    }
+
+    static EngagementScore read(ByteBuffer buffer) {
+        // Sized for the current actions; data of actions no longer known is dropped
+        long[] counts = new long[EngagementScore.ACTIONS];
+        long[] anonymous = new long[EngagementScore.ACTIONS];
+        int actions = buffer.getInt();
+        for (int i = 0; i < actions; i++) {
+            long count = buffer.getLong();
+            long anon = buffer.getLong();
+            if (i < counts.length) {
+                counts[i] = count;
+                anonymous[i] = anon;
+            }
+        }
+        HyperLogLog[] users = null;
+        if (buffer.get() != 0) {
+            users = new HyperLogLog[EngagementScore.ACTIONS];
+            for (int i = 0; i < actions; i++) {
+                HyperLogLog hll = buffer.get() != 0 ? HyperLogLog.readFrom(buffer) : null;
+                if (i < users.length) {
+                    users[i] = hll;
+                }
+            }
+        }
+        return new EngagementScore(counts, anonymous, users);
+    }
+}
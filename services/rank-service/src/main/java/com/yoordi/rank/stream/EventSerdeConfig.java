@@ -0,0 +1,35 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.event.EventSerdes;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import org.apache.kafka.common.serialization.Serde;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+public class EventSerdeConfig {
+
+    @Bean
+    public SchemaRegistry schemaRegistry(@Value("${events.wire.registryDir}") String registryDir) {
+        return new FileSchemaRegistry(Path.of(registryDir));
+    }
+
+    @Bean
+    public Serde<EventDto> pageViewSerde(SchemaRegistry schemaRegistry) {
+        return pageViewSerde(schemaRegistry, WireFormat.JSON);
+    }
+
+    /**
+     * Reads both JSON and Avro page views (chosen per record by the format header);
+     * {@code writeFormat} only matters if the topology ever writes events back out.
+     */
+    static Serde<EventDto> pageViewSerde(SchemaRegistry schemaRegistry, WireFormat writeFormat) {
+        return EventSerdes.serde(writeFormat, schemaRegistry);
+    }
+}
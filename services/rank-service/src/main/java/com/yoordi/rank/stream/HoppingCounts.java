@@ -0,0 +1,148 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.rank.store.RankEntry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Per-content totals of a hopping window, kept incrementally. Events land in hop-sized
+ * buckets of a ring; closing a hop adds its bucket to the totals and subtracts the bucket
+ * that just left the window, so each hop costs the contents of two buckets rather than a
+ * merge of every bucket in the window. Buckets newer than the last closed hop (still inside
+ * the grace period) are held in the ring without touching the totals.
+ */
+class HoppingCounts {
+
+    private static final Comparator<RankEntry> BY_COUNT_DESC =
+            Comparator.comparingLong(RankEntry::count).reversed().thenComparing(RankEntry::contentId);
+
+    private final int windowBuckets;
+    private final Map<String, Integer>[] ring;
+    private final long[] ringEpochs;
+    private final Map<String, Long> totals = new HashMap<>();
+    // Last bucket folded into the totals; Long.MIN_VALUE until the first event
+    private long closedEpoch = Long.MIN_VALUE;
+
+    @SuppressWarnings("unchecked")
+    HoppingCounts(int windowBuckets, int pendingBuckets) {
+        this.windowBuckets = windowBuckets;
+        int size = windowBuckets + pendingBuckets + 1;
+        this.ring = new Map[size];
+        this.ringEpochs = new long[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new HashMap<>();
+            ringEpochs[i] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Counts {@code count} events of bucket {@code epoch}. Returns the bucket's new count
+     * for the content, or -1 when the bucket already left the window.
+     */
+    int add(long epoch, String contentId, int count) {
+        if (closedEpoch == Long.MIN_VALUE) {
+            closedEpoch = epoch - 1;
+        }
+        if (epoch <= closedEpoch - windowBuckets || epoch > closedEpoch + ring.length - windowBuckets) {
+            return -1;
+        }
+        Map<String, Integer> bucket = bucket(epoch);
+        int updated = bucket.merge(contentId, count, Integer::sum);
+        if (epoch <= closedEpoch) {
+            // Late but still inside the window: hops not closed yet include it
+            totals.merge(contentId, (long) count, Long::sum);
+        }
+        return updated;
+    }
+
+    /**
+     * Closes the hop ending after bucket {@code epoch}: folds that bucket in and drops the
+     * one that falls out of the window.
+     */
+    void close(long epoch) {
+        Map<String, Integer> entering = ring[slot(epoch)];
+        if (ringEpochs[slot(epoch)] == epoch) {
+            entering.forEach((id, c) -> totals.merge(id, (long) c, Long::sum));
+        }
+        long leavingEpoch = epoch - windowBuckets;
+        int leaving = slot(leavingEpoch);
+        if (ringEpochs[leaving] == leavingEpoch) {
+            ring[leaving].forEach((id, c) -> totals.computeIfPresent(id, (k, t) -> t <= c ? null : t - c));
+            ring[leaving].clear();
+            ringEpochs[leaving] = Long.MIN_VALUE;
+        }
+        closedEpoch = epoch;
+    }
+
+    long closedEpoch() {
+        return closedEpoch;
+    }
+
+    boolean isEmpty() {
+        if (!totals.isEmpty()) {
+            return false;
+        }
+        for (long e : ringEpochs) {
+            if (e != Long.MIN_VALUE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Restarts at {@code epoch} with nothing counted, e.g. after a gap longer than the window. */
+    void reset(long epoch) {
+        for (int i = 0; i < ring.length; i++) {
+            ring[i].clear();
+            ringEpochs[i] = Long.MIN_VALUE;
+        }
+        totals.clear();
+        closedEpoch = epoch;
+    }
+
+    /** Content IDs of bucket {@code epoch}, if it is still in the ring. */
+    Map<String, Integer> bucketContents(long epoch) {
+        int slot = slot(epoch);
+        return ringEpochs[slot] == epoch ? ring[slot] : Map.of();
+    }
+
+    /** Highest {@code n} totals of the last closed hop, ordered by count descending. */
+    List<RankEntry> top(int n) {
+        // Bounded min-heap: the weakest of the current top n sits at the head
+        PriorityQueue<RankEntry> heap = new PriorityQueue<>(n + 1, BY_COUNT_DESC.reversed());
+        totals.forEach((contentId, count) -> {
+            if (heap.size() < n) {
+                heap.add(new RankEntry(contentId, count));
+            } else if (count > heap.peek().count()
+                    || (count == heap.peek().count() && contentId.compareTo(heap.peek().contentId()) < 0)) {
+                heap.poll();
+                heap.add(new RankEntry(contentId, count));
+            }
+        });
+        List<RankEntry> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private Map<String, Integer> bucket(long epoch) {
+        int slot = slot(epoch);
+        if (ringEpochs[slot] != epoch) {
+            ring[slot].clear();
+            ringEpochs[slot] = epoch;
+        }
+        return ring[slot];
+    }
+
+    private int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring.length);
+    }
+}
@@ -0,0 +1,141 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.rank.store.RankEntry;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hopping-window ranking (e.g. 300s advancing every 10s) from {@link HoppingCounts}. When
+ * stream time passes a hop end plus grace, the window ending there is complete and its top
+ * entries are forwarded as windowed counts, so the sink writes one ready ZSET per hop and
+ * queries read it as is. Bucket counts are mirrored into a changelogged store and rebuilt
+ * from it on restore.
+ */
+class HoppingRankProcessor implements Processor<String, EventDto, Windowed<String>, Long> {
+
+    private static final Logger logger = LoggerFactory.getLogger(HoppingRankProcessor.class);
+    private static final String CLOSED_KEY = "#closed";
+
+    private final String storeName;
+    private final long windowMs;
+    private final long hopMs;
+    private final long graceMs;
+    private final int windowBuckets;
+    private final int emitTop;
+    private final ActionWeights weights;
+    private final HoppingCounts counts;
+
+    private ProcessorContext<Windowed<String>, Long> context;
+    private KeyValueStore<String, Long> store;
+    private long streamTime = Long.MIN_VALUE;
+
+    HoppingRankProcessor(String storeName, int windowSec, int hopSec, Duration grace, int emitTop, ActionWeights weights) {
+        this.storeName = storeName;
+        this.windowMs = windowSec * 1000L;
+        this.hopMs = hopSec * 1000L;
+        this.graceMs = grace.toMillis();
+        this.windowBuckets = windowSec / hopSec;
+        this.emitTop = emitTop;
+        this.weights = weights;
+        this.counts = new HoppingCounts(windowBuckets, (int) ((graceMs + hopMs - 1) / hopMs));
+    }
+
+    static String storeName(int windowSec, int hopSec) {
+        return "rank-hop-" + windowSec + "s-" + hopSec + "s";
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, Long> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        Long closed = store.get(CLOSED_KEY);
+        if (closed == null) {
+            return;
+        }
+        counts.reset(closed);
+        List<String> expired = new ArrayList<>();
+        try (KeyValueIterator<String, Long> it = store.all()) {
+            it.forEachRemaining(kv -> {
+                int sep = kv.key.indexOf('|');
+                if (sep > 0 && counts.add(Long.parseLong(kv.key.substring(0, sep)), kv.key.substring(sep + 1),
+                                          kv.value.intValue()) < 0) {
+                    expired.add(kv.key);
+                }
+            });
+        }
+        expired.forEach(store::delete);
+    }
+
+    @Override
+    public void process(Record<String, EventDto> record) {
+        if (record.key() == null) {
+            return;
+        }
+        long ts = record.timestamp();
+        streamTime = Math.max(streamTime, ts);
+        closeHops();
+
+        int weight = (int) weights.weight(record.value());
+        if (weight == 0) {
+            return;
+        }
+        long epoch = Math.floorDiv(ts, hopMs);
+        boolean first = counts.closedEpoch() == Long.MIN_VALUE;
+        int bucketCount = counts.add(epoch, record.key(), weight);
+        if (bucketCount < 0) {
+            logger.debug("Dropping late event: contentId={}, ts={}, streamTime={}", record.key(), ts, streamTime);
+            return;
+        }
+        store.put(bucketKey(epoch, record.key()), (long) bucketCount);
+        if (first) {
+            store.put(CLOSED_KEY, counts.closedEpoch());
+        }
+    }
+
+    private void closeHops() {
+        long closed = counts.closedEpoch();
+        if (closed == Long.MIN_VALUE) {
+            return;
+        }
+        long last = Math.floorDiv(streamTime - graceMs, hopMs) - 1;
+        for (long epoch = closed + 1; epoch <= last; epoch++) {
+            if (counts.isEmpty()) {
+                // Nothing left in the ring: skip the idle hops
+                counts.reset(last);
+                break;
+            }
+            long leaving = epoch - windowBuckets;
+            for (String contentId : counts.bucketContents(leaving).keySet()) {
+                store.delete(bucketKey(leaving, contentId));
+            }
+            counts.close(epoch);
+            forward(epoch);
+        }
+        if (counts.closedEpoch() != closed) {
+            store.put(CLOSED_KEY, counts.closedEpoch());
+        }
+    }
+
+    private void forward(long epoch) {
+        long end = (epoch + 1) * hopMs;
+        RankWindow window = new RankWindow(end - windowMs, end);
+        for (RankEntry entry : counts.top(emitTop)) {
+            context.forward(new Record<>(new Windowed<>(entry.contentId(), window), entry.count(), end - 1));
+        }
+    }
+
+    private static String bucketKey(long epoch, String contentId) {
+        return epoch + "|" + contentId;
+    }
+}
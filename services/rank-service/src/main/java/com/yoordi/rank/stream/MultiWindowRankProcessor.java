@@ -0,0 +1,220 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.EventDto;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Exact windowed scores for every tumbling window size in one pass: each event reads its
+ * content's {@link MultiWindowScores} once, adds itself to the current window of every size
+ * and writes the value back, so N window sizes cost one store read, one write and one
+ * changelog record instead of N of each. Windows are epoch-aligned like the DSL's tumbling
+ * windows, so the sizes share boundaries: every 60s window starts where a 10s window does.
+ *
+ * <p>Output matches the per-window DSL branches: update mode forwards every change, early
+ * mode the changed contents every early-emit interval, final mode each window once when
+ * stream time passes its end plus grace. An in-memory index of open windows, rebuilt from
+ * the store on restore, finds the contents to close without scanning the store.
+ */
+class MultiWindowRankProcessor implements Processor<String, EventDto, Windowed<String>, WindowCount> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiWindowRankProcessor.class);
+
+    static final String STORE_NAME = "rank-scores-multi";
+
+    private final int[] windowSec;
+    private final long[] sizeMs;
+    private final EmitMode[] modes;
+    private final long graceMs;
+    private final Duration earlyEmitInterval;
+    private final ActionWeights weights;
+    private final boolean dedupUsers;
+    private final boolean trackUsers;
+    // Per window size: window start -> contents with an entry in that window
+    private final List<TreeMap<Long, Set<String>>> open;
+    // Per window size (early mode): contents changed since the last emission
+    private final List<Set<String>> dirty;
+
+    private ProcessorContext<Windowed<String>, WindowCount> context;
+    private KeyValueStore<String, MultiWindowScores> store;
+    private long streamTime = Long.MIN_VALUE;
+
+    MultiWindowRankProcessor(List<Integer> windowSeconds, Map<Integer, EmitMode> emitModes, Duration grace,
+                             Duration earlyEmitInterval, ActionWeights weights, boolean dedupUsers, boolean trackUsers) {
+        int n = windowSeconds.size();
+        this.windowSec = new int[n];
+        this.sizeMs = new long[n];
+        this.modes = new EmitMode[n];
+        this.open = new ArrayList<>(n);
+        this.dirty = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            windowSec[i] = windowSeconds.get(i);
+            sizeMs[i] = windowSec[i] * 1000L;
+            modes[i] = emitModes.getOrDefault(windowSec[i], EmitMode.UPDATE);
+            open.add(new TreeMap<>());
+            dirty.add(new HashSet<>());
+        }
+        this.graceMs = grace.toMillis();
+        this.earlyEmitInterval = earlyEmitInterval;
+        this.weights = weights;
+        this.dedupUsers = dedupUsers;
+        this.trackUsers = trackUsers;
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, WindowCount> context) {
+        this.context = context;
+        this.store = context.getStateStore(STORE_NAME);
+        Map<String, MultiWindowScores> stale = new HashMap<>();
+        try (KeyValueIterator<String, MultiWindowScores> it = store.all()) {
+            it.forEachRemaining(kv -> {
+                // Entries of window sizes no longer configured are dropped
+                if (kv.value.entries().removeIf(e -> indexOf(e.windowSec()) < 0)) {
+                    stale.put(kv.key, kv.value);
+                }
+                for (MultiWindowScores.Entry e : kv.value.entries()) {
+                    open.get(indexOf(e.windowSec())).computeIfAbsent(e.start(), s -> new HashSet<>()).add(kv.key);
+                }
+            });
+        }
+        stale.forEach((contentId, scores) -> {
+            if (scores.isEmpty()) {
+                store.delete(contentId);
+            } else {
+                store.put(contentId, scores);
+            }
+        });
+        for (EmitMode mode : modes) {
+            if (mode == EmitMode.EARLY) {
+                context.schedule(earlyEmitInterval, PunctuationType.WALL_CLOCK_TIME, ts -> emitEarly());
+                break;
+            }
+        }
+    }
+
+    @Override
+    public void process(Record<String, EventDto> record) {
+        String contentId = record.key();
+        if (contentId == null || record.value() == null) {
+            return;
+        }
+        long ts = record.timestamp();
+        streamTime = Math.max(streamTime, ts);
+        closeWindows();
+
+        MultiWindowScores scores = store.get(contentId);
+        if (scores == null) {
+            scores = new MultiWindowScores();
+        }
+        boolean changed = false;
+        for (int i = 0; i < windowSec.length; i++) {
+            long start = ts - Math.floorMod(ts, sizeMs[i]);
+            if (start + sizeMs[i] + graceMs <= streamTime) {
+                logger.debug("Dropping late event: windowSec={}, contentId={}, ts={}, streamTime={}",
+                             windowSec[i], contentId, ts, streamTime);
+                continue;
+            }
+            EngagementScore score = scores.get(windowSec[i], start);
+            if (score == null) {
+                score = trackUsers ? EngagementScore.tracked() : new EngagementScore();
+                scores.put(windowSec[i], start, score);
+                open.get(i).computeIfAbsent(start, s -> new HashSet<>()).add(contentId);
+            }
+            score.add(record.value());
+            changed = true;
+        }
+        if (!changed) {
+            return;
+        }
+        store.put(contentId, scores);
+
+        for (int i = 0; i < windowSec.length; i++) {
+            if (modes[i] == EmitMode.UPDATE) {
+                long start = ts - Math.floorMod(ts, sizeMs[i]);
+                EngagementScore score = scores.get(windowSec[i], start);
+                if (score != null) {
+                    forward(contentId, i, start, score, ts);
+                }
+            } else if (modes[i] == EmitMode.EARLY) {
+                dirty.get(i).add(contentId);
+            }
+        }
+    }
+
+    // Removes every window whose end plus grace stream time has passed, emitting it if final
+    private void closeWindows() {
+        for (int i = 0; i < windowSec.length; i++) {
+            TreeMap<Long, Set<String>> windows = open.get(i);
+            while (!windows.isEmpty() && windows.firstKey() + sizeMs[i] + graceMs <= streamTime) {
+                Map.Entry<Long, Set<String>> closed = windows.pollFirstEntry();
+                long start = closed.getKey();
+                for (String contentId : closed.getValue()) {
+                    MultiWindowScores scores = store.get(contentId);
+                    EngagementScore score = scores == null ? null : scores.remove(windowSec[i], start);
+                    if (score == null) {
+                        continue;
+                    }
+                    if (modes[i] == EmitMode.FINAL || (modes[i] == EmitMode.EARLY && dirty.get(i).contains(contentId))) {
+                        forward(contentId, i, start, score, start + sizeMs[i] - 1);
+                    }
+                    if (scores.isEmpty()) {
+                        store.delete(contentId);
+                    } else {
+                        store.put(contentId, scores);
+                    }
+                }
+            }
+        }
+    }
+
+    private void emitEarly() {
+        for (int i = 0; i < windowSec.length; i++) {
+            if (modes[i] != EmitMode.EARLY || dirty.get(i).isEmpty()) {
+                continue;
+            }
+            for (String contentId : dirty.get(i)) {
+                MultiWindowScores scores = store.get(contentId);
+                if (scores == null) {
+                    continue;
+                }
+                for (MultiWindowScores.Entry e : scores.entries()) {
+                    if (e.windowSec() == windowSec[i]) {
+                        forward(contentId, i, e.start(), e.score(), Math.min(streamTime, e.start() + sizeMs[i] - 1));
+                    }
+                }
+            }
+            dirty.get(i).clear();
+        }
+    }
+
+    private void forward(String contentId, int window, long start, EngagementScore score, long ts) {
+        RankWindow timeWindow = new RankWindow(start, start + sizeMs[window]);
+        WindowCount count = new WindowCount(score.score(weights, dedupUsers), score.uniqueViewers());
+        context.forward(new Record<>(new Windowed<>(contentId, timeWindow), count, ts));
+    }
+
+    private int indexOf(int windowSeconds) {
+        for (int i = 0; i < windowSec.length; i++) {
+            if (windowSec[i] == windowSeconds) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
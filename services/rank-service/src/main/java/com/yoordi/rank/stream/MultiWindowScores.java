@@ -0,0 +1,56 @@
+package com.yoordi.rank.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * All open windows of one content across the configured window sizes, stored as one value so
+ * an event reads and writes its content once however many windows it falls into. Usually one
+ * entry per size; more only while an older window waits out its grace period.
+ */
+final class MultiWindowScores {
+
+    record Entry(int windowSec, long start, EngagementScore score) {}
+
+    private final List<Entry> entries;
+
+    MultiWindowScores() {
+        this(new ArrayList<>(4));
+    }
+
+    MultiWindowScores(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    EngagementScore get(int windowSec, long start) {
+        for (Entry e : entries) {
+            if (e.windowSec() == windowSec && e.start() == start) {
+                return e.score();
+            }
+        }
+        return null;
+    }
+
+    void put(int windowSec, long start, EngagementScore score) {
+        entries.add(new Entry(windowSec, start, score));
+    }
+
+    EngagementScore remove(int windowSec, long start) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry e = entries.get(i);
+            if (e.windowSec() == windowSec && e.start() == start) {
+                entries.remove(i);
+                return e.score();
+            }
+        }
+        return null;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    List<Entry> entries() {
+        return entries;
+    }
+}
@@ -0,0 +1,60 @@
+package com.yoordi.rank.stream;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout for {@link MultiWindowScores}: entry count, then per entry the window size in
+ * seconds, the window start and the {@link EngagementScoreSerde} layout of its score.
+ */
+class MultiWindowScoresSerde implements Serde<MultiWindowScores> {
+
+    @Override
+    public Serializer<MultiWindowScores> serializer() {
+        return (topic, scores) -> {
+            if (scores == null) {
+                return null;
+            }
+            int size = 4;
+            for (MultiWindowScores.Entry e : scores.entries()) {
+                size += 12 + EngagementScoreSerde.sizeOf(e.score());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            buffer.putInt(scores.entries().size());
+            for (MultiWindowScores.Entry e : scores.entries()) {
+                buffer.putInt(e.windowSec()).putLong(e.start());
+                EngagementScoreSerde.write(buffer, e.score());
+            }
+            return buffer.array();
+        };
+    }
+
+    @Override
+    public Deserializer<MultiWindowScores> deserializer() {
+        return (topic, data) -> {
+            if (data == null) {
+                return null;
+            }
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+                int count = buffer.getInt();
+                List<MultiWindowScores.Entry> entries = new ArrayList<>(Math.max(4, count));
+                for (int i = 0; i < count; i++) {
+                    int windowSec = buffer.getInt();
+                    long start = buffer.getLong();
+                    entries.add(new MultiWindowScores.Entry(windowSec, start, EngagementScoreSerde.read(buffer)));
+                }
+                return new MultiWindowScores(entries);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new SerializationException("Malformed multi-window scores", e);
+            }
+        };
+    }
+}
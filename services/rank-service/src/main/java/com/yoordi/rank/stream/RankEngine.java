@@ -0,0 +1,21 @@
+package com.yoordi.rank.stream;
+
+import java.util.Locale;
+
+/**
+ * How per-window content counts are computed.
+ */
+enum RankEngine {
+    /** Exact count per content in a windowed state store; state grows with the catalogue. */
+    EXACT,
+    /** Count-Min Sketch plus Space-Saving per window; bounded state, counts within a known error. */
+    SKETCH;
+
+    static RankEngine parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid rank engine: " + value + " (expected exact or sketch)");
+        }
+    }
+}
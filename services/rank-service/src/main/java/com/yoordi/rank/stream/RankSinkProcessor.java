@@ -0,0 +1,62 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.rank.sink.RankSinkStore;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+/**
+ * Buffers windowed counts (and unique viewer estimates) in the task's {@link RankSinkStore}.
+ * Redis is written early when the batch is full or on a wall-clock interval, to keep it fresh;
+ * the store writes whatever is still pending on commit, before the offsets are committed.
+ */
+class RankSinkProcessor implements Processor<Windowed<String>, WindowCount, Void, Void> {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankSinkProcessor.class);
+
+    private final String storeName;
+    private final int windowSec;
+    private final EmitMode emitMode;
+    private final int batchSize;
+    private final Duration flushInterval;
+
+    private RankSinkStore store;
+
+    RankSinkProcessor(String storeName, int windowSec, EmitMode emitMode, int batchSize, Duration flushInterval) {
+        this.storeName = storeName;
+        this.windowSec = windowSec;
+        this.emitMode = emitMode;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        store = context.getStateStore(storeName);
+        context.schedule(flushInterval, PunctuationType.WALL_CLOCK_TIME, ts -> store.send());
+    }
+
+    @Override
+    public void process(Record<Windowed<String>, WindowCount> record) {
+        String contentId = record.key().key();
+        long windowEnd = record.key().window().end();
+        long count = record.value().count();
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}: windowSec={}, windowEnd={}, contentId={}, count={}",
+                       emitMode == EmitMode.FINAL ? "Window closed" : "Window updated",
+                       windowSec, windowEnd, contentId, count);
+        }
+
+        store.add(windowEnd, contentId, count, record.value().uniqueViewers());
+        if (store.size() >= batchSize) {
+            store.send();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.yoordi.rank.stream;
+
+import org.apache.kafka.streams.kstream.Window;
+
+/**
+ * Time window {@code [start, end)} of the counts the rank processors forward, in place of the
+ * DSL's internal {@code TimeWindow}.
+ */
+final class RankWindow extends Window {
+
+    RankWindow(long startMs, long endMs) {
+        super(startMs, endMs);
+    }
+
+    @Override
+    public boolean overlap(Window other) {
+        return startMs < other.end() && other.start() < endMs;
+    }
+}
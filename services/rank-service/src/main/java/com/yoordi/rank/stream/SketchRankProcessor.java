@@ -0,0 +1,143 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.rank.sketch.WindowSketch;
+import com.yoordi.rank.store.RankEntry;
+import io.micrometer.core.instrument.DistributionSummary;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.Cancellable;
+import org.apache.kafka.streams.processor.PunctuationType;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+import org.apache.kafka.streams.state.KeyValueIterator;
+import org.apache.kafka.streams.state.KeyValueStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Tumbling-window counts for the sketch engine. Keeps a {@link WindowSketch} per open window
+ * and forwards its top entries as windowed counts, the same shape the exact engine emits:
+ * periodically while the window is open (unless the emit mode is final) and once when stream
+ * time passes window end plus grace. Sketches are snapshotted into a changelogged store on
+ * every emit interval, so a restored task resumes from the last snapshot.
+ */
+class SketchRankProcessor implements Processor<String, EventDto, Windowed<String>, Long> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SketchRankProcessor.class);
+
+    private final String storeName;
+    private final long windowMs;
+    private final long graceMs;
+    private final EmitMode emitMode;
+    private final Duration emitInterval;
+    private final int emitTop;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final ActionWeights weights;
+    private final DistributionSummary errorBound;
+
+    // Open windows by start
+    private final TreeMap<Long, WindowSketch> windows = new TreeMap<>();
+    private final Set<Long> dirty = new HashSet<>();
+
+    private ProcessorContext<Windowed<String>, Long> context;
+    private KeyValueStore<Long, byte[]> store;
+    private Cancellable punctuator;
+    private long streamTime = Long.MIN_VALUE;
+
+    SketchRankProcessor(String storeName, int windowSec, Duration grace, EmitMode emitMode, Duration emitInterval,
+                        int emitTop, int width, int depth, int capacity, ActionWeights weights,
+                        DistributionSummary errorBound) {
+        this.storeName = storeName;
+        this.windowMs = windowSec * 1000L;
+        this.graceMs = grace.toMillis();
+        this.emitMode = emitMode;
+        this.emitInterval = emitInterval;
+        this.emitTop = emitTop;
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.weights = weights;
+        this.errorBound = errorBound;
+    }
+
+    @Override
+    public void init(ProcessorContext<Windowed<String>, Long> context) {
+        this.context = context;
+        this.store = context.getStateStore(storeName);
+        try (KeyValueIterator<Long, byte[]> it = store.all()) {
+            it.forEachRemaining(kv -> windows.put(kv.key, WindowSketch.fromBytes(kv.value)));
+        }
+        punctuator = context.schedule(emitInterval, PunctuationType.WALL_CLOCK_TIME, ts -> emitOpen());
+    }
+
+    @Override
+    public void process(Record<String, EventDto> record) {
+        long weight = weights.weight(record.value());
+        if (record.key() == null || weight == 0) {
+            return;
+        }
+        long ts = record.timestamp();
+        streamTime = Math.max(streamTime, ts);
+        long start = ts - Math.floorMod(ts, windowMs);
+        if (start + windowMs + graceMs <= streamTime) {
+            logger.debug("Dropping late event: contentId={}, ts={}, streamTime={}", record.key(), ts, streamTime);
+            return;
+        }
+        windows.computeIfAbsent(start, s -> new WindowSketch(width, depth, capacity)).add(record.key(), weight);
+        dirty.add(start);
+        closeExpired();
+    }
+
+    @Override
+    public void close() {
+        if (punctuator != null) {
+            punctuator.cancel();
+        }
+        snapshot();
+    }
+
+    private void closeExpired() {
+        while (!windows.isEmpty() && windows.firstKey() + windowMs + graceMs <= streamTime) {
+            Map.Entry<Long, WindowSketch> closed = windows.pollFirstEntry();
+            forward(closed.getKey(), closed.getValue());
+            errorBound.record(closed.getValue().errorBound());
+            dirty.remove(closed.getKey());
+            store.delete(closed.getKey());
+        }
+    }
+
+    private void emitOpen() {
+        for (long start : dirty) {
+            WindowSketch sketch = windows.get(start);
+            if (emitMode != EmitMode.FINAL) {
+                forward(start, sketch);
+            }
+            store.put(start, sketch.toBytes());
+        }
+        dirty.clear();
+    }
+
+    private void snapshot() {
+        for (long start : dirty) {
+            store.put(start, windows.get(start).toBytes());
+        }
+        dirty.clear();
+    }
+
+    private void forward(long start, WindowSketch sketch) {
+        RankWindow window = new RankWindow(start, start + windowMs);
+        long ts = Math.min(Math.max(streamTime, start), start + windowMs - 1);
+        for (RankEntry entry : sketch.top(emitTop)) {
+            context.forward(new Record<>(new Windowed<>(entry.contentId(), window), entry.count(), ts));
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.rank.store.TopKStore;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.processor.api.Processor;
+import org.apache.kafka.streams.processor.api.ProcessorContext;
+import org.apache.kafka.streams.processor.api.Record;
+
+/**
+ * Feeds windowed counts into the task-local {@link TopKStore} for Interactive Queries.
+ */
+class TopKProcessor implements Processor<Windowed<String>, WindowCount, Void, Void> {
+
+    private final String storeName;
+    private TopKStore store;
+
+    TopKProcessor(String storeName) {
+        this.storeName = storeName;
+    }
+
+    @Override
+    public void init(ProcessorContext<Void, Void> context) {
+        store = context.getStateStore(storeName);
+    }
+
+    @Override
+    public void process(Record<Windowed<String>, WindowCount> record) {
+        store.update(record.key().window().end(), record.key().key(), record.value().count());
+    }
+}
@@ -1,25 +1,39 @@
 package com.yoordi.rank.stream;
 
-import com.yoordi.rank.model.EventDto;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.rank.config.RankTopologyProperties;
 import com.yoordi.rank.sink.RankSink;
+import com.yoordi.rank.sink.RankSinkStore;
+import com.yoordi.rank.sink.RankSinkStoreBuilder;
+import com.yoordi.rank.store.TopKStore;
+import com.yoordi.rank.store.TopKStoreBuilder;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.common.serialization.Serde;
 import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
 import org.apache.kafka.streams.StreamsBuilder;
 import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.EmitStrategy;
 import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.KTable;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindowedKStream;
 import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.kstream.Windowed;
+import org.apache.kafka.streams.state.Stores;
+import org.apache.kafka.streams.state.WindowStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.kafka.support.serializer.JsonSerde;
 
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,69 +43,210 @@ public class TopologyConfig {
     private static final Logger logger = LoggerFactory.getLogger(TopologyConfig.class);
     
     private final RankSink rankSink;
+    private final Serde<EventDto> eventSerde;
     private final Counter redisUpdatesCounter;
     private final List<Integer> windowSeconds;
+    // Hopping window size -> hop, both in seconds
+    private final Map<Integer, Integer> hoppingWindows;
+    private final Map<Integer, EmitMode> emitModes;
+    private final Duration grace;
+    private final Duration earlyEmitInterval;
+    private final int sinkBatchSize;
+    private final Duration sinkFlushInterval;
+    private final int topKSize;
+    private final int topKRetainWindows;
+    private final RankEngine engine;
+    private final int sketchWidth;
+    private final int sketchDepth;
+    private final int sketchCapacity;
+    private final DistributionSummary sketchErrorBound;
+    private final ActionWeights weights;
+    private final boolean dedupUsers;
+    private final boolean trackUsers;
+    private final boolean multiWindow;
 
-    public TopologyConfig(RankSink rankSink, 
+    public TopologyConfig(RankSink rankSink,
+                         Serde<EventDto> eventSerde,
                          MeterRegistry meterRegistry,
-                         @Value("${rank.windows}") String windowsConfig) {
+                         RankTopologyProperties properties) {
         this.rankSink = rankSink;
+        this.eventSerde = eventSerde;
         this.redisUpdatesCounter = Counter.builder("rank_redis_updates_total")
                 .description("Total number of Redis rank updates")
                 .register(meterRegistry);
-        this.windowSeconds = parseWindowSeconds(windowsConfig);
+        this.windowSeconds = parseWindowSeconds(properties.getWindows());
+        this.hoppingWindows = parseHoppingWindows(properties.getHopping());
+        this.weights = ActionWeights.parse(properties.getScoring().getWeights());
+        this.dedupUsers = properties.getScoring().isDedupUsers();
+        this.trackUsers = dedupUsers || properties.getUniqueViewers().isEnabled();
+        this.multiWindow = properties.isMultiWindow();
+        for (int windowSec : hoppingWindows.keySet()) {
+            if (windowSeconds.contains(windowSec)) {
+                throw new IllegalArgumentException("Window " + windowSec + "s is configured as both tumbling and hopping");
+            }
+        }
+        this.emitModes = parseEmitModes(properties.getEmit().getModes());
+        this.grace = Duration.ofMillis(Math.max(0, properties.getEmit().getGraceMs()));
+        this.earlyEmitInterval = Duration.ofMillis(Math.max(1, properties.getEmit().getEarlyIntervalMs()));
+        this.sinkBatchSize = Math.max(1, properties.getSink().getBatchSize());
+        this.sinkFlushInterval = Duration.ofMillis(Math.max(1, properties.getSink().getFlushIntervalMs()));
+        this.topKSize = Math.max(1, properties.getTopk().getSize());
+        this.topKRetainWindows = Math.max(2, properties.getAggregateMax());
+        this.engine = RankEngine.parse(properties.getEngine());
+        this.sketchWidth = Math.max(1, properties.getSketch().getWidth());
+        this.sketchDepth = Math.max(1, properties.getSketch().getDepth());
+        // Space-Saving must track at least the K the top-K store serves
+        this.sketchCapacity = Math.max(this.topKSize, properties.getSketch().getCapacity());
+        this.sketchErrorBound = DistributionSummary.builder("rank_sketch_error_bound")
+                .description("Upper bound of the count overestimate per closed window (sketch engine)")
+                .register(meterRegistry);
     }
 
     @Bean
     public KStream<String, EventDto> rankStream(StreamsBuilder streamsBuilder) {
         Serde<String> stringSerde = Serdes.String();
 
-        // Configure JsonSerde with trusted packages
-        Map<String, Object> serdeProps = new HashMap<>();
-        serdeProps.put("spring.json.trusted.packages", "*");
-
-        JsonSerde<EventDto> eventSerde = new JsonSerde<>(EventDto.class);
-        eventSerde.configure(serdeProps, false);
-        eventSerde.ignoreTypeHeaders();  // Ignore type headers and use class directly
-
         KStream<String, EventDto> events = streamsBuilder
                 .stream("events.page_view.v1", Consumed.with(stringSerde, eventSerde));
 
+        // Exact counts of all window sizes from one processor, store and changelog
+        KStream<Windowed<String>, WindowCount> multiUpdates = engine == RankEngine.EXACT && multiWindow
+                ? multiWindowCounts(streamsBuilder, events)
+                : null;
+
         // Process each window configuration
         for (int windowSec : windowSeconds) {
-            events.groupByKey()
-                  .windowedBy(TimeWindows.ofSizeWithNoGrace(Duration.ofSeconds(windowSec)))
-                  .count()
-                  .toStream()
-                  .foreach((windowedKey, count) -> {
-                      String contentId = windowedKey.key();
-                      long windowStart = windowedKey.window().start();
-                      long windowEnd = windowedKey.window().end();
-                      
-                      logger.info("Window closed: windowSec={}, windowEnd={}, contentId={}, count={}", 
-                                windowSec, windowEnd, contentId, count);
-                      
-                      try {
-                          rankSink.update(windowSec, windowEnd, contentId, count.intValue());
-                          redisUpdatesCounter.increment();
-                      } catch (Exception e) {
-                          logger.error("Failed to update Redis rank: windowSec={}, windowEnd={}, contentId={}, count={}", 
-                                     windowSec, windowEnd, contentId, count, e);
-                      }
-                  });
+            EmitMode mode = emitModes.getOrDefault(windowSec, EmitMode.UPDATE);
+            logger.info("Rank window configured: windowSec={}, emit={}, graceMs={}, engine={}, multiWindow={}",
+                        windowSec, mode, grace.toMillis(), engine, multiUpdates != null);
+
+            KStream<Windowed<String>, WindowCount> updates;
+            if (engine == RankEngine.SKETCH) {
+                updates = sketchCounts(streamsBuilder, events, windowSec, mode).mapValues(WindowCount::of);
+            } else if (multiUpdates != null) {
+                long sizeMs = windowSec * 1000L;
+                updates = multiUpdates.filter((window, count) -> window.window().end() - window.window().start() == sizeMs);
+            } else {
+                updates = exactCounts(events, windowSec, mode);
+            }
+            publish(streamsBuilder, updates, windowSec, mode);
         }
 
+        // Hopping windows: one ranking per hop, maintained incrementally rather than summed at query time
+        hoppingWindows.forEach((windowSec, hopSec) -> {
+            logger.info("Rank hopping window configured: windowSec={}, hopSec={}, graceMs={}", windowSec, hopSec, grace.toMillis());
+            String hopStore = HoppingRankProcessor.storeName(windowSec, hopSec);
+            streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                    Stores.persistentKeyValueStore(hopStore), Serdes.String(), Serdes.Long()).withCachingEnabled());
+            KStream<Windowed<String>, WindowCount> updates = events.process(
+                    () -> new HoppingRankProcessor(hopStore, windowSec, hopSec, grace, topKSize, weights), hopStore)
+                    .mapValues(WindowCount::of);
+            publish(streamsBuilder, updates, windowSec, EmitMode.FINAL);
+        });
+
         return events;
     }
 
-    private List<Integer> parseWindowSeconds(String windowsConfig) {
+    // Redis sink plus the local top-K store served to /rank/top via Interactive Queries
+    private void publish(StreamsBuilder streamsBuilder, KStream<Windowed<String>, WindowCount> updates, int windowSec, EmitMode mode) {
+        String sinkStore = RankSinkStore.storeName(windowSec);
+        streamsBuilder.addStateStore(new RankSinkStoreBuilder(sinkStore, windowSec, rankSink, redisUpdatesCounter));
+        updates.process(() -> new RankSinkProcessor(sinkStore, windowSec, mode, sinkBatchSize, sinkFlushInterval), sinkStore);
+
+        String topKStore = TopKStore.storeName(windowSec);
+        streamsBuilder.addStateStore(new TopKStoreBuilder(topKStore, topKSize, topKRetainWindows, mode == EmitMode.FINAL));
+        updates.process(() -> new TopKProcessor(topKStore), topKStore);
+    }
+
+    private KStream<Windowed<String>, WindowCount> exactCounts(KStream<String, EventDto> events, int windowSec, EmitMode mode) {
+        TimeWindowedKStream<String, EventDto> windowed = events.groupByKey()
+              .windowedBy(TimeWindows.ofSizeAndGrace(Duration.ofSeconds(windowSec), grace));
+        if (mode == EmitMode.FINAL) {
+            // Emit straight from the window store once stream time passes window end + grace
+            windowed = windowed.emitStrategy(EmitStrategy.onWindowClose());
+        }
+
+        // Per-action counts rather than count(), so likes can outweigh views in the same pass
+        KTable<Windowed<String>, EngagementScore> scores = windowed
+              .aggregate(() -> trackUsers ? EngagementScore.tracked() : new EngagementScore(),
+                         (contentId, event, score) -> score.add(event),
+                         Materialized.<String, EngagementScore, WindowStore<Bytes, byte[]>>as("rank-scores-" + windowSec + "s")
+                                     .withKeySerde(Serdes.String())
+                                     .withValueSerde(new EngagementScoreSerde()));
+        if (mode == EmitMode.EARLY) {
+            // Rate-limit interim results per content so dashboards stay live without a write per event
+            scores = scores.suppress(Suppressed.untilTimeLimit(earlyEmitInterval, Suppressed.BufferConfig.unbounded())
+                                               .withName("rank-early-emit-" + windowSec + "s"));
+        }
+        return scores.toStream().mapValues(score -> new WindowCount(score.score(weights, dedupUsers), score.uniqueViewers()));
+    }
+
+    private KStream<Windowed<String>, WindowCount> multiWindowCounts(StreamsBuilder streamsBuilder, KStream<String, EventDto> events) {
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(MultiWindowRankProcessor.STORE_NAME), Serdes.String(), new MultiWindowScoresSerde())
+                .withCachingEnabled());
+        return events.process(() -> new MultiWindowRankProcessor(windowSeconds, emitModes, grace, earlyEmitInterval,
+                                                                 weights, dedupUsers, trackUsers),
+                              MultiWindowRankProcessor.STORE_NAME);
+    }
+
+    // Top entries of a per-window sketch; update and early both emit every early-emit interval
+    private KStream<Windowed<String>, Long> sketchCounts(StreamsBuilder streamsBuilder, KStream<String, EventDto> events,
+                                                         int windowSec, EmitMode mode) {
+        String sketchStore = "rank-sketch-" + windowSec + "s";
+        streamsBuilder.addStateStore(Stores.keyValueStoreBuilder(
+                Stores.persistentKeyValueStore(sketchStore), Serdes.Long(), Serdes.ByteArray()));
+        return events.process(() -> new SketchRankProcessor(sketchStore, windowSec, grace, mode, earlyEmitInterval,
+                                                            topKSize, sketchWidth, sketchDepth, sketchCapacity,
+                                                            weights, sketchErrorBound),
+                              sketchStore);
+    }
+
+    static List<Integer> parseWindowSeconds(String windowsConfig) {
         return Arrays.stream(windowsConfig.split(","))
                     .map(String::trim)
-                    .map(this::parseWindow)
+                    .map(TopologyConfig::parseWindow)
                     .toList();
     }
 
-    private Integer parseWindow(String window) {
+    // Format: "10s=early,60s=final"; windows not listed keep emitting every update
+    static Map<Integer, EmitMode> parseEmitModes(String emitModesConfig) {
+        Map<Integer, EmitMode> modes = new HashMap<>();
+        if (emitModesConfig == null || emitModesConfig.isBlank()) {
+            return modes;
+        }
+        for (String entry : emitModesConfig.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid emit mode entry: " + entry);
+            }
+            modes.put(parseWindow(parts[0].trim()), EmitMode.parse(parts[1]));
+        }
+        return modes;
+    }
+
+    // Format: "300s/10s" (window/hop); the hop must divide the window
+    static Map<Integer, Integer> parseHoppingWindows(String hoppingConfig) {
+        Map<Integer, Integer> windows = new LinkedHashMap<>();
+        if (hoppingConfig == null || hoppingConfig.isBlank()) {
+            return windows;
+        }
+        for (String entry : hoppingConfig.split(",")) {
+            String[] parts = entry.trim().split("/");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid hopping window entry: " + entry);
+            }
+            int windowSec = parseWindow(parts[0].trim());
+            int hopSec = parseWindow(parts[1].trim());
+            if (hopSec <= 0 || hopSec >= windowSec || windowSec % hopSec != 0) {
+                throw new IllegalArgumentException("Hop must be a proper divisor of the window: " + entry);
+            }
+            windows.put(windowSec, hopSec);
+        }
+        return windows;
+    }
+
+    private static Integer parseWindow(String window) {
         if (window.endsWith("s")) {
             return Integer.parseInt(window.substring(0, window.length() - 1));
         }
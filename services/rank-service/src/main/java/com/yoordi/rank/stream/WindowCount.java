@@ -0,0 +1,12 @@
+package com.yoordi.rank.stream;
+
+/**
+ * What every engine emits per windowed content: the ranking score and, where the engine
+ * tracks users, the estimated distinct viewers ({@code -1} when unknown).
+ */
+record WindowCount(long count, long uniqueViewers) {
+
+    static WindowCount of(long count) {
+        return new WindowCount(count, -1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.yoordi.rank.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateRestoreMetricsTest {
+
+    private static final String STORE = "rank-scores-multi";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StateRestoreMetrics metrics = new StateRestoreMetrics(registry);
+
+    @Test
+    void restore_shouldTrackRemainingRecordsUntilEnd() {
+        TopicPartition p0 = new TopicPartition("rank-service-rank-scores-multi-changelog", 0);
+        TopicPartition p1 = new TopicPartition("rank-service-rank-scores-multi-changelog", 1);
+
+        metrics.onRestoreStart(p0, STORE, 0, 1000);
+        metrics.onRestoreStart(p1, STORE, 500, 700);
+        metrics.onBatchRestored(p0, STORE, 399, 400);
+
+        assertTrue(metrics.isRestoring());
+        assertEquals(800, metrics.remainingRecords());
+        assertEquals(2, registry.get("rank_streams_restoring_partitions").gauge().value());
+        assertEquals(800, registry.get("rank_streams_restore_remaining_records").gauge().value());
+
+        metrics.onRestoreEnd(p0, STORE, 1000);
+        metrics.onRestoreSuspended(p1, STORE, 0);
+
+        assertFalse(metrics.isRestoring());
+        assertEquals(0, metrics.remainingRecords());
+        assertEquals(400, registry.get("rank_streams_restored_records_total").tag("store", STORE).functionCounter().count());
+        assertEquals(1, registry.get("rank_streams_restore_duration").tag("outcome", "completed").timer().count());
+        assertEquals(1, registry.get("rank_streams_restore_duration").tag("outcome", "suspended").timer().count());
+    }
+}
@@ -0,0 +1,61 @@
+package com.yoordi.rank.config;
+
+import org.apache.kafka.streams.StreamsConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamsTuningPropertiesTest {
+
+    @Test
+    void streamsOverrides_shouldMapTuningToStreamsConfig() {
+        StreamsTuningProperties tuning = new StreamsTuningProperties();
+        tuning.setNumStreamThreads(4);
+        tuning.setCommitIntervalMs(500L);
+        tuning.setProcessingGuarantee("EXACTLY_ONCE_V2");
+        tuning.setNumStandbyReplicas(1);
+        tuning.setAcceptableRecoveryLag(5000L);
+        tuning.getRocksdb().setBlockCacheBytes(1 << 20);
+
+        Map<String, Object> config = tuning.streamsOverrides();
+
+        assertTrue(tuning.isExactlyOnce());
+        assertEquals(4, config.get(StreamsConfig.NUM_STREAM_THREADS_CONFIG));
+        assertEquals(500L, config.get(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG));
+        assertEquals(StreamsConfig.EXACTLY_ONCE_V2, config.get(StreamsConfig.PROCESSING_GUARANTEE_CONFIG));
+        assertEquals(1, config.get(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG));
+        assertEquals(5000L, config.get(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG));
+        assertEquals(BoundedRocksDbConfigSetter.class, config.get(StreamsConfig.ROCKSDB_CONFIG_SETTER_CLASS_CONFIG));
+        assertEquals(1L << 20, config.get(BoundedRocksDbConfigSetter.BLOCK_CACHE_BYTES));
+        // Every key is a valid streams config
+        assertDoesNotThrow(() -> new StreamsConfig(withRequired(config)));
+    }
+
+    @Test
+    void streamsOverrides_defaults_shouldKeepKafkaCommitInterval() {
+        Map<String, Object> config = new StreamsTuningProperties().streamsOverrides();
+
+        assertFalse(config.containsKey(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG));
+        assertEquals(StreamsConfig.AT_LEAST_ONCE, config.get(StreamsConfig.PROCESSING_GUARANTEE_CONFIG));
+        assertEquals(0, config.get(StreamsConfig.NUM_STANDBY_REPLICAS_CONFIG));
+        assertFalse(config.containsKey(StreamsConfig.ACCEPTABLE_RECOVERY_LAG_CONFIG));
+    }
+
+    @Test
+    void streamsOverrides_unknownGuarantee_shouldThrow() {
+        StreamsTuningProperties tuning = new StreamsTuningProperties();
+        tuning.setProcessingGuarantee("exactly_once");
+
+        assertThrows(IllegalArgumentException.class, tuning::streamsOverrides);
+    }
+
+    private static Map<String, Object> withRequired(Map<String, Object> config) {
+        Map<String, Object> all = new HashMap<>(config);
+        all.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-rank-app");
+        all.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        return all;
+    }
+}
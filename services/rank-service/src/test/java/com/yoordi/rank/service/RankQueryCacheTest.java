@@ -0,0 +1,140 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.rank.store.RankEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankQueryCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void get_sameKey_shouldComputeOnce() {
+        RankQueryCache cache = new RankQueryCache(60_000, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        RankQueryCache.Key key = new RankQueryCache.Key(60, 10, 1, 60_000L);
+
+        RankResult first = cache.get(key, () -> result(loads.incrementAndGet()));
+        RankResult second = cache.get(key, () -> result(loads.incrementAndGet()));
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals(1.0, count("miss"));
+        assertEquals(1.0, count("hit"));
+    }
+
+    @Test
+    void get_newerWindowEnd_shouldEvictOlderEntries() {
+        RankQueryCache cache = new RankQueryCache(60_000, meterRegistry);
+        cache.get(new RankQueryCache.Key(60, 10, 1, 60_000L), () -> result(1));
+        cache.get(new RankQueryCache.Key(10, 10, 1, 60_000L), () -> result(1));
+
+        cache.get(new RankQueryCache.Key(60, 10, 1, 120_000L), () -> result(2));
+
+        // 60s entry for the old end is gone, the 10s one is untouched
+        assertEquals(2, cache.size());
+        assertEquals(3.0, count("miss"));
+    }
+
+    @Test
+    void get_failure_shouldNotBeCached() {
+        RankQueryCache cache = new RankQueryCache(60_000, meterRegistry);
+        RankQueryCache.Key key = new RankQueryCache.Key(60, 10, 1, 60_000L);
+
+        assertThrows(IllegalStateException.class, () -> cache.get(key, () -> {
+            throw new IllegalStateException("redis down");
+        }));
+        RankResult result = cache.get(key, () -> result(1));
+
+        assertEquals(1, result.entries().size());
+    }
+
+    @Test
+    void get_error_shouldNotBeCached() {
+        RankQueryCache cache = new RankQueryCache(60_000, meterRegistry);
+        RankQueryCache.Key key = new RankQueryCache.Key(60, 10, 1, 60_000L);
+
+        assertThrows(StackOverflowError.class, () -> cache.get(key, () -> {
+            throw new StackOverflowError();
+        }));
+        RankResult result = cache.get(key, () -> result(1));
+
+        assertEquals(1, result.entries().size());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void get_concurrentMisses_shouldCoalesce() throws Exception {
+        RankQueryCache cache = new RankQueryCache(60_000, meterRegistry);
+        RankQueryCache.Key key = new RankQueryCache.Key(60, 10, 1, 60_000L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<RankResult> leader = executor.submit(() -> cache.get(key, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return result(1);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<RankResult>> followers = List.of(
+                    executor.submit(() -> cache.get(key, () -> result(loads.incrementAndGet()))),
+                    executor.submit(() -> cache.get(key, () -> result(loads.incrementAndGet()))));
+            while (count("coalesced") < 2.0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            RankResult expected = leader.get(5, TimeUnit.SECONDS);
+            for (Future<RankResult> follower : followers) {
+                assertSame(expected, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_disabled_shouldAlwaysLoad() {
+        RankQueryCache cache = new RankQueryCache(0, meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+        RankQueryCache.Key key = new RankQueryCache.Key(60, 10, 1, 60_000L);
+
+        cache.get(key, () -> result(loads.incrementAndGet()));
+        cache.get(key, () -> result(loads.incrementAndGet()));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private static RankResult result(long count) {
+        return new RankResult(List.of(new RankEntry("webtoon-1", count)), Optional.empty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("rank_query_cache_total").tag("result", result).functionCounter().count();
+    }
+}
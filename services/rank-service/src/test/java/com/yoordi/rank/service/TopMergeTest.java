@@ -0,0 +1,45 @@
+package com.yoordi.rank.service;
+
+import com.yoordi.rank.store.RankEntry;
+import org.junit.jupiter.api.Test;
+import org.redisson.client.protocol.ScoredEntry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopMergeTest {
+
+    @Test
+    void merge_shouldKeepOverallTopAcrossShards() {
+        List<List<ScoredEntry<String>>> parts = List.of(
+                List.of(entry("webtoon-1", 9), entry("webtoon-4", 2)),
+                List.of(entry("webtoon-2", 7), entry("webtoon-5", 1)),
+                List.of(entry("webtoon-3", 7)));
+
+        assertEquals(List.of(new RankEntry("webtoon-1", 9), new RankEntry("webtoon-2", 7), new RankEntry("webtoon-3", 7)),
+                TopMerge.merge(parts, 3));
+    }
+
+    @Test
+    void merge_duplicateContent_shouldKeepHighestCount() {
+        // Legacy single-layout key read alongside the shard during migration
+        List<List<ScoredEntry<String>>> parts = List.of(
+                List.of(entry("webtoon-1", 5), entry("webtoon-2", 3)),
+                List.of(entry("webtoon-1", 6)));
+
+        assertEquals(List.of(new RankEntry("webtoon-1", 6), new RankEntry("webtoon-2", 3)), TopMerge.merge(parts, 10));
+    }
+
+    @Test
+    void merge_singlePart_shouldKeepRedisOrder() {
+        List<List<ScoredEntry<String>>> parts = List.of(List.of(entry("webtoon-2", 4), entry("webtoon-1", 4)));
+
+        assertEquals(List.of(new RankEntry("webtoon-2", 4), new RankEntry("webtoon-1", 4)), TopMerge.merge(parts, 2));
+        assertEquals(List.of(), TopMerge.merge(parts, 0));
+    }
+
+    private static ScoredEntry<String> entry(String contentId, double score) {
+        return new ScoredEntry<>(score, contentId);
+    }
+}
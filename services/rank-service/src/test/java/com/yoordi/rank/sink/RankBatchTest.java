@@ -0,0 +1,60 @@
+package com.yoordi.rank.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankBatchTest {
+
+    @Test
+    void add_sameContentInSameWindow_shouldKeepLatestCount() {
+        RankBatch batch = new RankBatch();
+
+        batch.add(60, 1000L, "webtoon-1", 1);
+        batch.add(60, 1000L, "webtoon-1", 5);
+
+        assertEquals(1, batch.size());
+        assertEquals(5.0, batch.scores().get(new RankBatch.WindowKey(60, 1000L)).get("webtoon-1"));
+    }
+
+    @Test
+    void add_differentWindows_shouldGroupByZset() {
+        RankBatch batch = new RankBatch();
+
+        batch.add(10, 1000L, "webtoon-1", 3);
+        batch.add(10, 2000L, "webtoon-1", 1);
+        batch.add(60, 60000L, "webtoon-2", 7);
+
+        assertEquals(3, batch.size());
+        Map<RankBatch.WindowKey, Map<String, Double>> scores = batch.scores();
+        assertEquals(3, scores.size());
+        assertEquals(7.0, scores.get(new RankBatch.WindowKey(60, 60000L)).get("webtoon-2"));
+    }
+
+    @Test
+    void add_withUniqueViewers_shouldKeepKnownEstimatesOnly() {
+        RankBatch batch = new RankBatch();
+
+        batch.add(60, 1000L, "webtoon-1", 9, 4);
+        batch.add(60, 1000L, "webtoon-2", 3, -1);
+
+        assertEquals(2, batch.size());
+        assertEquals(Map.of("webtoon-1", "4"), batch.uniqueViewers().get(new RankBatch.WindowKey(60, 1000L)));
+
+        batch.clear();
+        assertTrue(batch.uniqueViewers().isEmpty());
+    }
+
+    @Test
+    void clear_shouldResetSize() {
+        RankBatch batch = new RankBatch();
+        batch.add(10, 1000L, "webtoon-1", 3);
+
+        batch.clear();
+
+        assertTrue(batch.isEmpty());
+        assertTrue(batch.scores().isEmpty());
+    }
+}
@@ -0,0 +1,67 @@
+package com.yoordi.rank.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankKeyLayoutTest {
+
+    @Test
+    void modes_shouldSelectReadAndWriteLayouts() {
+        RankKeyLayout single = RankKeyLayout.single();
+        RankKeyLayout dual = new RankKeyLayout("dual", 4, true);
+        RankKeyLayout sharded = new RankKeyLayout("SHARDED", 4, false);
+
+        assertTrue(single.writesSingle() && !single.writesShards() && single.readsSingle() && !single.readsShards());
+        assertTrue(dual.writesSingle() && dual.writesShards() && dual.readsSingle() && !dual.readsShards());
+        assertTrue(!sharded.writesSingle() && sharded.writesShards() && !sharded.readsSingle() && sharded.readsShards());
+        assertTrue(new RankKeyLayout("sharded", 4, true).readsSingle());
+    }
+
+    @Test
+    void invalidConfig_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new RankKeyLayout("ring", 4, true));
+        assertThrows(IllegalArgumentException.class, () -> new RankKeyLayout("sharded", 1, true));
+    }
+
+    @Test
+    void split_shouldPlaceEachContentInItsShard() {
+        RankKeyLayout layout = new RankKeyLayout("sharded", 3, true);
+        Map<String, Double> scores = Map.of("webtoon-1", 1.0, "webtoon-2", 2.0, "webtoon-3", 3.0, "webtoon-4", 4.0);
+
+        List<Map<String, Double>> parts = layout.split(scores);
+
+        assertEquals(3, parts.size());
+        assertEquals(scores.size(), parts.stream().mapToInt(Map::size).sum());
+        scores.forEach((contentId, score) ->
+                assertEquals(score, parts.get(layout.shardOf(contentId)).get(contentId)));
+    }
+
+    @Test
+    void shardKeys_shouldShareHashTagAcrossWindowsOfOneShard() {
+        assertEquals("rank:{60:s2}:1000", RankKeyLayout.shardKey(60, 1000L, 2));
+        assertEquals("rank:agg:{60:s2}:1000:3", RankKeyLayout.shardUnionKey(60, 1000L, 3, 2));
+        assertEquals(hashTag(RankKeyLayout.shardKey(60, 1000L, 2)), hashTag(RankKeyLayout.shardKey(60, 2000L, 2)));
+        assertEquals(hashTag(RankKeyLayout.shardKey(60, 1000L, 2)), hashTag(RankKeyLayout.shardUnionKey(60, 2000L, 3, 2)));
+        assertNotEquals(hashTag(RankKeyLayout.shardKey(60, 1000L, 1)), hashTag(RankKeyLayout.shardKey(60, 1000L, 2)));
+    }
+
+    @Test
+    void singleKeys_shouldShareHashTagAcrossWindowsOfOneSize() {
+        assertEquals("rank:{60}:1000", RankKeyLayout.windowKey(60, 1000L));
+        assertEquals("rank:agg:{60}:1000:3", RankKeyLayout.unionKey(60, 1000L, 3));
+        // The union and every window it sums map to one cluster slot
+        assertEquals(hashTag(RankKeyLayout.windowKey(60, 1000L)), hashTag(RankKeyLayout.windowKey(60, 2000L)));
+        assertEquals(hashTag(RankKeyLayout.windowKey(60, 1000L)), hashTag(RankKeyLayout.unionKey(60, 2000L, 3)));
+        assertEquals("rank:uv:{60}:1000", RankKeyLayout.uniqueViewersKey(60, 1000L));
+        assertEquals(hashTag(RankKeyLayout.windowKey(60, 1000L)), hashTag(RankKeyLayout.uniqueViewersKey(60, 1000L)));
+        assertNotEquals(hashTag(RankKeyLayout.windowKey(60, 1000L)), hashTag(RankKeyLayout.shardKey(60, 1000L, 0)));
+    }
+
+    private static String hashTag(String key) {
+        return key.substring(key.indexOf('{') + 1, key.indexOf('}'));
+    }
+}
@@ -0,0 +1,67 @@
+package com.yoordi.rank.sink;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RankSinkStoreTest {
+
+    private final RankSink rankSink = mock(RankSink.class);
+    private final Counter updates = new SimpleMeterRegistry().counter("rank_redis_updates_total");
+    private final RankSinkStore store = new RankSinkStore(RankSinkStore.storeName(10), 10, rankSink, updates);
+    private final List<Integer> written = new ArrayList<>();
+
+    @Test
+    void flush_afterRedisFailure_shouldKeepBatchAndFailCommit() {
+        doThrow(new IllegalStateException("redis down"))
+                .doAnswer(inv -> write(inv.getArgument(0)))
+                .when(rankSink).flush(any(RankBatch.class));
+        store.add(10_000L, "webtoon-1", 3, -1);
+
+        // An early send swallows the failure and keeps the entries
+        store.send();
+        assertEquals(1, store.size());
+
+        // ...and further early sends leave the retry to the commit
+        store.add(10_000L, "webtoon-2", 1, -1);
+        store.send();
+        verify(rankSink, times(1)).flush(any(RankBatch.class));
+
+        store.flush();
+
+        assertEquals(List.of(2), written);
+        assertEquals(0, store.size());
+        assertEquals(2.0, updates.count());
+    }
+
+    @Test
+    void flush_whenRedisFails_shouldThrow() {
+        doThrow(new IllegalStateException("redis down")).when(rankSink).flush(any(RankBatch.class));
+        store.add(10_000L, "webtoon-1", 3, -1);
+
+        assertThrows(IllegalStateException.class, store::flush);
+        assertEquals(1, store.size());
+        assertEquals(0.0, updates.count());
+    }
+
+    @Test
+    void flush_withNothingPending_shouldNotWrite() {
+        store.flush();
+
+        verify(rankSink, never()).flush(any(RankBatch.class));
+    }
+
+    // Like the real sink, a successful flush empties the batch
+    private int write(RankBatch batch) {
+        written.add(batch.size());
+        batch.clear();
+        return written.get(written.size() - 1);
+    }
+}
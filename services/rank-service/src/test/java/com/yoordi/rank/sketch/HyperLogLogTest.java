@@ -0,0 +1,62 @@
+package com.yoordi.rank.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimate_smallSets_shouldBeNearlyExactAndSparse() {
+        HyperLogLog hll = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < 50; i++) {
+            long hash = random.nextLong();
+            hll.add(hash);
+            // Repeats change nothing
+            assertFalse(hll.add(hash));
+        }
+
+        assertTrue(hll.isSparse());
+        assertEquals(50, hll.estimate(), 1);
+        assertTrue(hll.serializedSize() < 256, "size=" + hll.serializedSize());
+    }
+
+    @Test
+    void estimate_largeSets_shouldStayWithinErrorAndBoundedMemory() {
+        SplittableRandom random = new SplittableRandom(2);
+        for (int n : new int[] {1_000, 20_000, 1_000_000}) {
+            HyperLogLog hll = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+            for (int i = 0; i < n; i++) {
+                hll.add(random.nextLong());
+            }
+
+            // Standard error 1.04 / sqrt(2048) ~ 2.3%; allow three of them
+            assertEquals(n, hll.estimate(), n * 0.07, "n=" + n);
+            assertTrue(hll.serializedSize() <= 2 + 2048, "size=" + hll.serializedSize());
+        }
+    }
+
+    @Test
+    void serialization_shouldRoundTripBothRepresentations() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int n : new int[] {10, 5_000}) {
+            HyperLogLog hll = new HyperLogLog(HyperLogLog.DEFAULT_PRECISION);
+            for (int i = 0; i < n; i++) {
+                hll.add(random.nextLong());
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(hll.serializedSize());
+            hll.writeTo(buffer);
+            buffer.flip();
+
+            HyperLogLog restored = HyperLogLog.readFrom(buffer);
+
+            assertEquals(hll.isSparse(), restored.isSparse());
+            assertEquals(hll.estimate(), restored.estimate());
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.yoordi.rank.sketch;
+
+import com.yoordi.rank.store.RankEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowSketchTest {
+
+    @Test
+    void countMinSketch_shouldNeverUndercountAndStayWithinBound() {
+        CountMinSketch sketch = new CountMinSketch(1000, 5);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            String id = "w-" + random.nextInt(5_000);
+            sketch.add(id, 1);
+            exact.merge(id, 1L, Long::sum);
+        }
+
+        assertEquals(1024, sketch.width());
+        long outside = exact.entrySet().stream()
+                .peek(e -> assertTrue(sketch.estimate(e.getKey()) >= e.getValue(), e::getKey))
+                .filter(e -> sketch.estimate(e.getKey()) - e.getValue() > sketch.errorBound())
+                .count();
+        // At most e^-5 (under 1%) of the estimates may exceed the bound
+        assertTrue(outside <= exact.size() * (1 - sketch.confidence()), "outside=" + outside);
+    }
+
+    @Test
+    void windowSketch_shouldFindHeavyHittersInLongTail() {
+        WindowSketch sketch = new WindowSketch(512, 4, 50);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // 10 hot contents take ~half the traffic, 100k cold ones share the rest
+            String id = random.nextBoolean() ? "hot-" + random.nextInt(10) : "cold-" + random.nextInt(100_000);
+            sketch.add(id);
+            exact.merge(id, 1L, Long::sum);
+        }
+
+        List<RankEntry> top = sketch.top(10);
+        assertEquals(10, top.size());
+        for (RankEntry entry : top) {
+            assertTrue(entry.contentId().startsWith("hot-"), entry::toString);
+            long trueCount = exact.get(entry.contentId());
+            assertTrue(entry.count() >= trueCount && entry.count() - trueCount <= sketch.errorBound(), entry::toString);
+        }
+        assertEquals(20_000, sketch.total());
+        assertTrue(sketch.errorBound() <= 20_000 / 50);
+    }
+
+    @Test
+    void spaceSaving_shouldInheritEvictedCountAsError() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.offer("a", 3);
+        summary.offer("b", 1);
+        summary.offer("c", 1);
+
+        assertEquals(2, summary.size());
+        assertTrue(summary.counters().contains(new SpaceSaving.Counter("c", 2, 1)));
+        assertTrue(summary.counters().contains(new SpaceSaving.Counter("a", 3, 0)));
+    }
+
+    @Test
+    void toBytes_shouldRoundTrip() {
+        WindowSketch sketch = new WindowSketch(64, 3, 4);
+        String[] ids = {"a", "b", "b", "c", "c", "c", "d", "e", "e"};
+        for (String id : ids) {
+            sketch.add(id);
+        }
+
+        WindowSketch restored = WindowSketch.fromBytes(sketch.toBytes());
+
+        assertEquals(sketch.top(4), restored.top(4));
+        assertEquals(sketch.total(), restored.total());
+        restored.add("c");
+        assertEquals(4, restored.top(1).get(0).count());
+    }
+}
@@ -0,0 +1,64 @@
+package com.yoordi.rank.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void offer_shouldKeepHighestCountsOnly() {
+        TopK topK = new TopK(2);
+
+        topK.offer("webtoon-1", 5);
+        topK.offer("webtoon-2", 1);
+        topK.offer("webtoon-3", 3);
+
+        assertEquals(List.of(new RankEntry("webtoon-1", 5), new RankEntry("webtoon-3", 3)), topK.top(10));
+    }
+
+    @Test
+    void offer_evictedContentOvertakingMinimum_shouldReenter() {
+        TopK topK = new TopK(2);
+
+        topK.offer("webtoon-1", 5);
+        topK.offer("webtoon-2", 4);
+        topK.offer("webtoon-3", 1);   // rejected
+        topK.offer("webtoon-3", 6);   // absolute count now above the minimum
+
+        assertEquals(List.of(new RankEntry("webtoon-3", 6), new RankEntry("webtoon-1", 5)), topK.top(2));
+    }
+
+    @Test
+    void offer_randomUpdates_shouldMatchExactRanking() {
+        Random random = new Random(42);
+        TopK topK = new TopK(10);
+        Map<String, Long> exact = new HashMap<>();
+
+        for (int i = 0; i < 5_000; i++) {
+            String contentId = "webtoon-" + random.nextInt(200);
+            long count = exact.merge(contentId, 1L, Long::sum);
+            topK.offer(contentId, count);
+        }
+
+        List<Long> expected = exact.values().stream().sorted((a, b) -> Long.compare(b, a)).limit(10).toList();
+        List<Long> actual = topK.top(10).stream().map(RankEntry::count).toList();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void top_shouldLimitToN() {
+        TopK topK = new TopK(5);
+        topK.offer("webtoon-1", 1);
+        topK.offer("webtoon-2", 2);
+        topK.offer("webtoon-3", 3);
+
+        assertEquals(1, topK.top(1).size());
+        assertEquals("webtoon-3", topK.top(1).get(0).contentId());
+    }
+}
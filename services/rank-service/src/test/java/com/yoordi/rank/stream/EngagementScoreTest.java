@@ -0,0 +1,75 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngagementScoreTest {
+
+    private final ActionWeights weights = ActionWeights.parse("view=1, like=5");
+    private final EngagementScoreSerde serde = new EngagementScoreSerde();
+
+    @Test
+    void add_shouldScoreByActionWeight() {
+        EngagementScore score = new EngagementScore()
+                .add(event("user-1", Action.VIEW))
+                .add(event("user-1", Action.VIEW))
+                .add(event("user-1", Action.LIKE))
+                .add(event("user-2", null));
+
+        assertEquals(3 + 5, score.score(weights, false));
+        assertEquals(4, score.score(ActionWeights.uniform(), false));
+        assertEquals(-1, score.uniqueViewers());
+    }
+
+    @Test
+    void add_dedupUsers_shouldCountEachUserActionOnce() {
+        EngagementScore score = EngagementScore.tracked();
+        for (int i = 0; i < 3; i++) {
+            score.add(event("user-1", Action.VIEW));
+            score.add(event("user-1", Action.LIKE));
+            score.add(event(null, Action.VIEW));
+        }
+
+        assertEquals(1 + 5 + 3, score.score(weights, true));
+        // Raw counts stay available
+        assertEquals(6 + 15, score.score(weights, false));
+    }
+
+    @Test
+    void uniqueViewers_shouldEstimateDistinctViewers() {
+        EngagementScore score = EngagementScore.tracked();
+        for (int i = 0; i < 30_000; i++) {
+            score.add(event("user-" + (i % 10_000), Action.VIEW));
+        }
+        score.add(event("user-x", Action.LIKE));
+
+        assertEquals(10_000, score.uniqueViewers(), 10_000 * 0.07);
+    }
+
+    @Test
+    void serde_shouldRoundTrip() {
+        EngagementScore score = EngagementScore.tracked();
+        for (int i = 0; i < 10; i++) {
+            score.add(event("user-" + i, i % 3 == 0 ? Action.LIKE : Action.VIEW));
+        }
+        score.add(event(null, Action.VIEW));
+
+        EngagementScore restored = serde.deserializer().deserialize("t", serde.serializer().serialize("t", score));
+
+        assertEquals(score.score(weights, true), restored.score(weights, true));
+        assertEquals(score.uniqueViewers(), restored.uniqueViewers());
+        // Seen users survive the round trip
+        restored.add(event("user-1", Action.VIEW));
+        assertEquals(score.score(weights, true), restored.score(weights, true));
+
+        EngagementScore untracked = new EngagementScore().add(event("user-1", Action.VIEW));
+        assertEquals(-1, serde.deserializer().deserialize("t", serde.serializer().serialize("t", untracked)).uniqueViewers());
+    }
+
+    private static EventDto event(String userId, Action action) {
+        return new EventDto("evt", userId, "webtoon-1", 1, new EventDto.Props(action));
+    }
+}
@@ -0,0 +1,58 @@
+package com.yoordi.rank.stream;
+
+import com.yoordi.rank.store.RankEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HoppingCountsTest {
+
+    @Test
+    void close_shouldAddEnteringAndSubtractLeavingBucket() {
+        HoppingCounts counts = new HoppingCounts(2, 0);
+        counts.add(10, "webtoon-1", 1);
+        counts.close(10);
+        counts.add(11, "webtoon-2", 2);
+        counts.close(11);
+
+        assertEquals(List.of(new RankEntry("webtoon-2", 2), new RankEntry("webtoon-1", 1)), counts.top(5));
+
+        counts.close(12);
+        assertEquals(List.of(new RankEntry("webtoon-2", 2)), counts.top(5));
+        counts.close(13);
+        assertTrue(counts.isEmpty());
+    }
+
+    @Test
+    void add_pendingBucket_shouldWaitForItsHop() {
+        HoppingCounts counts = new HoppingCounts(3, 1);
+        counts.add(10, "webtoon-1", 1);
+        counts.close(10);
+
+        // Within grace: buffered, not yet part of the closed hop
+        assertEquals(1, counts.add(12, "webtoon-2", 1));
+        assertEquals(List.of(new RankEntry("webtoon-1", 1)), counts.top(5));
+
+        // Late for a closed hop but still inside the window: later hops include it
+        assertEquals(2, counts.add(10, "webtoon-1", 1));
+        counts.close(11);
+        counts.close(12);
+        assertEquals(List.of(new RankEntry("webtoon-1", 2), new RankEntry("webtoon-2", 1)), counts.top(5));
+
+        // Bucket 9 left the window with hop 11 closed
+        assertEquals(-1, counts.add(9, "webtoon-3", 1));
+    }
+
+    @Test
+    void top_shouldBreakTiesByContentId() {
+        HoppingCounts counts = new HoppingCounts(1, 0);
+        counts.add(1, "webtoon-b", 1);
+        counts.add(1, "webtoon-c", 1);
+        counts.add(1, "webtoon-a", 1);
+        counts.close(1);
+
+        assertEquals(List.of(new RankEntry("webtoon-a", 1), new RankEntry("webtoon-b", 1)), counts.top(2));
+    }
+}
@@ -1,7 +1,15 @@
 package com.yoordi.rank.stream;
 
-import com.yoordi.rank.model.EventDto;
+import com.yoordi.domain.event.Action;
+import com.yoordi.domain.event.EventDto;
+import com.yoordi.domain.wire.FileSchemaRegistry;
+import com.yoordi.domain.wire.SchemaRegistry;
+import com.yoordi.domain.wire.WireFormat;
+import com.yoordi.rank.config.RankTopologyProperties;
+import com.yoordi.rank.sink.RankBatch;
 import com.yoordi.rank.sink.RankSink;
+import com.yoordi.rank.store.RankEntry;
+import com.yoordi.rank.store.TopKStore;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.common.serialization.Serdes;
@@ -9,11 +17,19 @@ import org.apache.kafka.streams.*;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.kafka.support.serializer.JsonSerde;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -23,15 +39,66 @@ class TopologyConfigTest {
     private RankSink rankSink;
     private MeterRegistry meterRegistry;
     private TopologyConfig topologyConfig;
+    private SchemaRegistry schemaRegistry;
+
+    @TempDir
+    Path schemaDir;
 
     @BeforeEach
     void setup() {
         rankSink = mock(RankSink.class);
+        // Like the real sink, a successful flush empties the batch
+        doAnswer(inv -> {
+            RankBatch batch = inv.getArgument(0);
+            int entries = batch.size();
+            batch.clear();
+            return entries;
+        }).when(rankSink).flush(any(RankBatch.class));
         meterRegistry = new SimpleMeterRegistry();
-        topologyConfig = new TopologyConfig(rankSink, meterRegistry, "10s,60s");
+        schemaRegistry = new FileSchemaRegistry(schemaDir);
+        topologyConfig = newConfig("10s,60s", "");
+        testDriver = newDriver(topologyConfig);
+    }
+
+    private TopologyConfig newConfig(String windows, String emitModes) {
+        return newConfig(windows, emitModes, "exact");
+    }
+
+    private TopologyConfig newConfig(String windows, String emitModes, String engine) {
+        return newConfig(windows, emitModes, engine, "");
+    }
+
+    private TopologyConfig newConfig(String windows, String emitModes, String engine, String hopping) {
+        return newConfig(windows, emitModes, engine, hopping, "", false);
+    }
+
+    private TopologyConfig newConfig(String windows, String emitModes, String engine, String hopping,
+                                     String weights, boolean dedupUsers) {
+        return newConfig(windows, emitModes, engine, hopping, weights, dedupUsers, true);
+    }
+
+    private TopologyConfig newConfig(String windows, String emitModes, String engine, String hopping,
+                                     String weights, boolean dedupUsers, boolean multiWindow) {
+        RankTopologyProperties properties = new RankTopologyProperties();
+        properties.setWindows(windows);
+        properties.setHopping(hopping);
+        properties.setEngine(engine);
+        properties.setMultiWindow(multiWindow);
+        properties.getEmit().setModes(emitModes);
+        properties.getTopk().setSize(3);
+        properties.getSketch().setWidth(256);
+        properties.getSketch().setDepth(4);
+        properties.getSketch().setCapacity(3);
+        properties.getScoring().setWeights(weights);
+        properties.getScoring().setDedupUsers(dedupUsers);
+        properties.getUniqueViewers().setEnabled(true);
+        return new TopologyConfig(rankSink, EventSerdeConfig.pageViewSerde(schemaRegistry, WireFormat.JSON),
+                                  meterRegistry, properties);
+    }
 
+    private TopologyTestDriver newDriver(TopologyConfig config) {
         StreamsBuilder builder = new StreamsBuilder();
-        topologyConfig.rankStream(builder);
+        config.rankStream(builder);
 
         Properties props = new Properties();
         props.put(StreamsConfig.APPLICATION_ID_CONFIG, "test-rank-app");
@@ -39,7 +106,15 @@ class TopologyConfigTest {
         props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.String().getClass());
         props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, JsonSerde.class);
 
-        testDriver = new TopologyTestDriver(builder.build(), props);
+        return new TopologyTestDriver(builder.build(), props);
+    }
+
+    private TestInputTopic<String, EventDto> inputTopic() {
+        return testDriver.createInputTopic(
+                "events.page_view.v1",
+                Serdes.String().serializer(),
+                new JsonSerde<>(EventDto.class).serializer()
+        );
     }
 
     @AfterEach
@@ -51,18 +126,14 @@ class TopologyConfigTest {
 
     @Test
     void rankStream_shouldProcessEvents() {
-        TestInputTopic<String, EventDto> inputTopic = testDriver.createInputTopic(
-                "events.page_view.v1",
-                Serdes.String().serializer(),
-                new JsonSerde<>(EventDto.class).serializer()
-        );
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
 
         EventDto event = new EventDto(
                 "evt-001",
                 "user-123",
                 "webtoon-456",
                 Instant.now().toEpochMilli(),
-                new EventDto.Props("view")
+                new EventDto.Props(Action.VIEW)
         );
 
         inputTopic.pipeInput("webtoon-456", event);
@@ -71,17 +142,245 @@ class TopologyConfigTest {
         // Actual windowing and sink updates would require more complex setup
     }
 
+    @Test
+    void rankStream_shouldFlushBufferedCountsOnCommit() {
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+
+        // The test driver commits after every record; below batch size the commit does the write
+        long now = Instant.now().toEpochMilli();
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-1", "user-1", "webtoon-1", now, new EventDto.Props(Action.VIEW)));
+
+        // One flush per window branch
+        verify(rankSink, times(2)).flush(any(RankBatch.class));
+
+        // Nothing pending: neither the interval nor the next commit writes again
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+        verify(rankSink, times(2)).flush(any(RankBatch.class));
+    }
+
+    @Test
+    void rankStream_finalMode_shouldEmitOnlyAfterWindowCloses() {
+        testDriver.close();
+        testDriver = newDriver(newConfig("10s", "10s=final"));
+        List<Integer> flushedSizes = new ArrayList<>();
+        doAnswer(inv -> {
+            RankBatch batch = inv.getArgument(0);
+            flushedSizes.add(batch.size());
+            batch.clear();
+            return 0;
+        }).when(rankSink).flush(any(RankBatch.class));
+
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+        long windowStart = 1_700_000_000_000L;  // aligned to 10s
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-1", "user-1", "webtoon-1", windowStart, new EventDto.Props(Action.VIEW)), windowStart);
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-2", "user-2", "webtoon-1", windowStart + 1000, new EventDto.Props(Action.VIEW)), windowStart + 1000);
+        testDriver.advanceWallClockTime(Duration.ofSeconds(2));
+
+        // Window still open: no intermediate counts reach the sink
+        verify(rankSink, never()).flush(any(RankBatch.class));
+
+        // Advancing stream time past the window end closes it
+        inputTopic.pipeInput("webtoon-2", new EventDto("evt-3", "user-3", "webtoon-2", windowStart + 10_000, new EventDto.Props(Action.VIEW)), windowStart + 10_000);
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        assertEquals(List.of(1), flushedSizes);
+    }
+
+    @Test
+    void rankStream_shouldMaintainLocalTopK() {
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+        long windowStart = 1_700_000_000_000L;
+        String[] contents = {"webtoon-1", "webtoon-2", "webtoon-2", "webtoon-3", "webtoon-3", "webtoon-3",
+                             "webtoon-4", "webtoon-4", "webtoon-4", "webtoon-4"};
+        for (int i = 0; i < contents.length; i++) {
+            inputTopic.pipeInput(contents[i], new EventDto("evt-" + i, "user-" + i, contents[i], windowStart + i, new EventDto.Props(Action.VIEW)), windowStart + i);
+        }
+
+        TopKStore store = (TopKStore) testDriver.getStateStore(TopKStore.storeName(10));
+        long windowEnd = windowStart + 10_000;
+        assertEquals(windowEnd, store.latestWindowEnd().getAsLong());
+
+        // Store started mid-stream with this window, so it is not reported as exact
+        assertTrue(store.top(windowEnd, 3).isEmpty());
+
+        // The next window is fully observed; K=3 keeps only the three highest counts
+        for (int i = 0; i < contents.length; i++) {
+            long ts = windowEnd + i;
+            inputTopic.pipeInput(contents[i], new EventDto("evt-n" + i, "user-" + i, contents[i], ts, new EventDto.Props(Action.VIEW)), ts);
+        }
+        List<RankEntry> top = store.top(windowEnd + 10_000, 3).orElseThrow();
+        assertEquals(List.of(new RankEntry("webtoon-4", 4), new RankEntry("webtoon-3", 3), new RankEntry("webtoon-2", 2)), top);
+    }
+
+    @Test
+    void rankStream_shouldCountJsonAndAvroEventsAlike() {
+        testDriver.close();
+        testDriver = newDriver(newConfig("10s", "10s=final"));
+        TestInputTopic<String, EventDto> jsonTopic = inputTopic();
+        TestInputTopic<String, EventDto> avroTopic = testDriver.createInputTopic(
+                "events.page_view.v1",
+                Serdes.String().serializer(),
+                EventSerdeConfig.pageViewSerde(schemaRegistry, WireFormat.AVRO).serializer()
+        );
+
+        long windowStart = 1_700_000_000_000L;
+        jsonTopic.pipeInput("webtoon-1", new EventDto("evt-1", "user-1", "webtoon-1", windowStart, new EventDto.Props(Action.VIEW)), windowStart);
+        avroTopic.pipeInput("webtoon-1", new EventDto("evt-2", null, "webtoon-1", windowStart + 1, new EventDto.Props(Action.LIKE)), windowStart + 1);
+        // Close the window
+        avroTopic.pipeInput("webtoon-2", new EventDto("evt-3", "user-3", "webtoon-2", windowStart + 10_000, new EventDto.Props(Action.VIEW)), windowStart + 10_000);
+
+        TopKStore store = (TopKStore) testDriver.getStateStore(TopKStore.storeName(10));
+        assertEquals(List.of(new RankEntry("webtoon-1", 2)), store.top(windowStart + 10_000, 3).orElseThrow());
+    }
+
+    @Test
+    void rankStream_sketchEngine_shouldRankHeavyHittersInBoundedState() {
+        testDriver.close();
+        testDriver = newDriver(newConfig("10s", "10s=final", "sketch"));
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+
+        long windowStart = 1_700_000_000_000L;
+        String[] contents = {"webtoon-1", "webtoon-2", "webtoon-2", "webtoon-3", "webtoon-3", "webtoon-3",
+                             "webtoon-4", "webtoon-4", "webtoon-4", "webtoon-4"};
+        for (int i = 0; i < contents.length; i++) {
+            inputTopic.pipeInput(contents[i], new EventDto("evt-" + i, "user-" + i, contents[i], windowStart + i, new EventDto.Props(Action.VIEW)), windowStart + i);
+        }
+        // A long tail of one-off contents competing for the three Space-Saving counters
+        for (int i = 0; i < 2; i++) {
+            String tail = "tail-" + i;
+            inputTopic.pipeInput(tail, new EventDto("evt-t" + i, "user-t", tail, windowStart + 100 + i, new EventDto.Props(Action.VIEW)), windowStart + 100 + i);
+        }
+        testDriver.advanceWallClockTime(Duration.ofSeconds(1));
+
+        TopKStore store = (TopKStore) testDriver.getStateStore(TopKStore.storeName(10));
+        // Final mode: nothing forwarded while the window is open
+        assertTrue(store.latestWindowEnd().isEmpty());
+
+        inputTopic.pipeInput("webtoon-9", new EventDto("evt-c", "user-c", "webtoon-9", windowStart + 10_000, new EventDto.Props(Action.VIEW)), windowStart + 10_000);
+
+        List<RankEntry> top = store.top(windowStart + 10_000, 2).orElseThrow();
+        assertEquals(List.of("webtoon-4", "webtoon-3"), top.stream().map(RankEntry::contentId).toList());
+        // Estimates never undercount, and overcount by at most N / capacity = 12 / 3
+        assertTrue(top.get(0).count() >= 4 && top.get(0).count() <= 8);
+        assertTrue(top.get(1).count() >= 3 && top.get(1).count() <= 7);
+    }
+
+    @Test
+    void rankStream_hoppingWindow_shouldRankWholeSpanEveryHop() {
+        testDriver.close();
+        testDriver = newDriver(newConfig("10s", "", "exact", "30s/10s"));
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+
+        long t0 = 1_700_000_010_000L;  // aligned to 10s
+        pipe(inputTopic, "webtoon-1", t0);
+        pipe(inputTopic, "webtoon-1", t0 + 1);
+        pipe(inputTopic, "webtoon-2", t0 + 10_000);
+        pipe(inputTopic, "webtoon-2", t0 + 20_000);
+        pipe(inputTopic, "webtoon-2", t0 + 20_001);
+
+        TopKStore store = (TopKStore) testDriver.getStateStore(TopKStore.storeName(30));
+        // Hop ending t0 + 20s: [t0 - 10s, t0 + 20s)
+        assertEquals(List.of(new RankEntry("webtoon-1", 2), new RankEntry("webtoon-2", 1)),
+                     store.top(t0 + 20_000, 3).orElseThrow());
+
+        // Closing the hop ending t0 + 30s counts both later buckets of webtoon-2
+        pipe(inputTopic, "webtoon-3", t0 + 30_000);
+        assertEquals(List.of(new RankEntry("webtoon-2", 3), new RankEntry("webtoon-1", 2)),
+                     store.top(t0 + 30_000, 3).orElseThrow());
+
+        // Hop ending t0 + 40s: webtoon-1's bucket has left the window
+        pipe(inputTopic, "webtoon-3", t0 + 40_000);
+        assertEquals(List.of(new RankEntry("webtoon-2", 3), new RankEntry("webtoon-3", 1)),
+                     store.top(t0 + 40_000, 3).orElseThrow());
+    }
+
+    @Test
+    void parseHoppingWindows_shouldRejectInvalidHops() {
+        assertEquals(Map.of(300, 10), TopologyConfig.parseHoppingWindows("300s/10s"));
+        assertThrows(IllegalArgumentException.class, () -> TopologyConfig.parseHoppingWindows("300s/7s"));
+        assertThrows(IllegalArgumentException.class, () -> TopologyConfig.parseHoppingWindows("300s"));
+        assertThrows(IllegalArgumentException.class, () -> newConfig("10s,30s", "", "exact", "30s/10s"));
+    }
+
+    private static void pipe(TestInputTopic<String, EventDto> inputTopic, String contentId, long ts) {
+        inputTopic.pipeInput(contentId, new EventDto("evt-" + ts, "user-1", contentId, ts, new EventDto.Props(Action.VIEW)), ts);
+    }
+
+    @Test
+    void rankStream_weightedScoring_shouldRankLikesAboveViews() {
+        testDriver.close();
+        testDriver = newDriver(newConfig("10s", "10s=final", "exact", "", "view=1,like=5", true));
+        TestInputTopic<String, EventDto> inputTopic = inputTopic();
+
+        long windowStart = 1_700_000_000_000L;
+        // webtoon-1: three distinct viewers; webtoon-2: one like plus the same viewer refreshing
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-1", "user-1", "webtoon-1", windowStart, new EventDto.Props(Action.VIEW)), windowStart);
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-2", "user-2", "webtoon-1", windowStart + 1, new EventDto.Props(Action.VIEW)), windowStart + 1);
+        inputTopic.pipeInput("webtoon-1", new EventDto("evt-3", "user-3", "webtoon-1", windowStart + 2, new EventDto.Props(Action.VIEW)), windowStart + 2);
+        inputTopic.pipeInput("webtoon-2", new EventDto("evt-4", "user-4", "webtoon-2", windowStart + 3, new EventDto.Props(Action.LIKE)), windowStart + 3);
+        inputTopic.pipeInput("webtoon-2", new EventDto("evt-5", "user-4", "webtoon-2", windowStart + 4, new EventDto.Props(Action.VIEW)), windowStart + 4);
+        inputTopic.pipeInput("webtoon-2", new EventDto("evt-6", "user-4", "webtoon-2", windowStart + 5, new EventDto.Props(Action.VIEW)), windowStart + 5);
+        // Close the window
+        inputTopic.pipeInput("webtoon-3", new EventDto("evt-7", "user-5", "webtoon-3", windowStart + 10_000, new EventDto.Props(Action.VIEW)), windowStart + 10_000);
+
+        TopKStore store = (TopKStore) testDriver.getStateStore(TopKStore.storeName(10));
+        assertEquals(List.of(new RankEntry("webtoon-2", 6), new RankEntry("webtoon-1", 3)),
+                     store.top(windowStart + 10_000, 3).orElseThrow());
+    }
+
+    @Test
+    void rankStream_multiWindow_shouldMatchPerWindowBranches() {
+        long t0 = 1_699_999_980_000L;  // aligned to 30s
+        String[] contents = {"webtoon-1", "webtoon-2", "webtoon-2", "webtoon-1", "webtoon-2", "webtoon-3"};
+        List<List<RankEntry>> results = new ArrayList<>();
+        for (boolean multiWindow : new boolean[] {false, true}) {
+            testDriver.close();
+            testDriver = newDriver(newConfig("10s,30s", "10s=final,30s=final", "exact", "", "", false, multiWindow));
+            TestInputTopic<String, EventDto> inputTopic = inputTopic();
+            for (int i = 0; i < contents.length; i++) {
+                // Spread over the first three 10s windows of one 30s window
+                pipe(inputTopic, contents[i], t0 + i * 5_000L);
+            }
+            // Closes every window above
+            pipe(inputTopic, "webtoon-9", t0 + 30_000);
+
+            TopKStore tens = (TopKStore) testDriver.getStateStore(TopKStore.storeName(10));
+            TopKStore thirties = (TopKStore) testDriver.getStateStore(TopKStore.storeName(30));
+            results.add(tens.top(t0 + 20_000, 3).orElseThrow());
+            results.add(thirties.top(t0 + 30_000, 3).orElseThrow());
+        }
+
+        assertEquals(List.of(new RankEntry("webtoon-2", 3), new RankEntry("webtoon-1", 2), new RankEntry("webtoon-3", 1)),
+                     results.get(1));
+        assertEquals(results.subList(0, 2), results.subList(2, 4));
+    }
+
+    @Test
+    void newConfig_unknownActionWeight_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> newConfig("10s", "", "exact", "", "share=2", false));
+    }
+
+    @Test
+    void newConfig_unknownEngine_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> newConfig("10s", "", "guess"));
+    }
+
+    @Test
+    void parseEmitModes_shouldThrowOnUnknownMode() {
+        assertThrows(IllegalArgumentException.class, () -> newConfig("10s", "10s=sometimes"));
+    }
+
     @Test
     void parseWindowSeconds_shouldHandleValidFormat() {
         // Tested implicitly through constructor
-        TopologyConfig config = new TopologyConfig(rankSink, meterRegistry, "10s,30s,60s");
+        TopologyConfig config = newConfig("10s,30s,60s", "");
         // If parsing fails, constructor would throw exception
     }
 
     @Test
     void parseWindowSeconds_shouldThrowOnInvalidFormat() {
         try {
-            new TopologyConfig(rankSink, meterRegistry, "10,30s");
+            newConfig("10,30s", "");
         } catch (IllegalArgumentException e) {
             // Expected exception
         }